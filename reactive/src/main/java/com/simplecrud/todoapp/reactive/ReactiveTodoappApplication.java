@@ -0,0 +1,13 @@
+package com.simplecrud.todoapp.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class ReactiveTodoappApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(ReactiveTodoappApplication.class, args);
+    }
+
+}
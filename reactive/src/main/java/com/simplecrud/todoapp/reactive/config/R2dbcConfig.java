@@ -0,0 +1,46 @@
+package com.simplecrud.todoapp.reactive.config;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.dialect.DialectResolver;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Date;
+
+@Configuration
+public class R2dbcConfig {
+
+    // R2DBC drivers only bind java.time types; Task keeps java.util.Date so its JSON matches the MVC API
+    @Bean
+    public R2dbcCustomConversions r2dbcCustomConversions(ConnectionFactory connectionFactory) {
+        return R2dbcCustomConversions.of(DialectResolver.getDialect(connectionFactory),
+                Arrays.asList(DateToLocalDateTimeConverter.INSTANCE, LocalDateTimeToDateConverter.INSTANCE));
+    }
+
+    @WritingConverter
+    enum DateToLocalDateTimeConverter implements Converter<Date, LocalDateTime> {
+        INSTANCE;
+
+        @Override
+        public LocalDateTime convert(Date source) {
+            return LocalDateTime.ofInstant(source.toInstant(), ZoneId.systemDefault());
+        }
+    }
+
+    @ReadingConverter
+    enum LocalDateTimeToDateConverter implements Converter<LocalDateTime, Date> {
+        INSTANCE;
+
+        @Override
+        public Date convert(LocalDateTime source) {
+            return Date.from(source.atZone(ZoneId.systemDefault()).toInstant());
+        }
+    }
+}
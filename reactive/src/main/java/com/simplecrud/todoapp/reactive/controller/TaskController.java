@@ -0,0 +1,111 @@
+package com.simplecrud.todoapp.reactive.controller;
+
+import com.simplecrud.todoapp.reactive.dto.TaskStats;
+import com.simplecrud.todoapp.reactive.exceptions.CustomChineseException;
+import com.simplecrud.todoapp.reactive.exceptions.TaskNotFoundException;
+import com.simplecrud.todoapp.reactive.exceptions.自定义中文异常;
+import com.simplecrud.todoapp.reactive.model.Task;
+import com.simplecrud.todoapp.reactive.service.TaskService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Valid;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Same paths and payloads as the Spring MVC TaskController; no handler ever blocks the event loop
+@RestController
+@RequestMapping("/tasks")
+public class TaskController {
+
+    // Upper bound on rows requested from the database ahead of what the client has consumed
+    static final int STREAM_PREFETCH = 256;
+
+    private final TaskService taskService;
+
+    public TaskController(TaskService taskService) {
+        this.taskService = taskService;
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Task>> getTask(@PathVariable Long id) {
+        return taskService.findTaskById(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    // Streamed as a JSON array, or one task per line when the client accepts application/x-ndjson;
+    // demand from the connection is propagated to the database query
+    @GetMapping(value = "/completed", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Task> getCompletedTasks() {
+        return taskService.findAllCompletedTasks().limitRate(STREAM_PREFETCH);
+    }
+
+    @GetMapping(value = "/uncompleted", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Task> getUncompletedTasks() {
+        return taskService.findAllUncompletedTasks().limitRate(STREAM_PREFETCH);
+    }
+
+    @GetMapping("/stats")
+    public Mono<TaskStats> getStats() {
+        return taskService.getStats();
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Task> exportTasks(@RequestParam(value = "isCompleted", required = false) Boolean isCompleted) {
+        return taskService.exportTasks(isCompleted).limitRate(STREAM_PREFETCH);
+    }
+
+    @GetMapping("/randomBoolean")
+    public Map<String, Boolean> getRandomBoolean() {
+        return Collections.singletonMap("result", ThreadLocalRandom.current().nextBoolean());
+    }
+
+    // test for chinese signs
+    @GetMapping("/chinese")
+    public Mono<String> 获取数据() {
+        if (ThreadLocalRandom.current().nextBoolean()) {
+            return Mono.error(new CustomChineseException("模拟异常"));
+        }
+        return Mono.error(new 自定义中文异常("模拟异常 - 自定义中文异常"));
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<Task> createTask(@Valid @RequestBody Task newTask) {
+        return taskService.createTask(newTask);
+    }
+
+    @PutMapping("/{id}/completion")
+    public Mono<ResponseEntity<Task>> updateTaskCompletion(@PathVariable Long id,
+                                                           @RequestParam("isCompleted") boolean isCompleted) {
+        return taskService.updateTaskCompletionStatus(id, isCompleted)
+                .map(ResponseEntity::ok)
+                .onErrorResume(TaskNotFoundException.class, e -> Mono.just(ResponseEntity.notFound().build()));
+    }
+
+    // The body is the raw description, as in the MVC API
+    @PutMapping("/{id}/description")
+    public Mono<ResponseEntity<Task>> updateTaskDescription(@PathVariable Long id, @RequestBody String description) {
+        return taskService.updateTaskDescription(id, description)
+                .map(ResponseEntity::ok)
+                .onErrorResume(TaskNotFoundException.class, e -> Mono.just(ResponseEntity.notFound().build()));
+    }
+
+    // Idempotent soft delete: a missing or already deleted task is answered with 200 as well
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteTask(@PathVariable Long id) {
+        return taskService.deleteTask(id)
+                .then(Mono.just(ResponseEntity.ok().<Void>build()));
+    }
+
+    @DeleteMapping("/error")
+    public ResponseEntity<String> alwaysDeleteError() {
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("This DELETE endpoint always returns an error.");
+    }
+}
@@ -0,0 +1,8 @@
+package com.simplecrud.todoapp.reactive.exceptions;
+
+public class CustomChineseException extends RuntimeException{
+
+    public CustomChineseException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.simplecrud.todoapp.reactive.exceptions;
+
+public class TaskNotFoundException extends RuntimeException {
+
+    public TaskNotFoundException(Long id) {
+        super("Task not found with id: " + id);
+    }
+}
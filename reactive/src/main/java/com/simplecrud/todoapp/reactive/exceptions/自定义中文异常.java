@@ -0,0 +1,8 @@
+package com.simplecrud.todoapp.reactive.exceptions;
+
+public class 自定义中文异常 extends RuntimeException{
+
+    public 自定义中文异常(String message) {
+        super(message);
+    }
+}
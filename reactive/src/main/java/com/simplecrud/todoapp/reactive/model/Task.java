@@ -0,0 +1,130 @@
+package com.simplecrud.todoapp.reactive.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.Date;
+import java.util.Objects;
+
+// Maps the same task table as the JPA entity and serializes to the same JSON
+@Table("task")
+public class Task {
+
+    @Id
+    private Long id;
+
+    @NotNull
+    @Size(max = 255)
+    private String description;
+
+    @Column("is_completed")
+    private Boolean isCompleted;
+
+    @Column("due_date")
+    private Date dueDate;
+
+    @Column("created_at")
+    private Date createdAt;
+
+    @Column("updated_at")
+    private Date updatedAt;
+
+    // Set when the task is soft-deleted; the servlet application purges such rows later
+    @Column("deleted_at")
+    @JsonIgnore
+    private Date deletedAt;
+
+    public Task() {
+    }
+
+    public Task(String description, Boolean isCompleted, Date dueDate) {
+        this.description = description;
+        this.isCompleted = isCompleted;
+        this.dueDate = dueDate;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public Boolean getIsCompleted() {
+        return isCompleted;
+    }
+
+    public void setIsCompleted(Boolean completed) {
+        isCompleted = completed;
+    }
+
+    public Date getDueDate() {
+        return dueDate;
+    }
+
+    public void setDueDate(Date dueDate) {
+        this.dueDate = dueDate;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    // Timestamps are assigned by TaskService; there is no lifecycle callback as with JPA
+    public void setCreatedAt(Date createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Date getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Date updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public Date getDeletedAt() {
+        return deletedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "Task{" +
+                "id=" + id +
+                ", description='" + description + '\'' +
+                ", isCompleted=" + isCompleted +
+                ", dueDate=" + dueDate +
+                ", createdAt=" + createdAt +
+                ", updatedAt=" + updatedAt +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Task)) return false;
+        Task task = (Task) o;
+        return Objects.equals(getId(), task.getId()) && Objects.equals(getDescription(), task.getDescription()) &&
+                Objects.equals(getIsCompleted(), task.getIsCompleted()) &&
+                Objects.equals(getDueDate(), task.getDueDate()) && Objects.equals(getCreatedAt(), task.getCreatedAt())
+                && Objects.equals(getUpdatedAt(), task.getUpdatedAt());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getId(), getDescription(), getIsCompleted(), getDueDate(), getCreatedAt(), getUpdatedAt());
+    }
+}
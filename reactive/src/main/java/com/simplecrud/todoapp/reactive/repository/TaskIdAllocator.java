@@ -0,0 +1,107 @@
+package com.simplecrud.todoapp.reactive.repository;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out task ids from blocks reserved in the {@code task_seq} table.
+ * <p>
+ * Uses the same storage semantics as the MVC build's {@code SegmentIdOptimizer}: a reservation reads
+ * {@code next_val} as the first id of a block of {@link #BLOCK_SIZE} and advances it by the block size, so
+ * both applications can insert into the same table without colliding. Ids within a block are taken with
+ * an atomic increment; concurrent callers that find the block exhausted share one reservation.
+ */
+@Component
+public class TaskIdAllocator {
+
+    // Must match the increment_size of the JPA id generator
+    static final int BLOCK_SIZE = 100;
+
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+
+    private final Object lock = new Object();
+    private volatile Block current = Block.EXHAUSTED;
+    private Mono<Block> pending;
+
+    public TaskIdAllocator(DatabaseClient databaseClient, TransactionalOperator transactionalOperator) {
+        this.databaseClient = databaseClient;
+        this.transactionalOperator = transactionalOperator;
+    }
+
+    public Mono<Long> nextId() {
+        return Mono.defer(() -> {
+            Block block = current;
+            long id = block.next.getAndIncrement();
+            if (id < block.limit) {
+                return Mono.just(id);
+            }
+            return reserveAfter(block).then(nextId());
+        });
+    }
+
+    private Mono<Block> reserveAfter(Block exhausted) {
+        synchronized (lock) {
+            if (current != exhausted) {
+                // Another caller already replaced the block
+                return Mono.just(current);
+            }
+            if (pending == null) {
+                pending = reserveBlock()
+                        .doOnNext(this::install)
+                        .doOnError(e -> clearPending())
+                        .cache();
+            }
+            return pending;
+        }
+    }
+
+    private void install(Block block) {
+        synchronized (lock) {
+            current = block;
+            pending = null;
+        }
+    }
+
+    private void clearPending() {
+        synchronized (lock) {
+            pending = null;
+        }
+    }
+
+    private Mono<Block> reserveBlock() {
+        Mono<Block> reservation = databaseClient.sql("select next_val from task_seq for update")
+                .map(row -> row.get("next_val", Long.class))
+                .one()
+                .flatMap(low -> databaseClient.sql("update task_seq set next_val = :next where next_val = :low")
+                        .bind("next", low + BLOCK_SIZE)
+                        .bind("low", low)
+                        .fetch()
+                        .rowsUpdated()
+                        .map(updated -> {
+                            if (updated != 1) {
+                                throw new IllegalStateException("task_seq was changed concurrently");
+                            }
+                            // Ids below 1 are never handed out, mirroring the JPA optimizer
+                            return new Block(Math.max(low, 1L), low + BLOCK_SIZE);
+                        }));
+        return transactionalOperator.transactional(reservation);
+    }
+
+    private static final class Block {
+
+        static final Block EXHAUSTED = new Block(0L, 0L);
+
+        final AtomicLong next;
+        final long limit;
+
+        Block(long first, long limit) {
+            this.next = new AtomicLong(first);
+            this.limit = limit;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.simplecrud.todoapp.reactive.repository;
+
+import com.simplecrud.todoapp.reactive.model.Task;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Date;
+
+public interface TaskRepository extends ReactiveCrudRepository<Task, Long> {
+
+    // Soft-deleted rows are skipped by every read, as the JPA entity's @Where does in the MVC build
+    Mono<Task> findByIdAndDeletedAtIsNull(Long id);
+
+    Mono<Boolean> existsByIdAndDeletedAtIsNull(Long id);
+
+    // Ordered by id so the stream uses idx_task_completed_deleted_id, like the keyset pages of the MVC build
+    Flux<Task> findByIsCompletedAndDeletedAtIsNullOrderByIdAsc(boolean isCompleted);
+
+    Flux<Task> findAllByDeletedAtIsNullOrderByIdAsc();
+
+    Mono<Long> countByDeletedAtIsNull();
+
+    Mono<Long> countByIsCompletedAndDeletedAtIsNull(boolean isCompleted);
+
+    Mono<Long> countByIsCompletedAndDeletedAtIsNullAndDueDateBefore(boolean isCompleted, Date dueDate);
+
+    // Same conditional UPDATEs as the JPA repository: 0 rows means missing or already in that state.
+    // They bump version too, which the servlet application's ETags are derived from.
+    @Modifying
+    @Query("update task set is_completed = :isCompleted, updated_at = :updatedAt, version = version + 1 " +
+            "where id = :id and is_completed <> :isCompleted and deleted_at is null")
+    Mono<Integer> updateCompletionStatus(Long id, boolean isCompleted, Date updatedAt);
+
+    @Modifying
+    @Query("update task set description = :description, updated_at = :updatedAt, version = version + 1 " +
+            "where id = :id and description <> :description and deleted_at is null")
+    Mono<Integer> updateDescription(Long id, String description, Date updatedAt);
+
+    // Soft delete; 0 rows means missing or already deleted
+    @Modifying
+    @Query("update task set deleted_at = :deletedAt, updated_at = :deletedAt, version = version + 1 " +
+            "where id = :id and deleted_at is null")
+    Mono<Integer> softDeleteById(Long id, Date deletedAt);
+}
@@ -0,0 +1,103 @@
+package com.simplecrud.todoapp.reactive.service;
+
+import com.simplecrud.todoapp.reactive.dto.TaskStats;
+import com.simplecrud.todoapp.reactive.exceptions.TaskNotFoundException;
+import com.simplecrud.todoapp.reactive.model.Task;
+import com.simplecrud.todoapp.reactive.repository.TaskIdAllocator;
+import com.simplecrud.todoapp.reactive.repository.TaskRepository;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Date;
+
+@Service
+public class TaskService {
+
+    private final TaskRepository taskRepository;
+    private final TaskIdAllocator taskIdAllocator;
+    private final R2dbcEntityTemplate entityTemplate;
+
+    public TaskService(TaskRepository taskRepository, TaskIdAllocator taskIdAllocator,
+                       R2dbcEntityTemplate entityTemplate) {
+        this.taskRepository = taskRepository;
+        this.taskIdAllocator = taskIdAllocator;
+        this.entityTemplate = entityTemplate;
+    }
+
+    public Mono<Task> findTaskById(Long id) {
+        return taskRepository.findByIdAndDeletedAtIsNull(id);
+    }
+
+    // Rows are emitted as the driver decodes them, at the pace the subscriber requests
+    public Flux<Task> findAllCompletedTasks() {
+        return taskRepository.findByIsCompletedAndDeletedAtIsNullOrderByIdAsc(true);
+    }
+
+    public Flux<Task> findAllUncompletedTasks() {
+        return taskRepository.findByIsCompletedAndDeletedAtIsNullOrderByIdAsc(false);
+    }
+
+    public Flux<Task> exportTasks(Boolean isCompleted) {
+        return isCompleted == null
+                ? taskRepository.findAllByDeletedAtIsNullOrderByIdAsc()
+                : taskRepository.findByIsCompletedAndDeletedAtIsNullOrderByIdAsc(isCompleted);
+    }
+
+    public Mono<TaskStats> getStats() {
+        return Mono.zip(taskRepository.countByDeletedAtIsNull(),
+                        taskRepository.countByIsCompletedAndDeletedAtIsNull(true),
+                        taskRepository.countByIsCompletedAndDeletedAtIsNullAndDueDateBefore(false, new Date()))
+                .map(counts -> new TaskStats(counts.getT1(), counts.getT2(),
+                        counts.getT1() - counts.getT2(), counts.getT3()));
+    }
+
+    // The id is assigned up front, so this is always an INSERT (save() would treat it as an UPDATE)
+    public Mono<Task> createTask(Task newTask) {
+        return taskIdAllocator.nextId().flatMap(id -> {
+            Date now = new Date();
+            newTask.setId(id);
+            newTask.setIsCompleted(false);
+            newTask.setCreatedAt(now);
+            newTask.setUpdatedAt(now);
+            return entityTemplate.insert(newTask);
+        });
+    }
+
+    // Applies the change with one conditional UPDATE, then reads the task back for the response
+    @Transactional
+    public Mono<Task> updateTaskCompletionStatus(Long id, boolean isCompleted) {
+        return taskRepository.updateCompletionStatus(id, isCompleted, new Date())
+                .flatMap(updated -> checkUpdated(id, updated))
+                .then(taskRepository.findByIdAndDeletedAtIsNull(id))
+                .switchIfEmpty(notFound(id));
+    }
+
+    @Transactional
+    public Mono<Task> updateTaskDescription(Long id, String description) {
+        return taskRepository.updateDescription(id, description, new Date())
+                .flatMap(updated -> checkUpdated(id, updated))
+                .then(taskRepository.findByIdAndDeletedAtIsNull(id))
+                .switchIfEmpty(notFound(id));
+    }
+
+    // The UPDATEs skip rows that already hold the value, so only a zero count needs an existence check
+    private Mono<Void> checkUpdated(Long id, int updated) {
+        if (updated > 0) {
+            return Mono.empty();
+        }
+        return taskRepository.existsByIdAndDeletedAtIsNull(id)
+                .flatMap(exists -> exists ? Mono.<Void>empty() : notFound(id));
+    }
+
+    // Idempotent like the servlet application: deleting a missing or already deleted task is a no-op
+    public Mono<Void> deleteTask(Long id) {
+        return taskRepository.softDeleteById(id, new Date()).then();
+    }
+
+    private static <T> Mono<T> notFound(Long id) {
+        return Mono.error(new TaskNotFoundException(id));
+    }
+}
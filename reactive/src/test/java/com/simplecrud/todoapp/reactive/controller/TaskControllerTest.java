@@ -0,0 +1,173 @@
+package com.simplecrud.todoapp.reactive.controller;
+
+import com.simplecrud.todoapp.reactive.dto.TaskStats;
+import com.simplecrud.todoapp.reactive.exceptions.TaskNotFoundException;
+import com.simplecrud.todoapp.reactive.model.Task;
+import com.simplecrud.todoapp.reactive.service.TaskService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Date;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(TaskController.class)
+class TaskControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private TaskService taskService;
+
+    private Task sampleTask;
+
+    @BeforeEach
+    void setUp() {
+        sampleTask = new Task("Test task", false, new Date());
+        sampleTask.setId(1L);
+    }
+
+    @Test
+    void getTask_ExistingTask_ReturnsTask() {
+        // Arrange
+        when(taskService.findTaskById(1L)).thenReturn(Mono.just(sampleTask));
+
+        // Act & Assert
+        webTestClient.get().uri("/tasks/1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(1)
+                .jsonPath("$.description").isEqualTo("Test task")
+                .jsonPath("$.isCompleted").isEqualTo(false);
+    }
+
+    @Test
+    void getTask_NonExistingTask_ReturnsNotFound() {
+        // Arrange
+        when(taskService.findTaskById(2L)).thenReturn(Mono.empty());
+
+        // Act & Assert
+        webTestClient.get().uri("/tasks/2").exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    void getUncompletedTasks_ReturnsJsonArray() {
+        // Arrange
+        Task other = new Task("Other task", false, new Date());
+        other.setId(2L);
+        when(taskService.findAllUncompletedTasks()).thenReturn(Flux.just(sampleTask, other));
+
+        // Act & Assert
+        webTestClient.get().uri("/tasks/uncompleted")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[1].id").isEqualTo(2);
+    }
+
+    @Test
+    void getCompletedTasks_AsNdjson_StreamsOneTaskPerLine() {
+        // Arrange
+        sampleTask.setIsCompleted(true);
+        when(taskService.findAllCompletedTasks()).thenReturn(Flux.just(sampleTask, sampleTask));
+
+        // Act & Assert
+        webTestClient.get().uri("/tasks/completed")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(Task.class).hasSize(2);
+    }
+
+    @Test
+    void createTask_ReturnsCreated() {
+        // Arrange
+        when(taskService.createTask(any(Task.class))).thenReturn(Mono.just(sampleTask));
+
+        // Act & Assert
+        webTestClient.post().uri("/tasks")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"description\":\"Test task\",\"dueDate\":\"2023-01-01\",\"isCompleted\":false}")
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody().jsonPath("$.id").isEqualTo(1);
+    }
+
+    @Test
+    void createTask_WithoutDescription_ReturnsBadRequest() {
+        // Act & Assert
+        webTestClient.post().uri("/tasks")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"isCompleted\":false}")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void updateTaskCompletion_NonExistingTask_ReturnsNotFound() {
+        // Arrange
+        when(taskService.updateTaskCompletionStatus(2L, true)).thenReturn(Mono.error(new TaskNotFoundException(2L)));
+
+        // Act & Assert
+        webTestClient.put().uri("/tasks/2/completion?isCompleted=true")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void updateTaskDescription_UsesRawBody() {
+        // Arrange
+        sampleTask.setDescription("new description");
+        when(taskService.updateTaskDescription(1L, "new description")).thenReturn(Mono.just(sampleTask));
+
+        // Act & Assert
+        webTestClient.put().uri("/tasks/1/description")
+                .contentType(MediaType.TEXT_PLAIN)
+                .bodyValue("new description")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.description").isEqualTo("new description");
+    }
+
+    @Test
+    void deleteTask_NonExistingTask_ReturnsOk() {
+        // Arrange - the soft delete is idempotent and completes either way
+        when(taskService.deleteTask(2L)).thenReturn(Mono.empty());
+
+        // Act & Assert
+        webTestClient.delete().uri("/tasks/2").exchange().expectStatus().isOk();
+    }
+
+    @Test
+    void getStats_ReturnsCounts() {
+        // Arrange
+        when(taskService.getStats()).thenReturn(Mono.just(new TaskStats(3, 1, 2, 1)));
+
+        // Act & Assert
+        webTestClient.get().uri("/tasks/stats")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.total").isEqualTo(3)
+                .jsonPath("$.uncompleted").isEqualTo(2);
+    }
+
+    @Test
+    void deleteError_AlwaysReturnsInternalServerError() {
+        // Act & Assert
+        webTestClient.delete().uri("/tasks/error").exchange().expectStatus().is5xxServerError();
+    }
+}
@@ -0,0 +1,121 @@
+package com.simplecrud.todoapp.reactive.repository;
+
+import com.simplecrud.todoapp.reactive.config.R2dbcConfig;
+import com.simplecrud.todoapp.reactive.model.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataR2dbcTest
+@Import({R2dbcConfig.class, TaskIdAllocator.class})
+class TaskRepositoryTest {
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskIdAllocator taskIdAllocator;
+
+    @Autowired
+    private R2dbcEntityTemplate entityTemplate;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @BeforeEach
+    void setUp() {
+        databaseClient.sql("delete from task").then()
+                .then(databaseClient.sql("delete from task_seq").then())
+                .then(databaseClient.sql("insert into task_seq (next_val) values (1)").then())
+                .block();
+    }
+
+    @Test
+    void findByIsCompletedAndDeletedAtIsNullOrderByIdAsc_StreamsMatchingTasksInIdOrder() {
+        // Arrange
+        insert(3L, "third", false);
+        insert(1L, "first", false);
+        insert(2L, "done", true);
+
+        // Act & Assert
+        StepVerifier.create(taskRepository.findByIsCompletedAndDeletedAtIsNullOrderByIdAsc(false).map(Task::getId))
+                .expectNext(1L, 3L)
+                .verifyComplete();
+    }
+
+    @Test
+    void updateCompletionStatus_OnlyChangesRowsWithDifferentValue() {
+        // Arrange
+        insert(1L, "task", false);
+
+        // Act & Assert
+        StepVerifier.create(taskRepository.updateCompletionStatus(1L, true, new Date()))
+                .expectNext(1)
+                .verifyComplete();
+        StepVerifier.create(taskRepository.updateCompletionStatus(1L, true, new Date()))
+                .expectNext(0)
+                .verifyComplete();
+        StepVerifier.create(taskRepository.findByIdAndDeletedAtIsNull(1L).map(Task::getIsCompleted))
+                .expectNext(true)
+                .verifyComplete();
+    }
+
+    @Test
+    void softDeleteById_HidesTaskFromReads() {
+        // Arrange
+        insert(1L, "task", false);
+        insert(2L, "other", false);
+
+        // Act & Assert
+        StepVerifier.create(taskRepository.softDeleteById(1L, new Date())).expectNext(1).verifyComplete();
+        StepVerifier.create(taskRepository.softDeleteById(1L, new Date())).expectNext(0).verifyComplete();
+        StepVerifier.create(taskRepository.findByIdAndDeletedAtIsNull(1L)).verifyComplete();
+        StepVerifier.create(taskRepository.existsByIdAndDeletedAtIsNull(1L)).expectNext(false).verifyComplete();
+        StepVerifier.create(taskRepository.findAllByDeletedAtIsNullOrderByIdAsc().map(Task::getId))
+                .expectNext(2L)
+                .verifyComplete();
+        StepVerifier.create(taskRepository.countByDeletedAtIsNull()).expectNext(1L).verifyComplete();
+        StepVerifier.create(taskRepository.updateCompletionStatus(1L, true, new Date())).expectNext(0).verifyComplete();
+    }
+
+    @Test
+    void nextId_ConcurrentCallersGetDistinctIdsFromReservedBlocks() {
+        // Act
+        List<Long> ids = Flux.range(0, 250)
+                .flatMap(i -> taskIdAllocator.nextId(), 32)
+                .collectList()
+                .block();
+
+        // Assert
+        Set<Long> distinct = new HashSet<>(ids);
+        assertEquals(250, distinct.size());
+        assertEquals(1L, distinct.stream().mapToLong(Long::longValue).min().getAsLong());
+        assertEquals(250L, distinct.stream().mapToLong(Long::longValue).max().getAsLong());
+        // Three blocks of 100 were reserved
+        StepVerifier.create(databaseClient.sql("select next_val from task_seq")
+                        .map(row -> row.get("next_val", Long.class)).one())
+                .expectNext(301L)
+                .verifyComplete();
+    }
+
+    private void insert(Long id, String description, boolean isCompleted) {
+        Task task = new Task(description, isCompleted, new Date());
+        task.setId(id);
+        task.setCreatedAt(new Date());
+        task.setUpdatedAt(new Date());
+        entityTemplate.insert(task).block();
+    }
+}
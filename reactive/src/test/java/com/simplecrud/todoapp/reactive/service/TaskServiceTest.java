@@ -0,0 +1,110 @@
+package com.simplecrud.todoapp.reactive.service;
+
+import com.simplecrud.todoapp.reactive.exceptions.TaskNotFoundException;
+import com.simplecrud.todoapp.reactive.model.Task;
+import com.simplecrud.todoapp.reactive.repository.TaskIdAllocator;
+import com.simplecrud.todoapp.reactive.repository.TaskRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TaskServiceTest {
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private TaskIdAllocator taskIdAllocator;
+
+    @Mock
+    private R2dbcEntityTemplate entityTemplate;
+
+    @InjectMocks
+    private TaskService taskService;
+
+    @Test
+    void createTask_AssignsIdAndTimestampsBeforeInsert() {
+        // Arrange
+        Task newTask = new Task("New task", true, new Date());
+        when(taskIdAllocator.nextId()).thenReturn(Mono.just(42L));
+        when(entityTemplate.insert(any(Task.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        // Act & Assert
+        StepVerifier.create(taskService.createTask(newTask))
+                .assertNext(task -> {
+                    assertEquals(42L, task.getId());
+                    assertFalse(task.getIsCompleted());
+                    assertNotNull(task.getCreatedAt());
+                    assertEquals(task.getCreatedAt(), task.getUpdatedAt());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void updateTaskCompletionStatus_Unchanged_ChecksExistenceAndReturnsTask() {
+        // Arrange
+        Task task = new Task("Task", true, new Date());
+        when(taskRepository.updateCompletionStatus(eq(1L), eq(true), any(Date.class))).thenReturn(Mono.just(0));
+        when(taskRepository.existsByIdAndDeletedAtIsNull(1L)).thenReturn(Mono.just(true));
+        when(taskRepository.findByIdAndDeletedAtIsNull(1L)).thenReturn(Mono.just(task));
+
+        // Act & Assert
+        StepVerifier.create(taskService.updateTaskCompletionStatus(1L, true))
+                .expectNext(task)
+                .verifyComplete();
+    }
+
+    @Test
+    void updateTaskCompletionStatus_Changed_SkipsExistenceCheck() {
+        // Arrange
+        Task task = new Task("Task", true, new Date());
+        when(taskRepository.updateCompletionStatus(eq(1L), eq(true), any(Date.class))).thenReturn(Mono.just(1));
+        when(taskRepository.findByIdAndDeletedAtIsNull(1L)).thenReturn(Mono.just(task));
+
+        // Act & Assert
+        StepVerifier.create(taskService.updateTaskCompletionStatus(1L, true))
+                .expectNext(task)
+                .verifyComplete();
+        verify(taskRepository, never()).existsByIdAndDeletedAtIsNull(1L);
+    }
+
+    @Test
+    void updateTaskDescription_NonExistingTask_ErrorsWithTaskNotFound() {
+        // Arrange
+        when(taskRepository.updateDescription(eq(2L), eq("text"), any(Date.class))).thenReturn(Mono.just(0));
+        when(taskRepository.existsByIdAndDeletedAtIsNull(2L)).thenReturn(Mono.just(false));
+        when(taskRepository.findByIdAndDeletedAtIsNull(2L)).thenReturn(Mono.empty());
+
+        // Act & Assert
+        StepVerifier.create(taskService.updateTaskDescription(2L, "text"))
+                .expectError(TaskNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void deleteTask_NonExistingTask_CompletesWithoutError() {
+        // Arrange
+        when(taskRepository.softDeleteById(eq(2L), any(Date.class))).thenReturn(Mono.just(0));
+
+        // Act & Assert
+        StepVerifier.create(taskService.deleteTask(2L))
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,14 @@
+CREATE TABLE IF NOT EXISTS task (
+    id BIGINT PRIMARY KEY,
+    description VARCHAR(255) NOT NULL,
+    is_completed BOOLEAN NOT NULL,
+    due_date TIMESTAMP,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0,
+    deleted_at TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS task_seq (
+    next_val BIGINT NOT NULL
+);
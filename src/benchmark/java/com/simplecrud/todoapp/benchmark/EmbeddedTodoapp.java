@@ -0,0 +1,42 @@
+package com.simplecrud.todoapp.benchmark;
+
+import com.simplecrud.todoapp.TodoappApplication;
+import com.simplecrud.todoapp.model.Task;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Starts the application without a web server against an in-memory H2 database.
+ */
+final class EmbeddedTodoapp {
+
+    private EmbeddedTodoapp() {
+    }
+
+    static ConfigurableApplicationContext start(String databaseName) {
+        // Command-line arguments take precedence over application.yml
+        return new SpringApplicationBuilder(TodoappApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:" + databaseName + ";DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN");
+    }
+
+    static List<Task> newTasks(int count) {
+        List<Task> tasks = new ArrayList<>(count);
+        Date dueDate = new Date();
+        for (int i = 0; i < count; i++) {
+            tasks.add(new Task("benchmark task " + i, false, dueDate));
+        }
+        return tasks;
+    }
+}
@@ -0,0 +1,52 @@
+package com.simplecrud.todoapp.benchmark;
+
+import com.simplecrud.todoapp.model.Task;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Task.equals/hashCode, which compare and hash all six fields including the Date objects.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskEqualsHashCodeBenchmark {
+
+    private Task task;
+    private Task equalTask;
+    private Task differentTask;
+
+    @Setup
+    public void setUp() {
+        Date dueDate = new Date();
+        task = newTask(1L, dueDate);
+        equalTask = newTask(1L, new Date(dueDate.getTime()));
+        differentTask = newTask(2L, dueDate);
+    }
+
+    private static Task newTask(long id, Date dueDate) {
+        Task task = new Task("benchmark task", false, dueDate);
+        task.setId(id);
+        return task;
+    }
+
+    @Benchmark
+    public int hashCodeTask() {
+        return task.hashCode();
+    }
+
+    @Benchmark
+    public boolean equalsEqualTask() {
+        return task.equals(equalTask);
+    }
+
+    @Benchmark
+    public boolean equalsDifferentTask() {
+        return task.equals(differentTask);
+    }
+}
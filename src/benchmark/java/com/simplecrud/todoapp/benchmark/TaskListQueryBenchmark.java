@@ -0,0 +1,58 @@
+package com.simplecrud.todoapp.benchmark;
+
+import com.simplecrud.todoapp.dto.TaskView;
+import com.simplecrud.todoapp.model.Task;
+import com.simplecrud.todoapp.repository.TaskRepository;
+import com.simplecrud.todoapp.service.TaskService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full task list read as managed entities versus TaskView projections. Run with {@code -prof gc} to
+ * compare gc.alloc.rate.norm, the bytes allocated per list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskListQueryBenchmark {
+
+    private static final int SEEDED_TASKS = 1_000;
+
+    private ConfigurableApplicationContext context;
+    private TaskService taskService;
+    private TaskRepository taskRepository;
+    private TransactionTemplate readOnlyTransaction;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = EmbeddedTodoapp.start("task-list-query-benchmark");
+        taskService = context.getBean(TaskService.class);
+        taskRepository = context.getBean(TaskRepository.class);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+        taskService.createTasks(EmbeddedTodoapp.newTasks(SEEDED_TASKS));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Task> managedEntities() {
+        return readOnlyTransaction.execute(status -> taskRepository.findByIsCompleted(false));
+    }
+
+    @Benchmark
+    public List<TaskView> viewProjections() {
+        return taskService.findAllUncompletedTasks();
+    }
+}
@@ -0,0 +1,93 @@
+package com.simplecrud.todoapp.benchmark;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.simplecrud.todoapp.config.BinaryFormatConfig;
+import com.simplecrud.todoapp.model.Task;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson encoding/decoding of a single Task and of a list in each format the API negotiates, with the
+ * ObjectMapper configuration Spring MVC uses for responses. Payload sizes are printed once per trial,
+ * e.g. -Djmh.args="TaskSerializationBenchmark -p format=json,cbor".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskSerializationBenchmark {
+
+    @Param({"1000"})
+    public int listSize;
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    private ObjectMapper objectMapper;
+    private JavaType taskListType;
+    private Task task;
+    private List<Task> tasks;
+    private byte[] taskJson;
+    private byte[] tasksJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = objectMapper(format);
+        taskListType = objectMapper.getTypeFactory().constructCollectionType(List.class, Task.class);
+        tasks = EmbeddedTodoapp.newTasks(listSize);
+        for (int i = 0; i < tasks.size(); i++) {
+            tasks.get(i).setId((long) i + 1);
+        }
+        task = tasks.get(0);
+        taskJson = objectMapper.writeValueAsBytes(task);
+        tasksJson = objectMapper.writeValueAsBytes(tasks);
+        System.out.printf("%n%s payload: task %d bytes, %d tasks %d bytes%n",
+                format, taskJson.length, listSize, tasksJson.length);
+    }
+
+    private static ObjectMapper objectMapper(String format) {
+        switch (format) {
+            case "json":
+                // Spring Boot writes dates as ISO-8601 strings in JSON
+                return Jackson2ObjectMapperBuilder.json()
+                        .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                        .build();
+            case "cbor":
+                return BinaryFormatConfig.binaryObjectMapper(Jackson2ObjectMapperBuilder.json(), new CBORFactory());
+            case "smile":
+                return BinaryFormatConfig.binaryObjectMapper(Jackson2ObjectMapperBuilder.json(), new SmileFactory());
+            default:
+                throw new IllegalArgumentException("Unknown format: " + format);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeTask() throws IOException {
+        return objectMapper.writeValueAsBytes(task);
+    }
+
+    @Benchmark
+    public Task deserializeTask() throws IOException {
+        return objectMapper.readValue(taskJson, Task.class);
+    }
+
+    @Benchmark
+    public byte[] serializeTaskList() throws IOException {
+        return objectMapper.writeValueAsBytes(tasks);
+    }
+
+    @Benchmark
+    public List<Task> deserializeTaskList() throws IOException {
+        return objectMapper.readValue(tasksJson, taskListType);
+    }
+}
@@ -0,0 +1,88 @@
+package com.simplecrud.todoapp.benchmark;
+
+import com.simplecrud.todoapp.dto.BatchCreateResult;
+import com.simplecrud.todoapp.model.Task;
+import com.simplecrud.todoapp.service.TaskService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TaskService operations against an embedded H2 database. The create benchmarks report rows per
+ * second, so createTask and createTasks (POST /tasks vs POST /tasks/batch) compare directly.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskServiceBenchmark {
+
+    private static final int SEEDED_TASKS = 10_000;
+    private static final int BATCH_SIZE = 500;
+
+    private ConfigurableApplicationContext context;
+    private TaskService taskService;
+    private CacheManager cacheManager;
+    private long firstId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = EmbeddedTodoapp.start("task-service-benchmark");
+        taskService = context.getBean(TaskService.class);
+        cacheManager = context.getBean(CacheManager.class);
+        List<Long> ids = taskService.createTasks(EmbeddedTodoapp.newTasks(SEEDED_TASKS)).getIds();
+        firstId = ids.get(0);
+        for (Long id : ids) {
+            taskService.findTaskById(id);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private long randomSeededId() {
+        return firstId + ThreadLocalRandom.current().nextInt(SEEDED_TASKS);
+    }
+
+    @Benchmark
+    public Optional<Task> findTaskByIdCached() {
+        return taskService.findTaskById(randomSeededId());
+    }
+
+    @Benchmark
+    public Optional<Task> findTaskByIdUncached() {
+        long id = randomSeededId();
+        cacheManager.getCache(TaskService.TASKS_CACHE).evict(id);
+        return taskService.findTaskById(id);
+    }
+
+    @Benchmark
+    public void setTaskCompletionStatus() {
+        taskService.setTaskCompletionStatus(randomSeededId(), ThreadLocalRandom.current().nextBoolean());
+    }
+
+    @Benchmark
+    public Task updateTaskCompletionStatus() {
+        return taskService.updateTaskCompletionStatus(randomSeededId(), ThreadLocalRandom.current().nextBoolean());
+    }
+
+    @Benchmark
+    public Task createTask() {
+        return taskService.createTask(new Task("single create", false, null));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public BatchCreateResult createTasksBatch() {
+        return taskService.createTasks(EmbeddedTodoapp.newTasks(BATCH_SIZE));
+    }
+}
@@ -0,0 +1,252 @@
+package com.simplecrud.todoapp.loadgen;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model HTTP load generator replaying the generatetraffic.sh request mix at a fixed arrival rate.
+ * <p>
+ * Requests are scheduled against a constant-rate timeline and sent asynchronously on a single shared
+ * {@link HttpClient}, so a slow response never delays the next arrival. Latency is measured from each
+ * request's intended start time rather than the moment it was actually sent, which keeps scheduler
+ * hiccups and client-side queueing in the numbers instead of hiding them (coordinated omission).
+ * Failed requests are recorded too, at the time they took to fail (timeouts at least {@code -timeout}), so
+ * the slowest outcomes are not the ones missing from the percentiles; error rates are shown next to them.
+ * At most {@code -max-outstanding} requests are in flight. Arrivals beyond that never get a latency, so any
+ * of them makes the run fail (exit status 1) after the report.
+ * <p>
+ * Options: {@code -base-url} (default http://localhost:8080), {@code -rate} requests per second
+ * (default 25, roughly the old script), {@code -duration} seconds (default 60), {@code -warmup}
+ * seconds excluded from the report (default 10), {@code -max-outstanding} (default 1000) and
+ * {@code -timeout} seconds per request (default 10).
+ */
+public final class LoadGenerator {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final HttpClient client;
+    private final TrafficMix mix;
+    private final Semaphore outstanding;
+    private final Map<TrafficMix.Operation, OperationStats> stats = new EnumMap<>(TrafficMix.Operation.class);
+
+    private volatile boolean recording;
+
+    private LoadGenerator(String baseUrl, int maxOutstanding, Duration requestTimeout) {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(requestTimeout)
+                .executor(Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors()))
+                .build();
+        this.mix = new TrafficMix(baseUrl, requestTimeout);
+        this.outstanding = new Semaphore(maxOutstanding);
+        for (TrafficMix.Operation operation : TrafficMix.Operation.values()) {
+            stats.put(operation, new OperationStats(requestTimeout.toNanos()));
+        }
+    }
+
+    public static void main(String[] args) {
+        Options options = Options.parse(args);
+        LoadGenerator generator = new LoadGenerator(options.baseUrl, options.maxOutstanding,
+                Duration.ofSeconds(options.timeoutSeconds));
+
+        System.out.printf("Sending %d req/s to %s for %ds after %ds warmup%n",
+                options.rate, options.baseUrl, options.durationSeconds, options.warmupSeconds);
+        generator.run(options.rate, options.warmupSeconds, false);
+        long elapsedNanos = generator.run(options.rate, options.durationSeconds, true);
+        generator.awaitOutstanding(options.maxOutstanding, options.timeoutSeconds);
+        long dropped = generator.report(elapsedNanos);
+        if (dropped > 0) {
+            System.out.printf("FAILED: %d arrivals were dropped at -max-outstanding %d, so the percentiles leave "
+                    + "out the requests that waited longest; raise the limit or lower -rate%n",
+                    dropped, options.maxOutstanding);
+            System.exit(1);
+        }
+        System.exit(0);
+    }
+
+    private long run(int rate, int seconds, boolean record) {
+        recording = record;
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long total = (long) rate * seconds;
+        long start = System.nanoTime();
+        for (long i = 0; i < total; i++) {
+            long intendedStart = start + i * intervalNanos;
+            long wait = intendedStart - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            send(intendedStart);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private void send(long intendedStart) {
+        TrafficMix.Operation operation = mix.nextOperation();
+        if (!outstanding.tryAcquire()) {
+            if (recording) {
+                stats.get(operation).dropped.increment();
+            }
+            return;
+        }
+        boolean record = recording;
+        client.sendAsync(mix.request(operation), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, failure) -> {
+                    outstanding.release();
+                    if (record) {
+                        stats.get(operation).record(System.nanoTime() - intendedStart, response, failure);
+                    }
+                });
+    }
+
+    private void awaitOutstanding(int maxOutstanding, int timeoutSeconds) {
+        try {
+            if (!outstanding.tryAcquire(maxOutstanding, timeoutSeconds, TimeUnit.SECONDS)) {
+                System.out.println("Some requests were still in flight when the report was written");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Returns the number of dropped arrivals
+    private long report(long elapsedNanos) {
+        Histogram all = new Histogram(HIGHEST_TRACKABLE_NANOS, 3);
+        long non2xx = 0;
+        long errors = 0;
+        long dropped = 0;
+
+        System.out.printf("%n%-20s %9s %9s %9s %9s %9s %9s %9s %9s %9s%n", "operation", "count", "non-2xx %",
+                "errors %", "dropped", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Map.Entry<TrafficMix.Operation, OperationStats> entry : stats.entrySet()) {
+            OperationStats operationStats = entry.getValue();
+            Histogram histogram = operationStats.latencies.getIntervalHistogram();
+            all.add(histogram);
+            non2xx += operationStats.non2xx.sum();
+            errors += operationStats.errors.sum();
+            dropped += operationStats.dropped.sum();
+            printRow(entry.getKey().name(), histogram, operationStats.non2xx.sum(), operationStats.errors.sum(),
+                    operationStats.dropped.sum());
+        }
+        printRow("ALL", all, non2xx, errors, dropped);
+
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("%nachieved %.1f req/s%n", all.getTotalCount() / seconds);
+        return dropped;
+    }
+
+    // Every sent request is in the histogram, failed ones included, so the rates are shares of its count
+    private static void printRow(String name, Histogram histogram, long non2xx, long errors, long dropped) {
+        long count = histogram.getTotalCount();
+        if (count == 0 && dropped == 0) {
+            return;
+        }
+        System.out.printf("%-20s %9d %9.2f %9.2f %9d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                name, count, percent(non2xx, count), percent(errors, count), dropped,
+                millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(90)),
+                millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()));
+    }
+
+    private static double percent(long part, long count) {
+        return count == 0 ? 0 : 100.0 * part / count;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static final class OperationStats {
+
+        // Recorder lets many completion threads write while the reporter reads a stable snapshot
+        final Recorder latencies = new Recorder(HIGHEST_TRACKABLE_NANOS, 3);
+        final LongAdder non2xx = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder dropped = new LongAdder();
+        private final long timeoutNanos;
+
+        OperationStats(long timeoutNanos) {
+            this.timeoutNanos = timeoutNanos;
+        }
+
+        // Timeouts and connection failures are recorded at the time it took to give up, like any response
+        void record(long latencyNanos, HttpResponse<?> response, Throwable failure) {
+            if (failure != null) {
+                errors.increment();
+                Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                        ? failure.getCause() : failure;
+                if (cause instanceof HttpTimeoutException) {
+                    latencyNanos = Math.max(latencyNanos, timeoutNanos);
+                }
+            } else if (response.statusCode() / 100 != 2) {
+                non2xx.increment();
+            }
+            latencies.recordValue(Math.min(latencyNanos, HIGHEST_TRACKABLE_NANOS));
+        }
+    }
+
+    private static final class Options {
+
+        String baseUrl = "http://localhost:8080";
+        int rate = 25;
+        int durationSeconds = 60;
+        int warmupSeconds = 10;
+        int maxOutstanding = 1000;
+        int timeoutSeconds = 10;
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (int i = 0; i < args.length; i += 2) {
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + args[i]);
+                }
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "-base-url":
+                        options.baseUrl = value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+                        break;
+                    case "-rate":
+                        options.rate = positive(args[i], value);
+                        break;
+                    case "-duration":
+                        options.durationSeconds = positive(args[i], value);
+                        break;
+                    case "-warmup":
+                        options.warmupSeconds = Integer.parseInt(value);
+                        break;
+                    case "-max-outstanding":
+                        options.maxOutstanding = positive(args[i], value);
+                        break;
+                    case "-timeout":
+                        options.timeoutSeconds = positive(args[i], value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+            return options;
+        }
+
+        private static int positive(String name, String value) {
+            int parsed = Integer.parseInt(value);
+            if (parsed < 1) {
+                throw new IllegalArgumentException(name + " must be positive: " + value);
+            }
+            return parsed;
+        }
+    }
+}
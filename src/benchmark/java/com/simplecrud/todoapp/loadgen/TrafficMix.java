@@ -0,0 +1,131 @@
+package com.simplecrud.todoapp.loadgen;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The request mix of the original generatetraffic.sh. Each loop of that script sent one weighted
+ * operation followed by DELETE /tasks/error, GET /tasks/chinese and GET /tasks/randomBoolean, so the
+ * weights below are per request out of 4000 (1000 per loop times four requests). Task ids walk the
+ * same ranges as the script's counters.
+ */
+final class TrafficMix {
+
+    enum Operation {
+        GET_TASK(735),
+        GET_COMPLETED(50),
+        GET_UNCOMPLETED(50),
+        CREATE_TASK(5),
+        COMPLETE_TASK(50),
+        UNCOMPLETE_TASK(50),
+        UPDATE_DESCRIPTION(50),
+        DELETE_TASK(10),
+        DELETE_ERROR(1000),
+        GET_CHINESE(1000),
+        GET_RANDOM_BOOLEAN(1000);
+
+        final int weight;
+
+        Operation(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    private static final Operation[] OPERATIONS = Operation.values();
+    private static final int TOTAL_WEIGHT = 4000;
+
+    private final String baseUrl;
+    private final Duration requestTimeout;
+
+    private final AtomicLong getTaskCounter = new AtomicLong();
+    private final AtomicLong completeCounter = new AtomicLong();
+    private final AtomicLong uncompleteCounter = new AtomicLong();
+    private final AtomicLong descriptionCounter = new AtomicLong();
+    private final AtomicLong deleteCounter = new AtomicLong();
+
+    TrafficMix(String baseUrl, Duration requestTimeout) {
+        this.baseUrl = baseUrl;
+        this.requestTimeout = requestTimeout;
+    }
+
+    Operation nextOperation() {
+        int r = ThreadLocalRandom.current().nextInt(TOTAL_WEIGHT);
+        for (Operation operation : OPERATIONS) {
+            r -= operation.weight;
+            if (r < 0) {
+                return operation;
+            }
+        }
+        throw new IllegalStateException("Operation weights do not add up to " + TOTAL_WEIGHT);
+    }
+
+    HttpRequest request(Operation operation) {
+        switch (operation) {
+            case GET_TASK:
+                return get("/tasks/" + ascending(getTaskCounter, 1, 21000));
+            case GET_COMPLETED:
+                return get("/tasks/completed");
+            case GET_UNCOMPLETED:
+                return get("/tasks/uncompleted");
+            case CREATE_TASK:
+                return builder("/tasks/")
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(newTaskJson()))
+                        .build();
+            case COMPLETE_TASK:
+                return put("/tasks/" + descending(completeCounter, 1, 21000) + "/completion?isCompleted=true",
+                        HttpRequest.BodyPublishers.noBody());
+            case UNCOMPLETE_TASK:
+                return put("/tasks/" + ascending(uncompleteCounter, 1, 21000) + "/completion?isCompleted=false",
+                        HttpRequest.BodyPublishers.noBody());
+            case UPDATE_DESCRIPTION:
+                long id = descending(descriptionCounter, 1, 21000);
+                return builder("/tasks/" + id + "/description")
+                        .header("Content-Type", "application/json")
+                        .PUT(HttpRequest.BodyPublishers.ofString("description" + id))
+                        .build();
+            case DELETE_TASK:
+                return builder("/tasks/" + ascending(deleteCounter, 6900, 6999)).DELETE().build();
+            case DELETE_ERROR:
+                return builder("/tasks/error").DELETE().build();
+            case GET_CHINESE:
+                return get("/tasks/chinese");
+            case GET_RANDOM_BOOLEAN:
+                return get("/tasks/randomBoolean");
+            default:
+                throw new IllegalArgumentException("Unknown operation " + operation);
+        }
+    }
+
+    private HttpRequest get(String path) {
+        return builder(path).GET().build();
+    }
+
+    private HttpRequest put(String path, HttpRequest.BodyPublisher body) {
+        return builder(path).PUT(body).build();
+    }
+
+    private HttpRequest.Builder builder(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(requestTimeout);
+    }
+
+    private static String newTaskJson() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String dueDate = String.format("2023-%02d-%02d", random.nextInt(12) + 1, random.nextInt(28) + 1);
+        return "{\"description\":\"description" + random.nextInt(32768) + "\",\"dueDate\":\"" + dueDate
+                + "\",\"isCompleted\":false}";
+    }
+
+    // Cycles first..last like the script's incrementing counters
+    private static long ascending(AtomicLong counter, long first, long last) {
+        return first + Math.floorMod(counter.getAndIncrement(), last - first + 1);
+    }
+
+    // Cycles last..first like the script's decrementing counters
+    private static long descending(AtomicLong counter, long first, long last) {
+        return last - Math.floorMod(counter.getAndIncrement(), last - first + 1);
+    }
+}
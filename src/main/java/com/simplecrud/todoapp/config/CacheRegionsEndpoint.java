@@ -0,0 +1,85 @@
+package com.simplecrud.todoapp.config;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * {@code /actuator/cacheregions}: hits, misses, puts and hit ratio of every Hibernate second-level and query
+ * cache region since startup.
+ * <p>
+ * The same counters are published per region as {@code hibernate.second.level.cache.requests} and
+ * {@code hibernate.second.level.cache.puts}; this endpoint adds the ratio for a quick look. Counts stay at
+ * zero unless {@code hibernate.generate_statistics} is on.
+ */
+@Component
+@Endpoint(id = "cacheregions")
+public class CacheRegionsEndpoint {
+
+    private final Statistics statistics;
+
+    public CacheRegionsEndpoint(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @ReadOperation
+    public Map<String, RegionStats> regions() {
+        Map<String, RegionStats> regions = new TreeMap<>();
+        for (String name : statistics.getSecondLevelCacheRegionNames()) {
+            regions.put(name, stats(name));
+        }
+        return regions;
+    }
+
+    // Null (404) for an unknown region; asking Hibernate for one would try to create it
+    @ReadOperation
+    public RegionStats region(@Selector String name) {
+        boolean known = Arrays.asList(statistics.getSecondLevelCacheRegionNames()).contains(name);
+        return known ? stats(name) : null;
+    }
+
+    private RegionStats stats(String name) {
+        CacheRegionStatistics region = statistics.getCacheRegionStatistics(name);
+        return new RegionStats(region.getHitCount(), region.getMissCount(), region.getPutCount());
+    }
+
+    public static final class RegionStats {
+
+        private final long hits;
+        private final long misses;
+        private final long puts;
+
+        RegionStats(long hits, long misses, long puts) {
+            this.hits = hits;
+            this.misses = misses;
+            this.puts = puts;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getPuts() {
+            return puts;
+        }
+
+        // Share of lookups answered from the region; 0 before the first lookup
+        public double getHitRatio() {
+            long requests = hits + misses;
+            return requests == 0 ? 0.0 : (double) hits / requests;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.simplecrud.todoapp.config;
+
+import com.netflix.concurrency.limits.Limit;
+import com.netflix.concurrency.limits.Limiter;
+import com.netflix.concurrency.limits.MetricRegistry;
+import com.netflix.concurrency.limits.internal.EmptyMetricRegistry;
+import com.netflix.concurrency.limits.limit.Gradient2Limit;
+import com.netflix.concurrency.limits.limiter.AbstractLimiter;
+import com.netflix.concurrency.limits.limiter.AbstractPartitionedLimiter;
+import com.simplecrud.todoapp.exceptions.ConcurrencyLimitExceededException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.lang.reflect.Method;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Admits /tasks requests through an adaptive concurrency limit and rejects the excess at once with 503.
+ * <p>
+ * The limit is a gradient limit: it grows while request latency stays close to its long-term minimum and
+ * shrinks as latency rises, e.g. when MySQL slows down and requests queue for a Hikari connection, so
+ * requests are turned away instead of parking Tomcat threads until the clients time out. Each
+ * {@link RequestPriority} tier is guaranteed its share of the limit; a tier beyond its share is only admitted
+ * while the total is below the limit, so under overload list scans and diagnostic endpoints are shed first.
+ * Rejections are answered by {@code TaskExceptionHandler} with Retry-After. The limit, the in-flight requests
+ * of each tier and the call outcomes are published under {@value #METRIC_PREFIX}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "todoapp.concurrency-limit", name = "enabled", havingValue = "true",
+        matchIfMissing = true)
+public class ConcurrencyLimitInterceptor implements AsyncHandlerInterceptor, WebMvcConfigurer {
+
+    public static final String METRIC_PREFIX = "todoapp.concurrency.";
+
+    private static final String LISTENER_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".listener";
+    // Limiter partition names, indexed by tier ordinal
+    private static final String[] PARTITIONS = new String[RequestPriority.Tier.values().length];
+
+    static {
+        for (RequestPriority.Tier tier : RequestPriority.Tier.values()) {
+            PARTITIONS[tier.ordinal()] = tier.name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final AbstractLimiter<RequestPriority.Tier> limiter;
+    private final Map<Method, RequestPriority.Tier> tiers = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ConcurrencyLimitInterceptor(@Value("${todoapp.concurrency-limit.initial-limit:20}") int initialLimit,
+                                       @Value("${todoapp.concurrency-limit.min-limit:4}") int minLimit,
+                                       @Value("${todoapp.concurrency-limit.max-limit:200}") int maxLimit,
+                                       @Value("${todoapp.concurrency-limit.shares.point:0.6}") double pointShare,
+                                       @Value("${todoapp.concurrency-limit.shares.list:0.3}") double listShare,
+                                       @Value("${todoapp.concurrency-limit.shares.diagnostic:0.1}") double diagnosticShare,
+                                       ObjectProvider<MeterRegistry> meterRegistry) {
+        this(Gradient2Limit.newBuilder()
+                        .initialLimit(initialLimit)
+                        .minLimit(minLimit)
+                        .maxConcurrency(maxLimit)
+                        .metricRegistry(metricRegistry(meterRegistry.getIfAvailable()))
+                        .build(),
+                pointShare, listShare, diagnosticShare, meterRegistry.getIfAvailable());
+    }
+
+    ConcurrencyLimitInterceptor(Limit limit, double pointShare, double listShare, double diagnosticShare,
+                                MeterRegistry meterRegistry) {
+        MetricRegistry registry = metricRegistry(meterRegistry);
+        this.limiter = (AbstractLimiter<RequestPriority.Tier>) new TierLimiterBuilder()
+                .named("tasks")
+                .limit(limit)
+                .metricRegistry(registry)
+                .partitionResolver(ConcurrencyLimitInterceptor::partition)
+                .partition(partition(RequestPriority.Tier.POINT), pointShare)
+                .partition(partition(RequestPriority.Tier.LIST), listShare)
+                .partition(partition(RequestPriority.Tier.DIAGNOSTIC), diagnosticShare)
+                .build();
+        registry.gauge("inflight.total", limiter::getInflight);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(this).addPathPatterns("/tasks", "/tasks/**");
+    }
+
+    int getInflight() {
+        return limiter.getInflight();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // The permit of an async request is held from the first dispatch until the async dispatch completes
+        if (!(handler instanceof HandlerMethod) || request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        RequestPriority.Tier tier = tiers.computeIfAbsent(((HandlerMethod) handler).getMethod(),
+                ConcurrencyLimitInterceptor::tierOf);
+        if (tier == RequestPriority.Tier.STREAM) {
+            return true;
+        }
+        Optional<Limiter.Listener> listener = limiter.acquire(tier);
+        if (listener.isEmpty()) {
+            throw new ConcurrencyLimitExceededException("Concurrency limit reached for " + partition(tier) + " requests");
+        }
+        request.setAttribute(LISTENER_ATTRIBUTE, listener.get());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        Limiter.Listener listener = (Limiter.Listener) request.getAttribute(LISTENER_ATTRIBUTE);
+        if (listener == null) {
+            return;
+        }
+        request.removeAttribute(LISTENER_ATTRIBUTE);
+        // Only plain completions are latency samples: failures may return early or late for unrelated
+        // reasons, and a streamed export lasts as long as the client keeps reading
+        if (ex != null || response.getStatus() >= 500 || request.getDispatcherType() == DispatcherType.ASYNC) {
+            listener.onIgnore();
+        } else {
+            listener.onSuccess();
+        }
+    }
+
+    private static RequestPriority.Tier tierOf(Method method) {
+        RequestPriority priority = method.getAnnotation(RequestPriority.class);
+        return priority == null ? RequestPriority.Tier.POINT : priority.value();
+    }
+
+    private static String partition(RequestPriority.Tier tier) {
+        return PARTITIONS[tier.ordinal()];
+    }
+
+    private static MetricRegistry metricRegistry(MeterRegistry meterRegistry) {
+        return meterRegistry == null ? EmptyMetricRegistry.INSTANCE : new MicrometerMetricRegistry(meterRegistry);
+    }
+
+    private static final class TierLimiterBuilder
+            extends AbstractPartitionedLimiter.Builder<TierLimiterBuilder, RequestPriority.Tier> {
+
+        @Override
+        protected TierLimiterBuilder self() {
+            return this;
+        }
+    }
+
+    // Publishes the limiter's own metrics (limit, call outcomes, per-partition limit and in-flight, RTTs)
+    private static final class MicrometerMetricRegistry implements MetricRegistry {
+
+        private final MeterRegistry meterRegistry;
+
+        MicrometerMetricRegistry(MeterRegistry meterRegistry) {
+            this.meterRegistry = meterRegistry;
+        }
+
+        @Override
+        public SampleListener distribution(String id, String... tagNameValuePairs) {
+            DistributionSummary summary = DistributionSummary.builder(METRIC_PREFIX + id)
+                    .tags(tagNameValuePairs)
+                    .register(meterRegistry);
+            return value -> summary.record(value.doubleValue());
+        }
+
+        @Override
+        public void gauge(String id, Supplier<Number> supplier, String... tagNameValuePairs) {
+            Gauge.builder(METRIC_PREFIX + id, supplier)
+                    .tags(tagNameValuePairs)
+                    .strongReference(true)
+                    .register(meterRegistry);
+        }
+
+        @Override
+        public Counter counter(String id, String... tagNameValuePairs) {
+            io.micrometer.core.instrument.Counter counter = meterRegistry.counter(METRIC_PREFIX + id, tagNameValuePairs);
+            return counter::increment;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.simplecrud.todoapp.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Reports virtual threads that block while pinned to their carrier thread.
+ * <p>
+ * A virtual thread that blocks inside a {@code synchronized} block or a native frame keeps its carrier
+ * thread, and with it one of the few scheduler threads. The JDK records each such block that lasts longer
+ * than the threshold as a {@code jdk.VirtualThreadPinned} JFR event. This monitor streams those events,
+ * counts them in {@value #METRIC_NAME}, and logs the stack trace once for each distinct pinning site.
+ * The JFR streaming API is only available from JDK 14, so it is accessed reflectively to keep the Java 11
+ * build.
+ */
+public class PinnedThreadMonitor implements InitializingBean, DisposableBean {
+
+    public static final String METRIC_NAME = "jvm.threads.virtual.pinned";
+
+    private static final Logger log = LoggerFactory.getLogger(PinnedThreadMonitor.class);
+    private static final String EVENT_NAME = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 12;
+    private static final int MAX_REPORTED_SITES = 1000;
+
+    private final Duration threshold;
+    private final Counter pinnedCounter;
+    private final Map<String, Boolean> reportedSites = new ConcurrentHashMap<>();
+
+    private AutoCloseable stream;
+
+    public PinnedThreadMonitor(Duration threshold, MeterRegistry meterRegistry) {
+        this.threshold = threshold;
+        this.pinnedCounter = Counter.builder(METRIC_NAME)
+                .description("Virtual threads that blocked while pinned to a carrier thread")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        Class<?> streamClass = Class.forName("jdk.jfr.consumer.RecordingStream");
+        Object recordingStream = streamClass.getConstructor().newInstance();
+        Object settings = streamClass.getMethod("enable", String.class).invoke(recordingStream, EVENT_NAME);
+        settings.getClass().getMethod("withThreshold", Duration.class).invoke(settings, threshold);
+        settings.getClass().getMethod("withStackTrace").invoke(settings);
+        Consumer<RecordedEvent> handler = this::onPinned;
+        streamClass.getMethod("onEvent", String.class, Consumer.class).invoke(recordingStream, EVENT_NAME, handler);
+        streamClass.getMethod("startAsync").invoke(recordingStream);
+        stream = (AutoCloseable) recordingStream;
+        log.info("Reporting virtual threads pinned for longer than {}", threshold);
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    void onPinned(RecordedEvent event) {
+        pinnedCounter.increment();
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        if (stackTrace == null) {
+            return;
+        }
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        StringBuilder site = new StringBuilder();
+        for (int i = 0; i < Math.min(frames.size(), LOGGED_FRAMES); i++) {
+            RecordedFrame frame = frames.get(i);
+            site.append("\n\tat ").append(frame.getMethod().getType().getName())
+                    .append('.').append(frame.getMethod().getName())
+                    .append(':').append(frame.getLineNumber());
+        }
+        // The same few call sites pin over and over; one stack trace each is enough to find them
+        if (reportedSites.size() < MAX_REPORTED_SITES
+                && reportedSites.putIfAbsent(site.toString(), Boolean.TRUE) == null) {
+            log.warn("Virtual thread pinned for {} ms{}", event.getDuration().toMillis(), site);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.simplecrud.todoapp.config;
+
+/**
+ * Per-request flag that keeps read-only transactions on the primary after the client's own write.
+ * <p>
+ * Set by {@link ReadYourWritesFilter} from the client's cookie, and for the rest of the request once it has
+ * written; consulted by {@link ReplicaRoutingDataSource}.
+ */
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    public static boolean isPrimaryRequired() {
+        return PRIMARY_REQUIRED.get() != null;
+    }
+
+    static void requirePrimary() {
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+    }
+
+    static void clear() {
+        PRIMARY_REQUIRED.remove();
+    }
+}
@@ -0,0 +1,114 @@
+package com.simplecrud.todoapp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read/write splitting (todoapp.replicas.enabled): read-only transactions go to the configured replicas.
+ * <p>
+ * The primary pool is still configured from spring.datasource.*; replica pools get their URL and
+ * credentials from todoapp.replicas.instances and are read-only.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "todoapp.replicas", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class ReplicaRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             ReplicaProperties replicaProperties) {
+        List<DataSource> replicas = new ArrayList<>();
+        List<ReplicaProperties.Instance> instances = replicaProperties.getInstances();
+        for (int i = 0; i < instances.size(); i++) {
+            ReplicaProperties.Instance instance = instances.get(i);
+            HikariDataSource replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(instance.getUrl())
+                    .username(instance.getUsername())
+                    .password(instance.getPassword())
+                    .build();
+            replica.setPoolName("replica-" + i);
+            replica.setMaximumPoolSize(replicaProperties.getPoolSize());
+            replica.setReadOnly(true);
+            // A down replica should fail over quickly rather than stall reads for the default 30s
+            replica.setConnectionTimeout(Duration.ofSeconds(2).toMillis());
+            replicas.add(replica);
+        }
+        // Replicas join the rotation after the first health check; until then reads use the primary
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas,
+                replicaProperties.getMaxLag(), replicaProperties.getLagQuery(), replicaProperties.getLagColumn());
+    }
+
+    // What JPA and the rest of the application use; connections are only fetched at the first statement,
+    // once the transaction's read-only flag is known
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean
+    public ReplicaHealthCheck replicaHealthCheck(ReplicaRoutingDataSource replicaRoutingDataSource,
+                                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        return new ReplicaHealthCheck(replicaRoutingDataSource, meterRegistry);
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(ReplicaProperties replicaProperties) {
+        return new ReadYourWritesFilter(replicaProperties.getReadYourWrites());
+    }
+
+    public static class ReplicaHealthCheck implements SmartInitializingSingleton {
+
+        private final ReplicaRoutingDataSource replicaRoutingDataSource;
+        private final ObjectProvider<MeterRegistry> meterRegistry;
+
+        ReplicaHealthCheck(ReplicaRoutingDataSource replicaRoutingDataSource,
+                           ObjectProvider<MeterRegistry> meterRegistry) {
+            this.replicaRoutingDataSource = replicaRoutingDataSource;
+            this.meterRegistry = meterRegistry;
+        }
+
+        // Pool metrics are only bound automatically for DataSource beans, and only before a pool starts,
+        // which for replicas is the first health check
+        @Override
+        public void afterSingletonsInstantiated() {
+            meterRegistry.ifAvailable(registry -> {
+                for (DataSource replica : replicaRoutingDataSource.getReplicaDataSources()) {
+                    if (replica instanceof HikariDataSource) {
+                        ((HikariDataSource) replica).setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+                    }
+                }
+            });
+        }
+
+        @Scheduled(initialDelay = 0, fixedDelayString = "${todoapp.replicas.check-interval:PT5S}")
+        public void check() {
+            replicaRoutingDataSource.checkReplicas();
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.simplecrud.todoapp.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to read replicas and everything else to the primary.
+ * <p>
+ * Replicas are chosen round-robin among those that passed the last {@link #checkReplicas() health check},
+ * i.e. answered the lag query with a lag of at most {@code maxLag}. A replica whose connection attempt fails
+ * is taken out of rotation until the next successful check, and the read falls back to the primary, as do
+ * reads while no replica is healthy and reads that {@link ReadYourWrites} pins to the primary.
+ * <p>
+ * A transaction's target is chosen once, at its first connection or {@link #isReplicaTransaction()} call,
+ * and kept until it completes, so callers can learn beforehand whether what they read may lag the primary.
+ * <p>
+ * The routing decision uses the transaction's read-only flag, which Spring sets only after the transaction
+ * manager has asked for a connection, so this data source must be wrapped in a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+    // Bound instead of a replica for read-only transactions that go to the primary
+    private static final Object PRIMARY_TARGET = new Object();
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final long maxLagSeconds;
+    private final String lagQuery;
+    private final String lagColumn;
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    // Guards changes to the rotation; probes and connection attempts happen outside it
+    private final Object lock = new Object();
+    private volatile List<Replica> healthy = Collections.emptyList();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicaDataSources, Duration maxLag,
+                                    String lagQuery, String lagColumn) {
+        this.primary = primary;
+        List<Replica> replicaList = new ArrayList<>(replicaDataSources.size());
+        for (int i = 0; i < replicaDataSources.size(); i++) {
+            replicaList.add(new Replica("replica-" + i, replicaDataSources.get(i)));
+        }
+        this.replicas = Collections.unmodifiableList(replicaList);
+        this.maxLagSeconds = maxLag.getSeconds();
+        this.lagQuery = lagQuery;
+        this.lagColumn = lagColumn;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Replica replica = transactionReplica();
+        if (replica != null) {
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException e) {
+                markDown(replica, e.getMessage());
+            }
+        }
+        return primary.getConnection();
+    }
+
+    // True when the current transaction reads from a replica (or was meant to, before falling back)
+    public boolean isReplicaTransaction() {
+        return transactionReplica() != null;
+    }
+
+    private Replica transactionReplica() {
+        if (!routeToReplica()) {
+            return null;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return nextHealthyReplica();
+        }
+        Object target = TransactionSynchronizationManager.getResource(this);
+        if (target == null) {
+            Replica replica = nextHealthyReplica();
+            target = replica != null ? replica : PRIMARY_TARGET;
+            TransactionSynchronizationManager.bindResource(this, target);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ReplicaRoutingDataSource.this);
+                }
+            });
+        }
+        return target instanceof Replica ? (Replica) target : null;
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        // Explicit credentials identify a specific database user; always use the primary for those
+        return primary.getConnection(username, password);
+    }
+
+    private static boolean routeToReplica() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !ReadYourWrites.isPrimaryRequired();
+    }
+
+    private Replica nextHealthyReplica() {
+        List<Replica> candidates = healthy;
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        return candidates.get(Math.floorMod(nextReplica.getAndIncrement(), candidates.size()));
+    }
+
+    // Probes every replica's lag and rebuilds the rotation; run periodically and once on startup
+    public void checkReplicas() {
+        List<String> problems = new ArrayList<>(replicas.size());
+        for (Replica replica : replicas) {
+            problems.add(probe(replica));
+        }
+        synchronized (lock) {
+            List<Replica> available = new ArrayList<>(replicas.size());
+            for (int i = 0; i < replicas.size(); i++) {
+                Replica replica = replicas.get(i);
+                String problem = problems.get(i);
+                if (problem != null) {
+                    takeOutOfRotation(replica, problem);
+                    continue;
+                }
+                if (!replica.up) {
+                    log.info("Read replica {} is back in rotation", replica.name);
+                }
+                replica.up = true;
+                available.add(replica);
+            }
+            healthy = Collections.unmodifiableList(available);
+        }
+    }
+
+    private String probe(Replica replica) {
+        try (Connection connection = replica.dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            if (!resultSet.next()) {
+                return null;
+            }
+            long lag = resultSet.getLong(lagColumn);
+            if (resultSet.wasNull()) {
+                return "replication is not running";
+            }
+            return lag > maxLagSeconds ? "lagging " + lag + "s behind the primary" : null;
+        } catch (SQLException e) {
+            return e.getMessage();
+        }
+    }
+
+    private void markDown(Replica replica, String reason) {
+        synchronized (lock) {
+            takeOutOfRotation(replica, reason);
+            List<Replica> remaining = new ArrayList<>(healthy);
+            if (remaining.remove(replica)) {
+                healthy = Collections.unmodifiableList(remaining);
+            }
+        }
+    }
+
+    private void takeOutOfRotation(Replica replica, String reason) {
+        if (replica.up) {
+            log.warn("Read replica {} taken out of rotation: {}", replica.name, reason);
+        }
+        replica.up = false;
+    }
+
+    // Replica pools are owned here rather than being beans of their own
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable) {
+                ((AutoCloseable) replica.dataSource).close();
+            }
+        }
+    }
+
+    public int getHealthyReplicaCount() {
+        return healthy.size();
+    }
+
+    public List<DataSource> getReplicaDataSources() {
+        List<DataSource> dataSources = new ArrayList<>(replicas.size());
+        for (Replica replica : replicas) {
+            dataSources.add(replica.dataSource);
+        }
+        return dataSources;
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    private static final class Replica {
+
+        final String name;
+        final DataSource dataSource;
+        // Starts true so the first failed check is logged; written under the lock
+        boolean up = true;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.simplecrud.todoapp.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records a {@value #METRIC_NAME} timer per controller mapping and response outcome.
+ * <p>
+ * Boot's own {@code http.server.requests} instrumentation builds a tag list and looks the timer up in the
+ * registry on every request. Here the method/uri tags are resolved once per mapping at startup, and the
+ * handler Spring MVC already stored on the request selects the timer with a single map lookup, so a
+ * timed request allocates nothing. Histogram buckets and expected ranges come from
+ * {@code management.metrics.distribution.*}.
+ */
+@Component
+public class RequestMetricsFilter extends OncePerRequestFilter implements SmartInitializingSingleton {
+
+    public static final String METRIC_NAME = "tasks.requests";
+
+    // Indexed by status / 100; 0 is used for statuses outside 1xx-5xx
+    private static final String[] OUTCOMES =
+            {"UNKNOWN", "INFORMATIONAL", "SUCCESS", "REDIRECTION", "CLIENT_ERROR", "SERVER_ERROR"};
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final ObjectProvider<RequestMappingHandlerMapping> handlerMapping;
+
+    private volatile Map<Method, MappingTimers> timers = Collections.emptyMap();
+
+    public RequestMetricsFilter(ObjectProvider<MeterRegistry> meterRegistry,
+                                @Qualifier("requestMappingHandlerMapping")
+                                ObjectProvider<RequestMappingHandlerMapping> handlerMapping) {
+        this.meterRegistry = meterRegistry;
+        this.handlerMapping = handlerMapping;
+    }
+
+    // Filters are created while the web server starts, before the handler mapping has been initialized;
+    // without a registry (e.g. web slice tests) requests are simply not timed
+    @Override
+    public void afterSingletonsInstantiated() {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        RequestMappingHandlerMapping mapping = handlerMapping.getIfAvailable();
+        if (registry == null || mapping == null) {
+            return;
+        }
+        Map<Method, MappingTimers> byMethod = new HashMap<>();
+        for (Map.Entry<RequestMappingInfo, HandlerMethod> entry : mapping.getHandlerMethods().entrySet()) {
+            RequestMappingInfo info = entry.getKey();
+            // Each mapping in this app has a single pattern and verb; the first one is used otherwise
+            Set<String> patterns = info.getPatternValues();
+            Set<RequestMethod> methods = info.getMethodsCondition().getMethods();
+            String uri = patterns.isEmpty() ? "root" : patterns.iterator().next();
+            String httpMethod = methods.isEmpty() ? "ANY" : methods.iterator().next().name();
+            byMethod.putIfAbsent(entry.getValue().getMethod(), new MappingTimers(registry, httpMethod, uri));
+        }
+        timers = byMethod;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = false;
+        } finally {
+            MappingTimers mappingTimers = timersFor(request);
+            if (mappingTimers != null) {
+                if (!failed && request.isAsyncStarted()) {
+                    // Streaming responses finish on another thread; the listener is only created for those
+                    request.getAsyncContext().addListener(new AsyncCompletionListener(mappingTimers, start));
+                } else {
+                    mappingTimers.record(failed ? 500 : response.getStatus(), System.nanoTime() - start);
+                }
+            }
+        }
+    }
+
+    private MappingTimers timersFor(HttpServletRequest request) {
+        Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+        if (handler instanceof HandlerMethod) {
+            return timers.get(((HandlerMethod) handler).getMethod());
+        }
+        return null;
+    }
+
+    private static final class MappingTimers {
+
+        private final MeterRegistry meterRegistry;
+        private final String httpMethod;
+        private final String uri;
+        // Registered on first use so outcomes that never happen do not publish empty histograms
+        private final Timer[] byOutcome = new Timer[OUTCOMES.length];
+
+        MappingTimers(MeterRegistry meterRegistry, String httpMethod, String uri) {
+            this.meterRegistry = meterRegistry;
+            this.httpMethod = httpMethod;
+            this.uri = uri;
+        }
+
+        void record(int status, long nanos) {
+            int outcome = status / 100;
+            if (outcome < 1 || outcome >= OUTCOMES.length) {
+                outcome = 0;
+            }
+            Timer timer = byOutcome[outcome];
+            if (timer == null) {
+                // Racing threads get the same meter back from the registry
+                timer = Timer.builder(METRIC_NAME)
+                        .description("Time spent handling task API requests")
+                        .tag("method", httpMethod)
+                        .tag("uri", uri)
+                        .tag("outcome", OUTCOMES[outcome])
+                        .register(meterRegistry);
+                byOutcome[outcome] = timer;
+            }
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static final class AsyncCompletionListener implements AsyncListener {
+
+        private final MappingTimers mappingTimers;
+        private final long start;
+
+        AsyncCompletionListener(MappingTimers mappingTimers, long start) {
+            this.mappingTimers = mappingTimers;
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            HttpServletResponse response = (HttpServletResponse) event.getSuppliedResponse();
+            mappingTimers.record(response.getStatus(), System.nanoTime() - start);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Re-register for the next async cycle when the request is dispatched asynchronously again
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.simplecrud.todoapp.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Admission tier of a controller method under {@link ConcurrencyLimitInterceptor}; methods without it are
+ * {@link Tier#POINT}. Each tier is guaranteed its share of the concurrency limit
+ * ({@code todoapp.concurrency-limit.shares}), so under overload the cheaper tiers keep being served.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RequestPriority {
+
+    Tier value();
+
+    enum Tier {
+        // Single-task reads and writes, and answers from in-memory state
+        POINT,
+        // Scans, searches, exports and batches, whose cost grows with the data
+        LIST,
+        // Test and diagnostic endpoints
+        DIAGNOSTIC,
+        // Long-lived subscriptions; an open stream holds no request thread, so it is not limited
+        STREAM
+    }
+}
@@ -0,0 +1,26 @@
+package com.simplecrud.todoapp.config;
+
+import com.simplecrud.todoapp.service.TaskSearchIndex;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code /actuator/searchindex}: size of the in-memory description index behind GET /tasks/search, in tasks,
+ * terms and estimated bytes, including the estimate per million tasks.
+ */
+@Component
+@Endpoint(id = "searchindex")
+public class SearchIndexEndpoint {
+
+    private final TaskSearchIndex taskSearchIndex;
+
+    public SearchIndexEndpoint(TaskSearchIndex taskSearchIndex) {
+        this.taskSearchIndex = taskSearchIndex;
+    }
+
+    @ReadOperation
+    public TaskSearchIndex.MemoryUsage memoryUsage() {
+        return taskSearchIndex.memoryUsage();
+    }
+}
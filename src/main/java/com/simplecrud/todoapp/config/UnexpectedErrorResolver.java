@@ -0,0 +1,111 @@
+package com.simplecrud.todoapp.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.ModelAndView;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Last exception resolver: answers every exception that neither {@code TaskExceptionHandler} nor Spring MVC's
+ * own resolvers handled with a fixed 500 body, and logs it at a bounded rate.
+ * <p>
+ * At most {@code log-limit} stack traces are logged per {@code log-window}; further errors in the same window
+ * are only counted, and the count is reported with the next logged one. Every error is counted in
+ * {@value #METRIC_NAME}, tagged with the exception class. Without this resolver an error storm would log one
+ * full stack trace per request from the servlet container and render Boot's error page for each.
+ */
+@Component
+public class UnexpectedErrorResolver implements HandlerExceptionResolver, Ordered {
+
+    public static final String METRIC_NAME = "todoapp.errors.unexpected";
+
+    private static final Logger log = LoggerFactory.getLogger(UnexpectedErrorResolver.class);
+    private static final byte[] BODY = ("{\"status\":500,\"error\":\"Internal Server Error\"}")
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final int logLimit;
+    private final long logWindowNanos;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    // Guards the log window; errors are rare enough that a lock costs nothing
+    private final ReentrantLock lock = new ReentrantLock();
+    private long windowStart;
+    private int loggedInWindow;
+    private long suppressed;
+
+    public UnexpectedErrorResolver(@Value("${todoapp.errors.log-limit:10}") int logLimit,
+                                   @Value("${todoapp.errors.log-window:PT1M}") Duration logWindow,
+                                   ObjectProvider<MeterRegistry> meterRegistry) {
+        this.logLimit = logLimit;
+        this.logWindowNanos = logWindow.toNanos();
+        this.meterRegistry = meterRegistry;
+        this.windowStart = System.nanoTime();
+    }
+
+    @Override
+    public ModelAndView resolveException(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                         Exception ex) {
+        meterRegistry.ifAvailable(registry ->
+                registry.counter(METRIC_NAME, "exception", ex.getClass().getSimpleName()).increment());
+        long suppressedBefore = acquireLogPermit(System.nanoTime());
+        if (suppressedBefore == 0) {
+            log.error("Unexpected error on {} {}", request.getMethod(), request.getRequestURI(), ex);
+        } else if (suppressedBefore > 0) {
+            log.error("Unexpected error on {} {} ({} more since the last logged one)", request.getMethod(),
+                    request.getRequestURI(), suppressedBefore, ex);
+        }
+        // A streamed response may already be partly sent; the client then just sees it cut off
+        if (!response.isCommitted()) {
+            response.setStatus(HttpStatus.INTERNAL_SERVER_ERROR.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setContentLength(BODY.length);
+            try {
+                response.getOutputStream().write(BODY);
+            } catch (IOException e) {
+                // Client went away
+            }
+        }
+        return new ModelAndView();
+    }
+
+    // -1 when the error must not be logged, else the number of errors suppressed since the last logged one
+    long acquireLogPermit(long now) {
+        lock.lock();
+        try {
+            if (now - windowStart >= logWindowNanos) {
+                windowStart = now;
+                loggedInWindow = 0;
+            }
+            if (loggedInWindow >= logLimit) {
+                suppressed++;
+                return -1;
+            }
+            loggedInWindow++;
+            long count = suppressed;
+            suppressed = 0;
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // After the composite of Spring MVC's own resolvers (order 0), so only unhandled exceptions get here
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+}
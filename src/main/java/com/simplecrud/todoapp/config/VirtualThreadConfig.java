@@ -0,0 +1,99 @@
+package com.simplecrud.todoapp.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs every request on its own virtual thread instead of Tomcat's worker pool (todoapp.virtual-threads.enabled).
+ * <p>
+ * Requires a Java 21 runtime; the build still targets Java 11, so the virtual-thread executor is created
+ * reflectively and startup fails fast on older JVMs. Because request concurrency is no longer bounded by
+ * a thread pool, database access is bounded by {@link ConcurrencyLimitedDataSource} instead, and
+ * {@link PinnedThreadMonitor} reports any blocking that pins a carrier thread.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "todoapp.virtual-threads", name = "enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService virtualThreadExecutor() {
+        if (Runtime.version().feature() < 21) {
+            throw new IllegalStateException("todoapp.virtual-threads.enabled requires Java 21 or later, running on "
+                    + Runtime.version());
+        }
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create a virtual-thread executor", e);
+        }
+    }
+
+    // Idle keep-alive connections wait in the NIO poller either way; only active requests take a thread
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer(ExecutorService virtualThreadExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+    }
+
+    // StreamingResponseBody (/tasks/export) and other async handlers run outside the request thread
+    @Bean
+    public WebMvcConfigurer virtualThreadAsyncConfigurer(ExecutorService virtualThreadExecutor) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+                configurer.setTaskExecutor(new TaskExecutorAdapter(virtualThreadExecutor));
+            }
+        };
+    }
+
+    @Bean
+    public static BeanPostProcessor concurrencyLimitedDataSourcePostProcessor(
+            @Value("${todoapp.virtual-threads.db-permits:${spring.datasource.hikari.maximum-pool-size:10}}") int permits,
+            @Value("${todoapp.virtual-threads.db-acquire-timeout:PT5S}") Duration acquireTimeout) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // Only the data source the application uses, not pools it is composed of (see ReplicaRoutingConfig)
+                if (beanName.equals("dataSource") && bean instanceof DataSource
+                        && !(bean instanceof ConcurrencyLimitedDataSource)) {
+                    return new ConcurrencyLimitedDataSource((DataSource) bean, permits, acquireTimeout);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder concurrencyLimitMetrics(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof ConcurrencyLimitedDataSource) {
+                ConcurrencyLimitedDataSource limited = (ConcurrencyLimitedDataSource) dataSource;
+                Gauge.builder("todoapp.db.permits.available", limited, ConcurrencyLimitedDataSource::getAvailablePermits)
+                        .register(registry);
+                Gauge.builder("todoapp.db.permits.waiting", limited, ConcurrencyLimitedDataSource::getQueueLength)
+                        .register(registry);
+            }
+        };
+    }
+
+    @Bean
+    public PinnedThreadMonitor pinnedThreadMonitor(
+            @Value("${todoapp.virtual-threads.pinned-threshold:PT0.02S}") Duration threshold,
+            MeterRegistry meterRegistry) {
+        return new PinnedThreadMonitor(threshold, meterRegistry);
+    }
+}
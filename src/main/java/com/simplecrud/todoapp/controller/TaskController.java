@@ -1,51 +1,361 @@
 package com.simplecrud.todoapp.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.simplecrud.todoapp.config.BinaryFormatConfig;
+import com.simplecrud.todoapp.config.RequestPriority;
+import com.simplecrud.todoapp.dto.BatchCreateResult;
+import com.simplecrud.todoapp.dto.TaskChanges;
+import com.simplecrud.todoapp.dto.TaskDueDate;
+import com.simplecrud.todoapp.dto.TaskPage;
+import com.simplecrud.todoapp.dto.TaskSetVersion;
+import com.simplecrud.todoapp.dto.TaskStats;
+import com.simplecrud.todoapp.dto.TaskVersion;
+import com.simplecrud.todoapp.dto.TaskView;
 import com.simplecrud.todoapp.exceptions.自定义中文异常;
 import com.simplecrud.todoapp.model.Task;
+import com.simplecrud.todoapp.service.OverdueTaskScheduler;
+import com.simplecrud.todoapp.service.TaskChangeFeed;
+import com.simplecrud.todoapp.service.TaskSearchIndex;
 import com.simplecrud.todoapp.service.TaskService;
+import com.simplecrud.todoapp.service.TaskStatsService;
+import com.simplecrud.todoapp.service.TaskSyncService;
 import com.simplecrud.todoapp.exceptions.CustomChineseException;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Random;
 
 @Controller
 @RequestMapping("/tasks")
 public class TaskController {
 
+    private static final String RETURN_MINIMAL = "return=minimal";
+
+    private static final List<MediaType> BINARY_TYPES =
+            List.of(MediaType.APPLICATION_CBOR, BinaryFormatConfig.APPLICATION_SMILE);
+
     private final TaskService taskService;
+    private final TaskStatsService taskStatsService;
+    private final OverdueTaskScheduler overdueTaskScheduler;
+    private final TaskSearchIndex taskSearchIndex;
+    private final TaskChangeFeed taskChangeFeed;
+    private final TaskSyncService taskSyncService;
+    private final ObjectMapper objectMapper;
+    // Mappers of the CBOR and Smile message converters, for the endpoints that stream lists themselves
+    private final Map<MediaType, ObjectMapper> binaryObjectMappers = new HashMap<>();
 
-    public TaskController(TaskService taskService) {
+    public TaskController(TaskService taskService, TaskStatsService taskStatsService,
+                          OverdueTaskScheduler overdueTaskScheduler, TaskSearchIndex taskSearchIndex,
+                          TaskChangeFeed taskChangeFeed, TaskSyncService taskSyncService, ObjectMapper objectMapper,
+                          HttpMessageConverters messageConverters) {
         this.taskService = taskService;
+        this.taskStatsService = taskStatsService;
+        this.overdueTaskScheduler = overdueTaskScheduler;
+        this.taskSearchIndex = taskSearchIndex;
+        this.taskChangeFeed = taskChangeFeed;
+        this.taskSyncService = taskSyncService;
+        this.objectMapper = objectMapper;
+        for (HttpMessageConverter<?> converter : messageConverters.getConverters()) {
+            if (converter instanceof AbstractJackson2HttpMessageConverter) {
+                for (MediaType binaryType : BINARY_TYPES) {
+                    if (converter.getSupportedMediaTypes().contains(binaryType)) {
+                        binaryObjectMappers.putIfAbsent(binaryType,
+                                ((AbstractJackson2HttpMessageConverter) converter).getObjectMapper());
+                    }
+                }
+            }
+        }
     }
 
-    // Get a task by ID
+    // Get a task by ID. With If-None-Match the ETag is checked first against the cache or a version lookup,
+    // so an unchanged task is answered with 304 without loading or serializing it.
     @GetMapping("/{id}")
     @ResponseBody
-    public ResponseEntity<?> getTask(@PathVariable Long id) {
-        return taskService.findTaskById(id)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<?> getTask(@PathVariable Long id, WebRequest request, HttpServletResponse response) {
+        MediaType binaryType = negotiateBinaryType(request, response);
+        boolean revalidating = request.getHeader(HttpHeaders.IF_NONE_MATCH) != null;
+        if (revalidating) {
+            Optional<TaskVersion> version = taskService.findTaskVersion(id);
+            if (version.isPresent() && request.checkNotModified(forFormat(version.get().toETag(), binaryType))) {
+                return null;
+            }
+        }
+        Optional<Task> task = taskService.findTaskById(id);
+        if (task.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return okWithETag(revalidating, forFormat(TaskVersion.of(task.get()).toETag(), binaryType), binaryType)
+                .body(task.get());
     }
 
+    // Without limit/cursor the full list is returned; with either, a keyset page is returned
+    @RequestPriority(RequestPriority.Tier.LIST)
     @GetMapping("/completed")
     @ResponseBody
-    public List<Task> getCompletedTasks() {
-        return taskService.findAllCompletedTasks();
+    public ResponseEntity<?> getCompletedTasks(@RequestParam(value = "limit", required = false) Integer limit,
+                                               @RequestParam(value = "cursor", required = false) String cursor,
+                                               WebRequest request, HttpServletResponse response)
+            throws IOException {
+        MediaType binaryType = negotiateBinaryType(request, response);
+        if (limit == null && cursor == null) {
+            return allTasks(true, binaryType, request, response);
+        }
+        try {
+            TaskPage page = taskService.findCompletedTasksPage(cursor, limitOrDefault(limit));
+            return okWithETag(false, forFormat(pageETag(page), binaryType), binaryType).body(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
+    @RequestPriority(RequestPriority.Tier.LIST)
     @GetMapping("/uncompleted")
     @ResponseBody
-    public List<Task> getUncompletedTasks() {
-        return taskService.findAllUncompletedTasks();
+    public ResponseEntity<?> getUncompletedTasks(@RequestParam(value = "limit", required = false) Integer limit,
+                                                 @RequestParam(value = "cursor", required = false) String cursor,
+                                                 WebRequest request, HttpServletResponse response)
+            throws IOException {
+        MediaType binaryType = negotiateBinaryType(request, response);
+        if (limit == null && cursor == null) {
+            return allTasks(false, binaryType, request, response);
+        }
+        try {
+            TaskPage page = taskService.findUncompletedTasksPage(cursor, limitOrDefault(limit));
+            return okWithETag(false, forFormat(pageETag(page), binaryType), binaryType).body(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Pollers of the full lists send If-None-Match; one aggregate query answers them before any row is loaded.
+    // Binary lists are written straight from a database cursor, so their ETag always comes from that query.
+    private ResponseEntity<?> allTasks(boolean isCompleted, MediaType binaryType, WebRequest request,
+                                       HttpServletResponse response) throws IOException {
+        boolean revalidating = binaryType != null || request.getHeader(HttpHeaders.IF_NONE_MATCH) != null;
+        if (revalidating && request.checkNotModified(
+                forFormat(taskService.findTaskSetVersion(isCompleted).toETag(), binaryType))) {
+            return null;
+        }
+        if (binaryType != null) {
+            response.setContentType(binaryType.toString());
+            writeTaskArray(binaryObjectMappers.get(binaryType), isCompleted, response.getOutputStream());
+            return null;
+        }
+        List<TaskView> tasks = isCompleted
+                ? taskService.findAllCompletedTasks()
+                : taskService.findAllUncompletedTasks();
+        return okWithETag(revalidating, TaskSetVersion.of(tasks).toETag(), null).body(tasks);
+    }
+
+    // After a failed If-None-Match check the response already carries the ETag that was checked. It was
+    // computed before the body was loaded, so at worst it is older than the body and the next check misses.
+    private static ResponseEntity.BodyBuilder okWithETag(boolean revalidating, String etag, MediaType binaryType) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!revalidating) {
+            response.eTag(etag);
+        }
+        // Fixes the converter to the encoding the ETag was computed for
+        return binaryType == null ? response : response.contentType(binaryType);
+    }
+
+    // CBOR or Smile when the client prefers one of them over JSON (and NDJSON for the export), else null.
+    // Responses differ by Accept from here on, which caches must know.
+    private MediaType negotiateBinaryType(WebRequest request, HttpServletResponse response) {
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null) {
+            return null;
+        }
+        List<MediaType> acceptedTypes;
+        try {
+            acceptedTypes = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+        MediaType.sortBySpecificityAndQuality(acceptedTypes);
+        for (MediaType acceptedType : acceptedTypes) {
+            for (MediaType binaryType : BINARY_TYPES) {
+                if (binaryType.equalsTypeAndSubtype(acceptedType) && binaryObjectMappers.containsKey(binaryType)) {
+                    return binaryType;
+                }
+            }
+            if (acceptedType.isCompatibleWith(MediaType.APPLICATION_JSON)
+                    || acceptedType.isCompatibleWith(MediaType.APPLICATION_NDJSON)) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    // Each encoding is a different representation, so binary ones get validators of their own
+    private static String forFormat(String etag, MediaType binaryType) {
+        if (binaryType == null) {
+            return etag;
+        }
+        return etag.substring(0, etag.length() - 1) + '+' + binaryType.getSubtype() + '"';
+    }
+
+    // Pages are checked against their own rows; 304 saves the transfer, not the query
+    private static String pageETag(TaskPage page) {
+        return TaskSetVersion.of(page.getItems()).toPageETag(page.getNextCursor() != null);
+    }
+
+    private static int limitOrDefault(Integer limit) {
+        return limit == null ? TaskService.DEFAULT_PAGE_SIZE : limit;
+    }
+
+    // Task counts served from in-memory counters
+    @GetMapping("/stats")
+    @ResponseBody
+    public TaskStats getStats() {
+        return taskStatsService.getStats();
+    }
+
+    // Ids and due dates of overdue tasks, oldest first, from the in-memory overdue set
+    @GetMapping("/overdue")
+    @ResponseBody
+    public ResponseEntity<List<TaskDueDate>> getOverdueTasks(
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        int size = limitOrDefault(limit);
+        if (size < 1 || size > TaskService.MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(overdueTaskScheduler.findOverdue(size));
+    }
+
+    // Tasks whose description contains every term of q, best match first; a term ending in * matches by prefix.
+    // The in-memory index picks the ids, so only the hits are read from the database.
+    @RequestPriority(RequestPriority.Tier.LIST)
+    @GetMapping("/search")
+    @ResponseBody
+    public ResponseEntity<List<TaskView>> searchTasks(@RequestParam("q") String query,
+                                                      @RequestParam(value = "limit", required = false) Integer limit) {
+        int size = limitOrDefault(limit);
+        if (size < 1 || size > TaskService.MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<Long> ids;
+        try {
+            ids = taskSearchIndex.search(query, size);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(taskService.findTaskViews(ids));
+    }
+
+    // Server-sent events for every create, update and delete, optionally only those concerning tasks in one
+    // completion state. Reconnecting with Last-Event-ID replays the missed events while they are still buffered;
+    // otherwise a "resync" event tells the client to reload its lists.
+    @RequestPriority(RequestPriority.Tier.STREAM)
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamChanges(
+            @RequestParam(value = "isCompleted", required = false) Boolean isCompleted,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        SseEmitter emitter = taskChangeFeed.subscribe(isCompleted, lastEventId);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+
+    // Tasks created, changed or deleted since the call that returned the since token, oldest change first; without
+    // since, every task. Clients keep next for their following call and repeat at once while hasMore is set.
+    // 410 means the token is older than the tombstone retention and the client has to sync from scratch.
+    @RequestPriority(RequestPriority.Tier.LIST)
+    @GetMapping("/changes")
+    @ResponseBody
+    public ResponseEntity<TaskChanges> getChanges(@RequestParam(value = "since", required = false) String since,
+                                                  @RequestParam(value = "limit", required = false) Integer limit) {
+        int size = limitOrDefault(limit);
+        if (size < 1 || size > TaskService.MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(taskSyncService.findChanges(since, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Stream all tasks (optionally filtered by completion) as newline-delimited JSON, or as one CBOR/Smile array
+    @RequestPriority(RequestPriority.Tier.LIST)
+    @GetMapping(value = "/export", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+            BinaryFormatConfig.APPLICATION_SMILE_VALUE})
+    public ResponseEntity<StreamingResponseBody> exportTasks(
+            @RequestParam(value = "isCompleted", required = false) Boolean isCompleted,
+            WebRequest request, HttpServletResponse response) {
+        MediaType binaryType = negotiateBinaryType(request, response);
+        if (binaryType != null) {
+            ObjectMapper binaryObjectMapper = binaryObjectMappers.get(binaryType);
+            return ResponseEntity.ok()
+                    .contentType(binaryType)
+                    .body(outputStream -> writeTaskArray(binaryObjectMapper, isCompleted, outputStream));
+        }
+        StreamingResponseBody body = outputStream -> writeNdjson(isCompleted, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    private void writeNdjson(Boolean isCompleted, OutputStream outputStream) throws IOException {
+        // One generator for the whole response; flushing only when its buffer fills, not per row
+        ObjectWriter writer = objectMapper.writerFor(Task.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            taskService.exportTasks(isCompleted, task -> {
+                try {
+                    writer.writeValue(generator, task);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    // One array written element by element while the rows are read, so the list is never held in memory
+    private void writeTaskArray(ObjectMapper mapper, Boolean isCompleted, OutputStream outputStream) throws IOException {
+        ObjectWriter writer = mapper.writerFor(Task.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(outputStream)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            generator.writeStartArray();
+            taskService.exportTasks(isCompleted, task -> {
+                try {
+                    writer.writeValue(generator, task);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.writeEndArray();
+        }
     }
 
     // Add new endpoint to return true or false randomly
+    @RequestPriority(RequestPriority.Tier.DIAGNOSTIC)
     @GetMapping("/randomBoolean")
     @ResponseBody
     public Map<String, Boolean> getRandomBoolean() {
@@ -56,7 +366,8 @@ public class TaskController {
         return response;
     }
 
-    // test for chinese signs
+    // test for chinese signs; both exceptions are answered by TaskExceptionHandler
+    @RequestPriority(RequestPriority.Tier.DIAGNOSTIC)
     @GetMapping("/chinese")
     @ResponseBody
     public String 获取数据() {
@@ -75,28 +386,68 @@ public class TaskController {
         return new ResponseEntity<>(createdTask, HttpStatus.CREATED);
     }
 
-    // Update a task's completion status
+    // Create many tasks in one transaction; invalid items are reported per index
+    @RequestPriority(RequestPriority.Tier.LIST)
+    @PostMapping("/batch")
+    @ResponseBody
+    public ResponseEntity<BatchCreateResult> createTasks(@RequestBody List<Task> newTasks) {
+        if (newTasks.size() > TaskService.MAX_BATCH_SIZE) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        BatchCreateResult result = taskService.createTasks(newTasks);
+        HttpStatus status = result.getCreatedCount() == 0 && !result.getErrors().isEmpty()
+                ? HttpStatus.UNPROCESSABLE_ENTITY
+                : HttpStatus.CREATED;
+        return new ResponseEntity<>(result, status);
+    }
+
+    // Update a task's completion status; "Prefer: return=minimal" skips reading the task back.
+    // In write-behind mode the change is buffered and written shortly after the response.
+    // A missing task (404) or a full write-behind buffer (503) is answered by TaskExceptionHandler.
     @PutMapping("/{id}/completion")
     @ResponseBody
-    public ResponseEntity<Task> updateTaskCompletion(@PathVariable Long id, @RequestParam("isCompleted") boolean isCompleted) {
-        try {
-            Task updatedTask = taskService.updateTaskCompletionStatus(id, isCompleted);
-            return ResponseEntity.ok(updatedTask);
-        } catch (RuntimeException e) {
-            return ResponseEntity.notFound().build();
+    public ResponseEntity<Task> updateTaskCompletion(@PathVariable Long id, @RequestParam("isCompleted") boolean isCompleted,
+                                                     @RequestHeader(value = "Prefer", required = false) String prefer) {
+        if (taskService.isWriteBehindEnabled()) {
+            Task updatedTask = taskService.bufferTaskCompletionStatus(id, isCompleted);
+            return isReturnMinimal(prefer) ? minimalResponse() : ResponseEntity.ok(updatedTask);
         }
+        if (isReturnMinimal(prefer)) {
+            taskService.setTaskCompletionStatus(id, isCompleted);
+            return minimalResponse();
+        }
+        Task updatedTask = taskService.updateTaskCompletionStatus(id, isCompleted);
+        return ResponseEntity.ok(updatedTask);
     }
 
-    // Update a task's description
+    // Update a task's description; "Prefer: return=minimal" skips reading the task back
     @PutMapping("/{id}/description")
     @ResponseBody
-    public ResponseEntity<Task> updateTaskDescription(@PathVariable Long id, @RequestBody String description) {
-        try {
-            Task updatedTask = taskService.updateTaskDescription(id, description);
-            return ResponseEntity.ok(updatedTask);
-        } catch (RuntimeException e) {
-            return ResponseEntity.notFound().build();
+    public ResponseEntity<Task> updateTaskDescription(@PathVariable Long id, @RequestBody String description,
+                                                      @RequestHeader(value = "Prefer", required = false) String prefer) {
+        if (isReturnMinimal(prefer)) {
+            taskService.setTaskDescription(id, description);
+            return minimalResponse();
         }
+        Task updatedTask = taskService.updateTaskDescription(id, description);
+        return ResponseEntity.ok(updatedTask);
+    }
+
+    // RFC 7240 preference, e.g. "Prefer: return=minimal" or "Prefer: respond-async, return=minimal"
+    private static boolean isReturnMinimal(String prefer) {
+        if (prefer == null) {
+            return false;
+        }
+        for (String preference : prefer.split(",")) {
+            if (preference.trim().equalsIgnoreCase(RETURN_MINIMAL)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static <T> ResponseEntity<T> minimalResponse() {
+        return ResponseEntity.noContent().header("Preference-Applied", RETURN_MINIMAL).build();
     }
 
     @DeleteMapping("/{id}")
@@ -105,6 +456,7 @@ public class TaskController {
         taskService.deleteTask(id);
     }
 
+    @RequestPriority(RequestPriority.Tier.DIAGNOSTIC)
     @DeleteMapping("/error")
     @ResponseBody
     public ResponseEntity<String> alwaysDeleteError() {
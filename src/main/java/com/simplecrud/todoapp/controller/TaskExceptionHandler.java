@@ -0,0 +1,77 @@
+package com.simplecrud.todoapp.controller;
+
+import com.simplecrud.todoapp.exceptions.ConcurrencyLimitExceededException;
+import com.simplecrud.todoapp.exceptions.CustomChineseException;
+import com.simplecrud.todoapp.exceptions.SyncTokenExpiredException;
+import com.simplecrud.todoapp.exceptions.TaskNotFoundException;
+import com.simplecrud.todoapp.exceptions.WriteBehindBufferFullException;
+import com.simplecrud.todoapp.exceptions.自定义中文异常;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Answers the expected domain exceptions with responses built once at startup.
+ * <p>
+ * These exceptions are thrown on normal request paths (a missing id, a full write-behind buffer, the simulated
+ * errors of {@code /tasks/chinese}, requests shed under load, expired sync tokens), so they are neither logged
+ * nor given a stack trace; each handler returns the same immutable response with a fixed JSON body. Anything not
+ * handled here or by Spring MVC itself ends up in {@link com.simplecrud.todoapp.config.UnexpectedErrorResolver}.
+ */
+@RestControllerAdvice
+public class TaskExceptionHandler {
+
+    private static final ResponseEntity<byte[]> TASK_NOT_FOUND =
+            errorResponse(HttpStatus.NOT_FOUND, new HttpHeaders(), "Task not found");
+    private static final ResponseEntity<byte[]> WRITE_BEHIND_BUFFER_FULL =
+            errorResponse(HttpStatus.SERVICE_UNAVAILABLE, retryAfter("1"), "Too many pending changes, retry later");
+    private static final ResponseEntity<byte[]> CONCURRENCY_LIMIT_EXCEEDED =
+            errorResponse(HttpStatus.SERVICE_UNAVAILABLE, retryAfter("1"), "Too many concurrent requests, retry later");
+    private static final ResponseEntity<byte[]> SYNC_TOKEN_EXPIRED =
+            errorResponse(HttpStatus.GONE, new HttpHeaders(), "Sync token expired, sync from scratch");
+    private static final ResponseEntity<byte[]> SIMULATED_ERROR =
+            errorResponse(HttpStatus.INTERNAL_SERVER_ERROR, new HttpHeaders(), "模拟异常");
+
+    @ExceptionHandler(TaskNotFoundException.class)
+    public ResponseEntity<byte[]> handleTaskNotFound() {
+        return TASK_NOT_FOUND;
+    }
+
+    @ExceptionHandler(WriteBehindBufferFullException.class)
+    public ResponseEntity<byte[]> handleWriteBehindBufferFull() {
+        return WRITE_BEHIND_BUFFER_FULL;
+    }
+
+    @ExceptionHandler(ConcurrencyLimitExceededException.class)
+    public ResponseEntity<byte[]> handleConcurrencyLimitExceeded() {
+        return CONCURRENCY_LIMIT_EXCEEDED;
+    }
+
+    @ExceptionHandler(SyncTokenExpiredException.class)
+    public ResponseEntity<byte[]> handleSyncTokenExpired() {
+        return SYNC_TOKEN_EXPIRED;
+    }
+
+    @ExceptionHandler({CustomChineseException.class, 自定义中文异常.class})
+    public ResponseEntity<byte[]> handleSimulatedError() {
+        return SIMULATED_ERROR;
+    }
+
+    private static HttpHeaders retryAfter(String seconds) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, seconds);
+        return headers;
+    }
+
+    // The body is written as is by the byte[] converter; the explicit JSON type bypasses content negotiation
+    private static ResponseEntity<byte[]> errorResponse(HttpStatus status, HttpHeaders headers, String error) {
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        String body = "{\"status\":" + status.value() + ",\"error\":\"" + error + "\"}";
+        return new ResponseEntity<>(body.getBytes(StandardCharsets.UTF_8), headers, status);
+    }
+}
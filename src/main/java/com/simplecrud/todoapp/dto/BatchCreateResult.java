@@ -0,0 +1,28 @@
+package com.simplecrud.todoapp.dto;
+
+import java.util.List;
+
+public class BatchCreateResult {
+
+    // Generated ids in request order; null where the item was rejected
+    private final List<Long> ids;
+
+    private final List<BatchItemError> errors;
+
+    public BatchCreateResult(List<Long> ids, List<BatchItemError> errors) {
+        this.ids = ids;
+        this.errors = errors;
+    }
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public List<BatchItemError> getErrors() {
+        return errors;
+    }
+
+    public int getCreatedCount() {
+        return ids.size() - errors.size();
+    }
+}
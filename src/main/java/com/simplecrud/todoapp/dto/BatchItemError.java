@@ -0,0 +1,22 @@
+package com.simplecrud.todoapp.dto;
+
+public class BatchItemError {
+
+    // Position of the rejected item in the request array
+    private final int index;
+
+    private final String message;
+
+    public BatchItemError(int index, String message) {
+        this.index = index;
+        this.message = message;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,61 @@
+package com.simplecrud.todoapp.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque token handed out by {@code GET /tasks/changes}: the (updatedAt, id) position of the last change
+ * returned, and the time from which the client may still be missing changes ({@code safeSince}). The token is
+ * only usable while tombstones from {@code safeSince} on are still kept.
+ */
+public final class SyncToken {
+
+    private final long afterUpdatedAt;
+    private final long afterId;
+    private final long safeSince;
+
+    public SyncToken(long afterUpdatedAt, long afterId, long safeSince) {
+        this.afterUpdatedAt = afterUpdatedAt;
+        this.afterId = afterId;
+        this.safeSince = safeSince;
+    }
+
+    public long getAfterUpdatedAt() {
+        return afterUpdatedAt;
+    }
+
+    public long getAfterId() {
+        return afterId;
+    }
+
+    public long getSafeSince() {
+        return safeSince;
+    }
+
+    public String encode() {
+        String plain = afterUpdatedAt + "." + afterId + "." + safeSince;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(plain.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public static SyncToken decode(String token) {
+        String[] parts;
+        long afterUpdatedAt;
+        long afterId;
+        long safeSince;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII).split("\\.", -1);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid sync token: " + token);
+            }
+            afterUpdatedAt = Long.parseLong(parts[0]);
+            afterId = Long.parseLong(parts[1]);
+            safeSince = Long.parseLong(parts[2]);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid sync token: " + token, e);
+        }
+        if (afterUpdatedAt < 0 || afterId < 0 || safeSince < 0) {
+            throw new IllegalArgumentException("Invalid sync token: " + token);
+        }
+        return new SyncToken(afterUpdatedAt, afterId, safeSince);
+    }
+}
@@ -0,0 +1,47 @@
+package com.simplecrud.todoapp.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.simplecrud.todoapp.event.TaskChangedEvent;
+import com.simplecrud.todoapp.model.Task;
+
+import java.util.Locale;
+
+// One create, update or delete as sent by GET /tasks/stream. task is the state after the change when the
+// service had the task loaded; otherwise clients read it with GET /tasks/{id}. isCompleted is the state after
+// a create or update and before a delete, when known.
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TaskChange {
+
+    private final String type;
+    private final Long id;
+    private final Boolean isCompleted;
+    private final Task task;
+
+    public TaskChange(String type, Long id, Boolean isCompleted, Task task) {
+        this.type = type;
+        this.id = id;
+        this.isCompleted = isCompleted;
+        this.task = task;
+    }
+
+    public static TaskChange of(TaskChangedEvent event) {
+        return new TaskChange(event.getType().name().toLowerCase(Locale.ROOT), event.getTaskId(),
+                event.getCompleted(), event.getTask());
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Boolean getIsCompleted() {
+        return isCompleted;
+    }
+
+    public Task getTask() {
+        return task;
+    }
+}
@@ -0,0 +1,29 @@
+package com.simplecrud.todoapp.dto;
+
+import java.util.Date;
+
+// Task row read by the delta sync query, tombstones included. A native query, so Spring Data maps the
+// column aliases onto these getters; deletedAt is set for a deleted task.
+public interface TaskChangeRow {
+
+    Long getId();
+
+    String getDescription();
+
+    Boolean getIsCompleted();
+
+    Date getDueDate();
+
+    Date getCreatedAt();
+
+    Date getUpdatedAt();
+
+    Long getVersion();
+
+    Date getDeletedAt();
+
+    default TaskView toView() {
+        return new TaskView(getId(), getDescription(), getIsCompleted(), getDueDate(), getCreatedAt(),
+                getUpdatedAt(), getVersion());
+    }
+}
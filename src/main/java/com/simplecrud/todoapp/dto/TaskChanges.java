@@ -0,0 +1,36 @@
+package com.simplecrud.todoapp.dto;
+
+import java.util.List;
+
+// One page of GET /tasks/changes: tasks to insert or replace, ids of tasks to remove, and the token for the
+// next call. hasMore means the next call returns more changes right away.
+public class TaskChanges {
+
+    private final List<TaskView> tasks;
+    private final List<Long> deletedIds;
+    private final String next;
+    private final boolean hasMore;
+
+    public TaskChanges(List<TaskView> tasks, List<Long> deletedIds, String next, boolean hasMore) {
+        this.tasks = tasks;
+        this.deletedIds = deletedIds;
+        this.next = next;
+        this.hasMore = hasMore;
+    }
+
+    public List<TaskView> getTasks() {
+        return tasks;
+    }
+
+    public List<Long> getDeletedIds() {
+        return deletedIds;
+    }
+
+    public String getNext() {
+        return next;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+}
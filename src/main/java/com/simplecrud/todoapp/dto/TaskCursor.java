@@ -0,0 +1,32 @@
+package com.simplecrud.todoapp.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes the last seen task id into the opaque cursor handed out by the paginated list endpoints.
+ */
+public final class TaskCursor {
+
+    private TaskCursor() {
+    }
+
+    public static String encode(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Long.toString(lastId).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public static long decode(String cursor) {
+        long lastId;
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            lastId = Long.parseLong(decoded);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+        if (lastId < 0) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        return lastId;
+    }
+}
@@ -0,0 +1,23 @@
+package com.simplecrud.todoapp.dto;
+
+import java.util.Date;
+
+// Id and due date of an uncompleted task: what OverdueTaskScheduler loads and GET /tasks/overdue returns
+public class TaskDueDate {
+
+    private final Long id;
+    private final Date dueDate;
+
+    public TaskDueDate(Long id, Date dueDate) {
+        this.id = id;
+        this.dueDate = dueDate;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Date getDueDate() {
+        return dueDate;
+    }
+}
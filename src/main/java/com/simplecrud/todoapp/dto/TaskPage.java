@@ -0,0 +1,24 @@
+package com.simplecrud.todoapp.dto;
+
+import java.util.List;
+
+public class TaskPage {
+
+    private final List<TaskView> items;
+
+    // Opaque token for the next page, null when this is the last page
+    private final String nextCursor;
+
+    public TaskPage(List<TaskView> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<TaskView> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,68 @@
+package com.simplecrud.todoapp.dto;
+
+import java.util.Date;
+import java.util.List;
+
+// Summary of a set of tasks used as the ETag of the list endpoints. A task entering or leaving the set
+// changes the count or id sum, and any update bumps a version and moves updatedAt forward.
+public class TaskSetVersion {
+
+    private final long count;
+    private final long idSum;
+    private final long versionSum;
+    private final long lastUpdatedAt;
+
+    // Argument types match the JPQL aggregates in TaskRepository; sums and max are null for an empty set
+    public TaskSetVersion(Long count, Long idSum, Long versionSum, Date lastUpdatedAt) {
+        this.count = count == null ? 0L : count;
+        this.idSum = idSum == null ? 0L : idSum;
+        this.versionSum = versionSum == null ? 0L : versionSum;
+        this.lastUpdatedAt = lastUpdatedAt == null ? 0L : lastUpdatedAt.getTime();
+    }
+
+    // Same summary computed from tasks already loaded, so a response's ETag matches the rows it contains
+    public static TaskSetVersion of(List<TaskView> tasks) {
+        long idSum = 0;
+        long versionSum = 0;
+        long lastUpdatedAt = 0;
+        for (TaskView task : tasks) {
+            idSum += task.getId() == null ? 0L : task.getId();
+            versionSum += task.getVersion() == null ? 0L : task.getVersion();
+            if (task.getUpdatedAt() != null) {
+                lastUpdatedAt = Math.max(lastUpdatedAt, task.getUpdatedAt().getTime());
+            }
+        }
+        return new TaskSetVersion((long) tasks.size(), idSum, versionSum,
+                lastUpdatedAt == 0 ? null : new Date(lastUpdatedAt));
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getIdSum() {
+        return idSum;
+    }
+
+    public long getVersionSum() {
+        return versionSum;
+    }
+
+    public long getLastUpdatedAt() {
+        return lastUpdatedAt;
+    }
+
+    // Weak validator: derived from row metadata rather than the serialized bytes
+    public String toETag() {
+        return "W/\"" + tag() + "\"";
+    }
+
+    // A keyset page also changes when a next page appears, even if its own rows did not
+    public String toPageETag(boolean hasNextPage) {
+        return "W/\"" + tag() + (hasNextPage ? "-n" : "") + "\"";
+    }
+
+    private String tag() {
+        return count + "-" + Long.toHexString(idSum) + '-' + versionSum + '-' + Long.toHexString(lastUpdatedAt);
+    }
+}
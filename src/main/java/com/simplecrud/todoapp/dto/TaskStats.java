@@ -0,0 +1,32 @@
+package com.simplecrud.todoapp.dto;
+
+public class TaskStats {
+
+    private final long total;
+    private final long completed;
+    private final long uncompleted;
+    private final long overdue;
+
+    public TaskStats(long total, long completed, long uncompleted, long overdue) {
+        this.total = total;
+        this.completed = completed;
+        this.uncompleted = uncompleted;
+        this.overdue = overdue;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public long getCompleted() {
+        return completed;
+    }
+
+    public long getUncompleted() {
+        return uncompleted;
+    }
+
+    public long getOverdue() {
+        return overdue;
+    }
+}
@@ -0,0 +1,37 @@
+package com.simplecrud.todoapp.dto;
+
+import com.simplecrud.todoapp.model.Task;
+
+// What a task's ETag is derived from. The completion state is part of it because a write-behind change
+// is visible before it is stored, i.e. before the version moves.
+public class TaskVersion {
+
+    private final long version;
+    private final boolean completed;
+
+    public TaskVersion(Long version, Boolean completed) {
+        this.version = version == null ? 0L : version;
+        this.completed = Boolean.TRUE.equals(completed);
+    }
+
+    public static TaskVersion of(Task task) {
+        return new TaskVersion(task.getVersion(), task.getIsCompleted());
+    }
+
+    public TaskVersion withCompleted(boolean completed) {
+        return new TaskVersion(version, completed);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    // Strong validator: equal values mean byte-identical representations
+    public String toETag() {
+        return "\"" + version + (completed ? "-1" : "-0") + "\"";
+    }
+}
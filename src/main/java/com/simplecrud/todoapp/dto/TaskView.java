@@ -0,0 +1,64 @@
+package com.simplecrud.todoapp.dto;
+
+import com.simplecrud.todoapp.model.Task;
+
+import java.util.Date;
+
+// Immutable task row returned by the list queries. Hibernate builds it straight from the result set, so
+// listing creates no managed entities, persistence-context entries or dirty-checking snapshots.
+// Serialized exactly like Task.
+public class TaskView {
+
+    private final Long id;
+    private final String description;
+    private final Boolean isCompleted;
+    private final Date dueDate;
+    private final Date createdAt;
+    private final Date updatedAt;
+    private final Long version;
+
+    // Parameter names match the Task attributes; Spring Data maps derived-query projections by them
+    public TaskView(Long id, String description, Boolean isCompleted, Date dueDate, Date createdAt,
+                    Date updatedAt, Long version) {
+        this.id = id;
+        this.description = description;
+        this.isCompleted = isCompleted;
+        this.dueDate = dueDate;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.version = version;
+    }
+
+    public static TaskView of(Task task) {
+        return new TaskView(task.getId(), task.getDescription(), task.getIsCompleted(), task.getDueDate(),
+                task.getCreatedAt(), task.getUpdatedAt(), task.getVersion());
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public Boolean getIsCompleted() {
+        return isCompleted;
+    }
+
+    public Date getDueDate() {
+        return dueDate;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public Date getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,79 @@
+package com.simplecrud.todoapp.event;
+
+import com.simplecrud.todoapp.model.Task;
+
+/**
+ * Published by {@link com.simplecrud.todoapp.service.TaskService} after every successful mutation.
+ * Listeners should use {@code @TransactionalEventListener(fallbackExecution = true)} so they only see
+ * committed changes.
+ */
+public class TaskChangedEvent {
+
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    private final Type type;
+    private final Long taskId;
+
+    // State after the change when the service has it loaded; null for the minimal update paths and deletes
+    private final Task task;
+
+    // Completion state after a create/update, or before a delete; null when unknown
+    private final Boolean completed;
+
+    // True when an update flipped the completion state
+    private final boolean completionChanged;
+
+    private TaskChangedEvent(Type type, Long taskId, Task task, Boolean completed, boolean completionChanged) {
+        this.type = type;
+        this.taskId = taskId;
+        this.task = task;
+        this.completed = completed;
+        this.completionChanged = completionChanged;
+    }
+
+    public static TaskChangedEvent created(Task task) {
+        return new TaskChangedEvent(Type.CREATED, task.getId(), task, task.getIsCompleted(), false);
+    }
+
+    public static TaskChangedEvent completionChanged(Long taskId, boolean completed, Task task) {
+        return new TaskChangedEvent(Type.UPDATED, taskId, task, completed, true);
+    }
+
+    public static TaskChangedEvent updated(Long taskId, Task task) {
+        return new TaskChangedEvent(Type.UPDATED, taskId, task, task == null ? null : task.getIsCompleted(), false);
+    }
+
+    public static TaskChangedEvent deleted(Long taskId, Boolean wasCompleted) {
+        return new TaskChangedEvent(Type.DELETED, taskId, null, wasCompleted, false);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Long getTaskId() {
+        return taskId;
+    }
+
+    public Task getTask() {
+        return task;
+    }
+
+    public Boolean getCompleted() {
+        return completed;
+    }
+
+    public boolean isCompletionChanged() {
+        return completionChanged;
+    }
+
+    @Override
+    public String toString() {
+        return "TaskChangedEvent{" +
+                "type=" + type +
+                ", taskId=" + taskId +
+                ", completed=" + completed +
+                ", completionChanged=" + completionChanged +
+                '}';
+    }
+}
@@ -0,0 +1,35 @@
+package com.simplecrud.todoapp.event;
+
+import java.util.Date;
+
+/**
+ * Published by {@link com.simplecrud.todoapp.service.OverdueTaskScheduler} when an uncompleted task passes its
+ * due date. Listeners run on the scheduler's timer thread, so anything slow (a webhook call, say) should be
+ * handed off with {@code @Async}.
+ */
+public class TaskOverdueEvent {
+
+    private final Long taskId;
+    private final Date dueDate;
+
+    public TaskOverdueEvent(Long taskId, Date dueDate) {
+        this.taskId = taskId;
+        this.dueDate = dueDate;
+    }
+
+    public Long getTaskId() {
+        return taskId;
+    }
+
+    public Date getDueDate() {
+        return dueDate;
+    }
+
+    @Override
+    public String toString() {
+        return "TaskOverdueEvent{" +
+                "taskId=" + taskId +
+                ", dueDate=" + dueDate +
+                '}';
+    }
+}
@@ -0,0 +1,9 @@
+package com.simplecrud.todoapp.exceptions;
+
+// Thrown when a request is shed because its tier is over its share of the request concurrency limit
+public class ConcurrencyLimitExceededException extends TaskException {
+
+    public ConcurrencyLimitExceededException(String message) {
+        super(message);
+    }
+}
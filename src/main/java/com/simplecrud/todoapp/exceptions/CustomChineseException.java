@@ -1,6 +1,6 @@
 package com.simplecrud.todoapp.exceptions;
 
-public class CustomChineseException extends RuntimeException{
+public class CustomChineseException extends TaskException {
 
     public CustomChineseException(String message) {
         super(message);
@@ -0,0 +1,9 @@
+package com.simplecrud.todoapp.exceptions;
+
+// Thrown when a delta sync token is older than the tombstone retention, so deletions may have been missed
+public class SyncTokenExpiredException extends TaskException {
+
+    public SyncTokenExpiredException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package com.simplecrud.todoapp.exceptions;
+
+// Base of the application's own exceptions, answered by TaskExceptionHandler. They are expected outcomes such
+// as a missing task, thrown on normal request paths, so they skip filling in a stack trace (and suppression)
+public abstract class TaskException extends RuntimeException {
+
+    protected TaskException(String message) {
+        super(message, null, false, false);
+    }
+}
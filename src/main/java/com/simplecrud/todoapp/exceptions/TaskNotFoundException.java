@@ -0,0 +1,15 @@
+package com.simplecrud.todoapp.exceptions;
+
+public class TaskNotFoundException extends TaskException {
+
+    private final Long taskId;
+
+    public TaskNotFoundException(Long taskId) {
+        super("Task not found with id: " + taskId);
+        this.taskId = taskId;
+    }
+
+    public Long getTaskId() {
+        return taskId;
+    }
+}
@@ -0,0 +1,9 @@
+package com.simplecrud.todoapp.exceptions;
+
+// Thrown when the write-behind buffer stays full for longer than the accept timeout, or is shutting down
+public class WriteBehindBufferFullException extends TaskException {
+
+    public WriteBehindBufferFullException(String message) {
+        super(message);
+    }
+}
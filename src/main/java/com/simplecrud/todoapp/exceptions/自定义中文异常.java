@@ -1,6 +1,6 @@
 package com.simplecrud.todoapp.exceptions;
 
-public class 自定义中文异常 extends RuntimeException{
+public class 自定义中文异常 extends TaskException {
 
     public 自定义中文异常(String message) {
         super(message);
@@ -0,0 +1,108 @@
+package com.simplecrud.todoapp.model;
+
+import org.hibernate.id.IdentifierGeneratorHelper;
+import org.hibernate.id.IntegralDataTypeHolder;
+import org.hibernate.id.enhanced.AccessCallback;
+import org.hibernate.id.enhanced.Optimizer;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pooled-lo id optimizer that hands out ids from blocks reserved in the database without locking.
+ * <p>
+ * Each call to the database structure reserves {@code incrementSize} ids starting at the returned value
+ * (same storage semantics as Hibernate's {@code pooled-lo}, so the two are interchangeable). Threads take
+ * ids from the current block with a single atomic increment; only the thread that finds the block
+ * exhausted takes a lock to reserve the next one. That lock is a {@link ReentrantLock} rather than a
+ * monitor because the reservation does database I/O, which would pin a virtual thread to its carrier.
+ * Instantiated by Hibernate through the {@code optimizer} generator parameter. Multi-tenant id state is
+ * not supported.
+ */
+public class SegmentIdOptimizer implements Optimizer {
+
+    private final Class<?> returnClass;
+    private final int incrementSize;
+
+    private final ReentrantLock reserveLock = new ReentrantLock();
+
+    private volatile Segment current = Segment.EXHAUSTED;
+    private volatile IntegralDataTypeHolder lastSourceValue;
+
+    public SegmentIdOptimizer(Class<?> returnClass, int incrementSize) {
+        if (incrementSize < 1) {
+            throw new IllegalArgumentException("incrementSize must be positive: " + incrementSize);
+        }
+        this.returnClass = returnClass;
+        this.incrementSize = incrementSize;
+    }
+
+    @Override
+    public Serializable generate(AccessCallback callback) {
+        while (true) {
+            Segment segment = current;
+            long id = segment.next.getAndIncrement();
+            if (id < segment.limit) {
+                return toIdentifier(id);
+            }
+            reserveNextSegment(segment, callback);
+        }
+    }
+
+    private void reserveNextSegment(Segment exhausted, AccessCallback callback) {
+        reserveLock.lock();
+        try {
+            if (current != exhausted) {
+                // Another thread already replaced the block while we waited
+                return;
+            }
+            IntegralDataTypeHolder sourceValue = callback.getNextValue();
+            long low = sourceValue.makeValue().longValue();
+            // Ids below 1 are never handed out, mirroring Hibernate's pooled-lo optimizer
+            current = new Segment(Math.max(low, 1L), low + incrementSize);
+            lastSourceValue = sourceValue;
+        } finally {
+            reserveLock.unlock();
+        }
+    }
+
+    private Serializable toIdentifier(long id) {
+        if (returnClass == Long.class) {
+            return id;
+        }
+        if (returnClass == Integer.class) {
+            return Math.toIntExact(id);
+        }
+        return IdentifierGeneratorHelper.getIntegralDataTypeHolder(returnClass).initialize(id).makeValue();
+    }
+
+    @Override
+    public IntegralDataTypeHolder getLastSourceValue() {
+        return lastSourceValue;
+    }
+
+    @Override
+    public int getIncrementSize() {
+        return incrementSize;
+    }
+
+    @Override
+    public boolean applyIncrementSizeToSourceValues() {
+        return true;
+    }
+
+    private static final class Segment {
+
+        static final Segment EXHAUSTED = new Segment(0L, 0L);
+
+        // Next id to hand out; may run past limit under contention, which just means the block is used up
+        final AtomicLong next;
+        final long limit;
+
+        Segment(long first, long limit) {
+            this.next = new AtomicLong(first);
+            this.limit = limit;
+        }
+    }
+}
@@ -1,20 +1,53 @@
 package com.simplecrud.todoapp.model;
 
-import org.hibernate.annotations.CreationTimestamp;
-import org.hibernate.annotations.UpdateTimestamp;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.annotations.Where;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
 import java.util.Date;
 import java.util.Objects;
 
+// Second-level cached (JCache region "task", bounded in application.conf). READ_WRITE keeps the region
+// consistent with committed entity writes; the UPDATEs in TaskUpdateRepositoryImpl evict the tasks they change.
+// Soft-deleted rows (deleted_at set) are left out of every entity load and JPQL query; the indexes lead
+// with (is_completed, deleted_at) so that filter is part of each seek. Delta sync reads all rows, tombstones
+// included, in (updated_at, id) order.
 @Entity
-@Table(name = "task")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Task.CACHE_REGION)
+@Where(clause = "deleted_at IS NULL")
+@Table(name = "task", indexes = {
+        @Index(name = "idx_task_completed_deleted_id", columnList = "is_completed, deleted_at, id"),
+        @Index(name = "idx_task_completed_deleted_due", columnList = "is_completed, deleted_at, due_date"),
+        @Index(name = "idx_task_deleted_at", columnList = "deleted_at"),
+        @Index(name = "idx_task_updated_id", columnList = "updated_at, id")
+})
 public class Task {
 
+    public static final String CACHE_REGION = "task";
+    public static final String QUERY_CACHE_REGION = "task-queries";
+
+    // Ids come from blocks of 100 reserved in task_seq (a sequence, or a one-row table on MySQL), so they
+    // are known before flush and inserts can be JDBC-batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "task_id")
+    @GenericGenerator(name = "task_id", strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator", parameters = {
+            @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "task_seq"),
+            @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "100"),
+            @Parameter(name = SequenceStyleGenerator.OPT_PARAM, value = "com.simplecrud.todoapp.model.SegmentIdOptimizer")
+    })
     private Long id;
 
+    @NotNull
+    @Size(max = 255)
     @Column(nullable = false, length = 255)
     private String description;
 
@@ -24,19 +57,64 @@ public class Task {
     @Column(name = "due_date")
     private Date dueDate;
 
-    @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private Date createdAt;
 
-    @UpdateTimestamp
-    @Column(name = "updated_at")
+    @Column(name = "updated_at", nullable = false)
     private Date updatedAt;
 
+    // Incremented by every update, including the UPDATEs in TaskUpdateRepository; clients only read it
+    @Version
+    @Column(nullable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
+    // Set by TaskRepository.softDeleteById; the row is removed later by TombstonePurger
+    @Column(name = "deleted_at")
+    @JsonIgnore
+    private Date deletedAt;
+
+    // Timestamps are set when the entity is persisted rather than when the INSERT runs, because ids
+    // no longer come from the INSERT and the statement may be deferred to a batched flush
+
+    @PrePersist
+    void onPersist() {
+        Date now = new Date();
+        createdAt = now;
+        updatedAt = now;
+    }
+
+    @PreUpdate
+    void onUpdate() {
+        updatedAt = new Date();
+    }
+
     // Constructors, if necessary
 
     public Task() {
     }
 
+    // Detached copy, e.g. to show a change that has not been written yet without touching a managed entity
+    public Task(Task other) {
+        this.id = other.id;
+        this.description = other.description;
+        this.isCompleted = other.isCompleted;
+        this.dueDate = other.dueDate;
+        this.createdAt = other.createdAt;
+        this.updatedAt = other.updatedAt;
+        this.version = other.version;
+        this.deletedAt = other.deletedAt;
+    }
+
+    // Detached copy as one of the single-row UPDATEs in TaskUpdateRepository leaves the row, before the
+    // caller applies the changed value
+    public Task updatedCopy(Date updatedAt) {
+        Task copy = new Task(this);
+        copy.updatedAt = updatedAt;
+        copy.version = version + 1;
+        return copy;
+    }
+
 
     // Getters and setters
 
@@ -76,13 +154,25 @@ public class Task {
         return createdAt;
     }
 
-    // No setter for createdAt, as it's set automatically by the database
+    // No setter for createdAt, as it's set automatically when the task is persisted
 
     public Date getUpdatedAt() {
         return updatedAt;
     }
 
-    // No setter for updatedAt, as it's set automatically by the database
+    // No setter for updatedAt, as it's set automatically when the task is persisted or updated
+
+    public Long getVersion() {
+        return version;
+    }
+
+    // No setter for version, as it's managed by Hibernate and the update queries
+
+    public Date getDeletedAt() {
+        return deletedAt;
+    }
+
+    // No setter for deletedAt; only the soft-delete query sets it
 
     public Task(String description, Boolean isCompleted, Date dueDate) {
         this.description = description;
@@ -101,6 +191,7 @@ public class Task {
                 ", dueDate=" + dueDate +
                 ", createdAt=" + createdAt +
                 ", updatedAt=" + updatedAt +
+                ", version=" + version +
                 '}';
     }
 
@@ -1,11 +1,124 @@
 package com.simplecrud.todoapp.repository;
 
+import com.simplecrud.todoapp.dto.TaskChangeRow;
+import com.simplecrud.todoapp.dto.TaskDueDate;
+import com.simplecrud.todoapp.dto.TaskSetVersion;
+import com.simplecrud.todoapp.dto.TaskVersion;
+import com.simplecrud.todoapp.dto.TaskView;
 import com.simplecrud.todoapp.model.Task;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface TaskRepository extends JpaRepository<Task, Long> {
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_REGION;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
+public interface TaskRepository extends JpaRepository<Task, Long>, TaskUpdateRepository, TombstoneRepository {
+
+    // Rows fetched per round trip by the streaming queries; MySQL needs useCursorFetch=true to honour it
+    String EXPORT_FETCH_SIZE = "1000";
+
+    // Query cache (region task-queries): results are reused until the next write to the task table, whether
+    // through an entity or a bulk UPDATE. Keyset pages are not cached; their cursors rarely repeat.
+    @QueryHints({
+            @QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = Task.QUERY_CACHE_REGION)
+    })
     List<Task> findByIsCompleted(boolean b);
+
+    long countByIsCompleted(boolean isCompleted);
+
+    // Due dates of uncompleted tasks for OverdueTaskScheduler, read in (dueDate, id) keyset chunks along
+    // idx_task_completed_deleted_due; the second query continues after the last row of the previous chunk
+    @Query("select new com.simplecrud.todoapp.dto.TaskDueDate(t.id, t.dueDate) from Task t "
+            + "where t.isCompleted = false and t.dueDate < :before order by t.dueDate, t.id")
+    List<TaskDueDate> findDueDatesBefore(@Param("before") Date before, Pageable pageable);
+
+    @Query("select new com.simplecrud.todoapp.dto.TaskDueDate(t.id, t.dueDate) from Task t "
+            + "where t.isCompleted = false and t.dueDate < :before "
+            + "and (t.dueDate > :afterDue or (t.dueDate = :afterDue and t.id > :afterId)) order by t.dueDate, t.id")
+    List<TaskDueDate> findDueDatesAfter(@Param("afterDue") Date afterDue, @Param("afterId") Long afterId,
+                                        @Param("before") Date before, Pageable pageable);
+
+    @Query("select t.dueDate from Task t where t.id = :id")
+    Optional<Date> findDueDateById(@Param("id") Long id);
+
+    // List endpoints read TaskView projections rather than entities (select new TaskView(...))
+    @QueryHints({
+            @QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = Task.QUERY_CACHE_REGION)
+    })
+    List<TaskView> findViewsByIsCompleted(boolean isCompleted);
+
+    // Primary-key lookups of the search hits (TaskSearchIndex), returned in no particular order
+    List<TaskView> findViewsByIdIn(Collection<Long> ids);
+
+    // Keyset page: seeks idx_task_completed_deleted_id past afterId instead of using OFFSET
+    List<TaskView> findViewsByIsCompletedAndIdGreaterThanOrderByIdAsc(boolean isCompleted, Long afterId,
+                                                                      Pageable pageable);
+
+    // ETag lookups: a primary-key read of two columns instead of the whole row, and one aggregate row per set
+    @Query("select new com.simplecrud.todoapp.dto.TaskVersion(t.version, t.isCompleted) from Task t where t.id = :id")
+    Optional<TaskVersion> findVersionById(@Param("id") Long id);
+
+    @QueryHints({
+            @QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = Task.QUERY_CACHE_REGION)
+    })
+    @Query("select new com.simplecrud.todoapp.dto.TaskSetVersion(count(t), sum(t.id), sum(t.version), max(t.updatedAt)) "
+            + "from Task t where t.isCompleted = :isCompleted")
+    TaskSetVersion findSetVersionByIsCompleted(@Param("isCompleted") boolean isCompleted);
+
+    // Forward-only cursors for exports; must be consumed inside a transaction and closed
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    Stream<Task> streamAllByOrderByIdAsc();
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    Stream<Task> streamByIsCompletedOrderByIdAsc(boolean isCompleted);
+
+    // Write-behind flush (CompletionWriteBehindBuffer): locks the rows of a batch whose completion state
+    // differs, so exactly those ids are updated (updateCompletionStatusByIdIn) and reported as changed
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select t.id from Task t where t.id in :ids and t.isCompleted <> :isCompleted")
+    List<Long> lockIdsWithCompletionStatusOtherThan(@Param("ids") Collection<Long> ids,
+                                                    @Param("isCompleted") boolean isCompleted);
+
+    // Delete (TaskService.deleteTask): locks a live task and reads the completion state its stats event needs
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select t.isCompleted from Task t where t.id = :id")
+    Optional<Boolean> lockCompletionStatusById(@Param("id") Long id);
+
+    // Tombstone purge (TombstonePurger). Native SQL because the entity's @Where hides deleted rows from JPQL;
+    // the oldest tombstones come first through idx_task_deleted_at. The DELETE is in TombstoneRepositoryImpl.
+    @Query(value = "SELECT id FROM task WHERE deleted_at < :deletedBefore ORDER BY deleted_at LIMIT :limit",
+            nativeQuery = true)
+    List<Long> findTombstoneIds(@Param("deletedBefore") Date deletedBefore, @Param("limit") int limit);
+
+    // Delta sync (TaskSyncService): live and deleted rows changed after the (updatedAt, id) position and no later
+    // than :until, in the order of idx_task_updated_id. Native SQL for the same reason as findTombstoneIds.
+    @Query(value = "SELECT id, description, is_completed AS isCompleted, due_date AS dueDate, "
+            + "created_at AS createdAt, updated_at AS updatedAt, version, deleted_at AS deletedAt FROM task "
+            + "WHERE (updated_at > :afterUpdatedAt OR (updated_at = :afterUpdatedAt AND id > :afterId)) "
+            + "AND updated_at <= :until ORDER BY updated_at, id LIMIT :limit", nativeQuery = true)
+    List<TaskChangeRow> findChangesAfter(@Param("afterUpdatedAt") Date afterUpdatedAt, @Param("afterId") long afterId,
+                                         @Param("until") Date until, @Param("limit") int limit);
 }
@@ -0,0 +1,20 @@
+package com.simplecrud.todoapp.repository;
+
+import java.util.Collection;
+import java.util.Date;
+
+// Single-statement updates; implemented by hand so each one evicts only the tasks it changes from the
+// second-level cache. They only touch a live row whose value actually changes, so 0 means "no such task" or
+// "already set" and 1 means the row was changed.
+public interface TaskUpdateRepository {
+
+    int updateCompletionStatus(Long id, boolean isCompleted, Date updatedAt);
+
+    int updateDescription(Long id, String description, Date updatedAt);
+
+    // Write-behind flush (CompletionWriteBehindBuffer): the ids come from lockIdsWithCompletionStatusOtherThan
+    int updateCompletionStatusByIdIn(Collection<Long> ids, boolean isCompleted, Date updatedAt);
+
+    // Soft delete; updated_at records the deletion as a change
+    int softDeleteById(Long id, Date deletedAt);
+}
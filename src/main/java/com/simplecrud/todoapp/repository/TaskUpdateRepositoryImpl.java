@@ -0,0 +1,106 @@
+package com.simplecrud.todoapp.repository;
+
+import com.simplecrud.todoapp.model.Task;
+import org.hibernate.query.NativeQuery;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+// A JPQL bulk UPDATE invalidates the whole task region and every cached query on the task table. These run as
+// native SQL tied to a query space nothing else uses, so Hibernate invalidates nothing by itself; the changed
+// tasks are evicted from the task region and the task query region is cleared. Both happen right away, so the
+// rest of the transaction reads the new rows, and again once it completes, so that a concurrent read of the
+// rows as they were before the commit does not stay cached.
+class TaskUpdateRepositoryImpl implements TaskUpdateRepository {
+
+    static final String TASK_UPDATE_QUERY_SPACE = "task_update";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public int updateCompletionStatus(Long id, boolean isCompleted, Date updatedAt) {
+        Query update = entityManager.createNativeQuery("UPDATE task SET is_completed = :isCompleted, "
+                        + "updated_at = :updatedAt, version = version + 1 "
+                        + "WHERE id = :id AND is_completed <> :isCompleted AND deleted_at IS NULL")
+                .setParameter("id", id)
+                .setParameter("isCompleted", isCompleted)
+                .setParameter("updatedAt", updatedAt);
+        return execute(update, List.of(id));
+    }
+
+    @Override
+    @Transactional
+    public int updateDescription(Long id, String description, Date updatedAt) {
+        Query update = entityManager.createNativeQuery("UPDATE task SET description = :description, "
+                        + "updated_at = :updatedAt, version = version + 1 "
+                        + "WHERE id = :id AND description <> :description AND deleted_at IS NULL")
+                .setParameter("id", id)
+                .setParameter("description", description)
+                .setParameter("updatedAt", updatedAt);
+        return execute(update, List.of(id));
+    }
+
+    @Override
+    @Transactional
+    public int updateCompletionStatusByIdIn(Collection<Long> ids, boolean isCompleted, Date updatedAt) {
+        Query update = entityManager.createNativeQuery("UPDATE task SET is_completed = :isCompleted, "
+                        + "updated_at = :updatedAt, version = version + 1 "
+                        + "WHERE id IN (:ids) AND deleted_at IS NULL")
+                .setParameter("ids", ids)
+                .setParameter("isCompleted", isCompleted)
+                .setParameter("updatedAt", updatedAt);
+        return execute(update, ids);
+    }
+
+    @Override
+    @Transactional
+    public int softDeleteById(Long id, Date deletedAt) {
+        Query update = entityManager.createNativeQuery("UPDATE task SET deleted_at = :deletedAt, "
+                        + "updated_at = :deletedAt, version = version + 1 "
+                        + "WHERE id = :id AND deleted_at IS NULL")
+                .setParameter("id", id)
+                .setParameter("deletedAt", deletedAt);
+        return execute(update, List.of(id));
+    }
+
+    private int execute(Query update, Collection<Long> ids) {
+        int updated = update.unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(TASK_UPDATE_QUERY_SPACE)
+                .executeUpdate();
+        // Managed copies of the rows are now stale
+        entityManager.clear();
+        if (updated > 0) {
+            EntityManagerFactory entityManagerFactory = entityManager.getEntityManagerFactory();
+            List<Long> changed = List.copyOf(ids);
+            evict(entityManagerFactory, changed);
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        evict(entityManagerFactory, changed);
+                    }
+                });
+            }
+        }
+        return updated;
+    }
+
+    private static void evict(EntityManagerFactory entityManagerFactory, Collection<Long> ids) {
+        Cache cache = entityManagerFactory.getCache();
+        for (Long id : ids) {
+            cache.evict(Task.class, id);
+        }
+        cache.unwrap(org.hibernate.Cache.class).evictQueryRegion(Task.QUERY_CACHE_REGION);
+    }
+}
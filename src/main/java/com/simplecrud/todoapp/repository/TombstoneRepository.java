@@ -0,0 +1,10 @@
+package com.simplecrud.todoapp.repository;
+
+import java.util.Collection;
+
+// Tombstone purge (TombstonePurger); implemented by hand so the DELETE can declare what it touches
+public interface TombstoneRepository {
+
+    // Hard-deletes the given tasks if they are soft-deleted; returns the number of rows removed
+    int deleteTombstonesByIdIn(Collection<Long> ids);
+}
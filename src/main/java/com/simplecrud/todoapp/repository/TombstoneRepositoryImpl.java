@@ -0,0 +1,29 @@
+package com.simplecrud.todoapp.repository;
+
+import org.hibernate.query.NativeQuery;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.Collection;
+
+// A native DELETE without a query space counts as touching every table, so each purge chunk would clear the
+// task region and every cached query. Tombstones are never cached (the entity's @Where hides them), so the
+// DELETE is tied to a query space that no entity or cached query uses.
+class TombstoneRepositoryImpl implements TombstoneRepository {
+
+    static final String TOMBSTONE_QUERY_SPACE = "task_tombstone";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public int deleteTombstonesByIdIn(Collection<Long> ids) {
+        return entityManager.createNativeQuery("DELETE FROM task WHERE id IN (:ids) AND deleted_at IS NOT NULL")
+                .setParameter("ids", ids)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(TOMBSTONE_QUERY_SPACE)
+                .executeUpdate();
+    }
+}
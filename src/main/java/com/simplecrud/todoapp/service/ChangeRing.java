@@ -0,0 +1,68 @@
+package com.simplecrud.todoapp.service;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed-size ring of the most recent values, numbered by a sequence that starts at 1.
+ * <p>
+ * Appends must be serialized by the caller; reads need no lock. Each slot holds its value together with its
+ * sequence, so a reader asking for sequence {@code n} can tell whether the value is there, not published yet,
+ * or already overwritten by {@code n + capacity}. Readers therefore never block the writer, and a reader that
+ * falls more than {@code capacity} values behind finds out on its next read.
+ */
+final class ChangeRing<T> {
+
+    private static final class Slot<T> {
+        final long sequence;
+        final T value;
+
+        Slot(long sequence, T value) {
+            this.sequence = sequence;
+            this.value = value;
+        }
+    }
+
+    private final int mask;
+    private final AtomicReferenceArray<Slot<T>> slots;
+    // Sequence of the last appended value; 0 while empty
+    private volatile long lastSequence;
+
+    ChangeRing(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two of at least 2: " + capacity);
+        }
+        this.mask = capacity - 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    long lastSequence() {
+        return lastSequence;
+    }
+
+    // Oldest sequence still readable; lastSequence() + 1 while empty
+    long oldestSequence() {
+        return Math.max(1, lastSequence - mask);
+    }
+
+    // Not thread-safe: callers append under their own lock
+    long append(T value) {
+        long sequence = lastSequence + 1;
+        slots.set((int) (sequence & mask), new Slot<>(sequence, value));
+        lastSequence = sequence;
+        return sequence;
+    }
+
+    // The value at sequence, or null when it is not published yet or was overwritten; a null for a sequence
+    // up to lastSequence() means the reader fell behind
+    T get(long sequence) {
+        if (sequence > lastSequence) {
+            return null;
+        }
+        Slot<T> slot = slots.get((int) (sequence & mask));
+        return slot != null && slot.sequence == sequence ? slot.value : null;
+    }
+}
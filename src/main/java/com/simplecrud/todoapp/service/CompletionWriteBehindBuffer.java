@@ -0,0 +1,292 @@
+package com.simplecrud.todoapp.service;
+
+import com.simplecrud.todoapp.event.TaskChangedEvent;
+import com.simplecrud.todoapp.exceptions.WriteBehindBufferFullException;
+import com.simplecrud.todoapp.repository.TaskRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind buffer for completion status changes (todoapp.write-behind.enabled).
+ * <p>
+ * {@link TaskService} hands completion changes to {@link #accept} instead of updating the row. Changes are
+ * coalesced by task id, so a task toggled many times between flushes costs one write with the last value,
+ * and are written every {@code flush-interval} (or as soon as {@code batch-size} tasks are pending) with one
+ * {@code UPDATE ... WHERE id IN (...)} per target value. At most {@code capacity} tasks can be pending;
+ * callers wait up to {@code accept-timeout} for room and then get a {@link WriteBehindBufferFullException}.
+ * Entries of a failed flush are put back for the next attempt unless a newer value arrived meanwhile.
+ * The buffer stops after the web server, so the final flush on shutdown sees every accepted change.
+ * <p>
+ * Accepted changes are not durable until flushed: a crash loses at most the pending entries.
+ */
+@Component
+@ConditionalOnProperty(prefix = "todoapp.write-behind", name = "enabled", havingValue = "true")
+public class CompletionWriteBehindBuffer implements SmartLifecycle {
+
+    public static final String PENDING_METRIC_NAME = "todoapp.write-behind.pending";
+
+    private static final Logger log = LoggerFactory.getLogger(CompletionWriteBehindBuffer.class);
+
+    // Stops after the web server (Integer.MAX_VALUE - 1) and its graceful shutdown (Integer.MAX_VALUE - 1024)
+    private static final int PHASE = Integer.MAX_VALUE - 2048;
+
+    private final TaskRepository taskRepository;
+    private final CacheManager cacheManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration flushInterval;
+    private final int batchSize;
+    private final int capacity;
+    private final long acceptTimeoutNanos;
+
+    // Values not yet taken by a flush, and values of the flush in progress; reads check both, newest first
+    private final Map<Long, Boolean> pending = new ConcurrentHashMap<>();
+    private final Map<Long, Boolean> inFlight = new ConcurrentHashMap<>();
+
+    // Guards additions to and removals from pending so capacity is enforced; reads need no lock
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    // Serializes flushes so a newer value is never written before an older one for the same task
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private ScheduledExecutorService flusher;
+    private volatile boolean running;
+    private boolean flushRequested;
+
+    public CompletionWriteBehindBuffer(TaskRepository taskRepository, CacheManager cacheManager,
+                                       PlatformTransactionManager transactionManager,
+                                       ApplicationEventPublisher eventPublisher,
+                                       ObjectProvider<MeterRegistry> meterRegistry,
+                                       @Value("${todoapp.write-behind.flush-interval:PT0.1S}") Duration flushInterval,
+                                       @Value("${todoapp.write-behind.batch-size:500}") int batchSize,
+                                       @Value("${todoapp.write-behind.capacity:10000}") int capacity,
+                                       @Value("${todoapp.write-behind.accept-timeout:PT1S}") Duration acceptTimeout) {
+        if (batchSize < 1 || capacity < 1) {
+            throw new IllegalArgumentException("batch-size and capacity must be positive");
+        }
+        this.taskRepository = taskRepository;
+        this.cacheManager = cacheManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.flushInterval = flushInterval;
+        this.batchSize = batchSize;
+        this.capacity = capacity;
+        this.acceptTimeoutNanos = acceptTimeout.toNanos();
+        meterRegistry.ifAvailable(registry -> Gauge.builder(PENDING_METRIC_NAME, pending, Map::size)
+                .description("Completion changes accepted but not yet written")
+                .register(registry));
+    }
+
+    // Records the change for the next flush, replacing any pending value for the same task
+    public void accept(Long id, boolean isCompleted) {
+        lock.lock();
+        try {
+            long nanos = acceptTimeoutNanos;
+            while (running && !pending.containsKey(id) && pending.size() >= capacity) {
+                if (nanos <= 0) {
+                    throw new WriteBehindBufferFullException("Write-behind buffer is full (" + capacity + " tasks)");
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+            if (!running) {
+                throw new WriteBehindBufferFullException("Write-behind buffer is not running");
+            }
+            pending.put(id, isCompleted);
+            if (pending.size() >= batchSize && !flushRequested) {
+                flushRequested = true;
+                flusher.execute(this::flushQuietly);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WriteBehindBufferFullException("Interrupted while waiting for room in the write-behind buffer");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // The value a read must show for the task, or null when nothing is pending for it
+    public Boolean pendingCompletionStatus(Long id) {
+        Boolean value = pending.get(id);
+        return value != null ? value : inFlight.get(id);
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    // Writes everything pending in batches; a failed batch is requeued and ends this flush
+    public void flush() {
+        flushLock.lock();
+        try {
+            Map<Long, Boolean> batch;
+            while (!(batch = takeBatch()).isEmpty()) {
+                if (!write(batch)) {
+                    return;
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Write-behind flush failed", e);
+        }
+    }
+
+    private Map<Long, Boolean> takeBatch() {
+        Map<Long, Boolean> batch = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            flushRequested = false;
+            Iterator<Map.Entry<Long, Boolean>> entries = pending.entrySet().iterator();
+            while (batch.size() < batchSize && entries.hasNext()) {
+                Map.Entry<Long, Boolean> entry = entries.next();
+                // Published to inFlight before leaving pending so reads never miss the value
+                inFlight.put(entry.getKey(), entry.getValue());
+                batch.put(entry.getKey(), entry.getValue());
+                entries.remove();
+            }
+            if (!batch.isEmpty()) {
+                notFull.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return batch;
+    }
+
+    private boolean write(Map<Long, Boolean> batch) {
+        List<Long> completedIds = new ArrayList<>();
+        List<Long> uncompletedIds = new ArrayList<>();
+        batch.forEach((id, isCompleted) -> (isCompleted ? completedIds : uncompletedIds).add(id));
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Date now = new Date();
+                apply(completedIds, true, now);
+                apply(uncompletedIds, false, now);
+            });
+        } catch (RuntimeException e) {
+            log.warn("Could not write {} pending completion changes, retrying on the next flush", batch.size(), e);
+            requeue(batch);
+            return false;
+        }
+        Cache tasksCache = cacheManager.getCache(TaskService.TASKS_CACHE);
+        batch.forEach((id, isCompleted) -> {
+            inFlight.remove(id, isCompleted);
+            if (tasksCache != null) {
+                // Reloaded with the stored updatedAt; a still pending newer value is applied on load
+                tasksCache.evict(id);
+            }
+        });
+        return true;
+    }
+
+    // Only rows that actually change are updated and reported, so the stats counters stay exact
+    private void apply(List<Long> ids, boolean isCompleted, Date now) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<Long> changedIds = taskRepository.lockIdsWithCompletionStatusOtherThan(ids, isCompleted);
+        if (changedIds.isEmpty()) {
+            return;
+        }
+        taskRepository.updateCompletionStatusByIdIn(changedIds, isCompleted, now);
+        for (Long id : changedIds) {
+            eventPublisher.publishEvent(TaskChangedEvent.completionChanged(id, isCompleted, null));
+        }
+    }
+
+    // Capacity may be exceeded briefly here; dropping accepted changes would be worse
+    private void requeue(Map<Long, Boolean> batch) {
+        lock.lock();
+        try {
+            batch.forEach((id, isCompleted) -> {
+                pending.putIfAbsent(id, isCompleted);
+                inFlight.remove(id, isCompleted);
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void start() {
+        lock.lock();
+        try {
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "task-write-behind");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long intervalNanos = flushInterval.toNanos();
+            flusher.scheduleWithFixedDelay(this::flushQuietly, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+            running = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void stop() {
+        lock.lock();
+        try {
+            running = false;
+            // Callers still waiting for room give up instead of adding after the final flush
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (int attempt = 0; attempt < 3 && !pending.isEmpty(); attempt++) {
+            flush();
+        }
+        if (!pending.isEmpty()) {
+            log.error("{} completion changes could not be written before shutdown", pending.size());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+}
@@ -0,0 +1,318 @@
+package com.simplecrud.todoapp.service;
+
+import com.simplecrud.todoapp.dto.TaskDueDate;
+import com.simplecrud.todoapp.event.TaskChangedEvent;
+import com.simplecrud.todoapp.event.TaskOverdueEvent;
+import com.simplecrud.todoapp.model.Task;
+import com.simplecrud.todoapp.repository.TaskRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Tracks which uncompleted tasks are past their due date, for GET /tasks/overdue and the overdue count in
+ * /tasks/stats, and publishes a {@link TaskOverdueEvent} when a task becomes overdue.
+ * <p>
+ * Tasks due within {@code todoapp.overdue.horizon} sit in a {@link TimingWheel} that advances every
+ * {@code tick}; an expiring entry moves to the overdue set, which is kept in due-date order. Every
+ * {@code load-interval} the next stretch of due dates is read with a keyset range query on
+ * idx_task_completed_deleted_due, so the wheel never holds more than one horizon of future tasks.
+ * {@link TaskChangedEvent}s keep both structures current between loads. Tasks already overdue at startup are
+ * all loaded into the overdue set, in chunks and without events, so that set grows with the overdue backlog.
+ * Like {@link TaskStatsService}, changes made outside the service are not seen; such tasks are corrected at
+ * the next restart.
+ */
+@Service
+public class OverdueTaskScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(OverdueTaskScheduler.class);
+
+    // 64 slots per level and 4 levels: 64^4 ticks ahead, about 194 days at the default 1s tick
+    private static final int SLOT_BITS = 6;
+    private static final int LEVELS = 4;
+
+    private final TaskRepository taskRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long horizonMillis;
+    private final int loadChunk;
+
+    // Oldest due date first; the id breaks ties
+    private static final Comparator<TaskDueDate> OVERDUE_ORDER =
+            Comparator.comparing(TaskDueDate::getDueDate).thenComparing(TaskDueDate::getId);
+
+    // Guards the wheel, the overdue set, loadedUntil and loadConflicts; every operation under it is O(1), or
+    // O(log n) in the overdue set
+    private final ReentrantLock lock = new ReentrantLock();
+    private final TimingWheel wheel;
+    // Overdue tasks in due-date order, whenever and however they became overdue, and the same entries by id
+    private final TreeSet<TaskDueDate> overdue = new TreeSet<>(OVERDUE_ORDER);
+    private final Map<Long, TaskDueDate> overdueById = new HashMap<>();
+    // Tasks due before this are in the wheel or the overdue set; later ones are left to the next load
+    private long loadedUntil = Long.MIN_VALUE;
+    // Ids changed by events while a load runs; the load may have read them before the change, so it skips them
+    private Set<Long> loadConflicts;
+
+    // Serializes loads, which run outside the main lock
+    private final ReentrantLock loadLock = new ReentrantLock();
+
+    public OverdueTaskScheduler(TaskRepository taskRepository, ApplicationEventPublisher eventPublisher,
+                                @Value("${todoapp.overdue.tick:PT1S}") Duration tick,
+                                @Value("${todoapp.overdue.horizon:PT10M}") Duration horizon,
+                                @Value("${todoapp.overdue.load-interval:PT1M}") Duration loadInterval,
+                                @Value("${todoapp.overdue.load-chunk:1000}") int loadChunk) {
+        this.taskRepository = taskRepository;
+        this.eventPublisher = eventPublisher;
+        this.horizonMillis = horizon.toMillis();
+        this.loadChunk = loadChunk;
+        this.wheel = new TimingWheel(tick.toMillis(), SLOT_BITS, LEVELS, System.currentTimeMillis());
+        if (loadChunk < 1) {
+            throw new IllegalArgumentException("load-chunk must be positive: " + loadChunk);
+        }
+        if (loadInterval.compareTo(horizon) >= 0 || horizonMillis >= wheel.spanMillis()) {
+            throw new IllegalArgumentException("horizon must exceed load-interval and stay within "
+                    + Duration.ofMillis(wheel.spanMillis()));
+        }
+    }
+
+    // Oldest overdue first, at most limit tasks
+    public List<TaskDueDate> findOverdue(int limit) {
+        lock.lock();
+        try {
+            List<TaskDueDate> tasks = new ArrayList<>(Math.min(limit, overdue.size()));
+            for (TaskDueDate task : overdue) {
+                if (tasks.size() == limit) {
+                    break;
+                }
+                tasks.add(task);
+            }
+            return tasks;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long overdueCount() {
+        lock.lock();
+        try {
+            return overdue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        Long id = event.getTaskId();
+        switch (event.getType()) {
+            case CREATED:
+                if (!Boolean.TRUE.equals(event.getCompleted())) {
+                    track(id, event.getTask().getDueDate());
+                }
+                break;
+            case UPDATED:
+                if (!event.isCompletionChanged()) {
+                    break;
+                }
+                if (Boolean.TRUE.equals(event.getCompleted())) {
+                    untrack(id);
+                } else {
+                    // Reopened: the minimal update paths do not load the task, so its due date is looked up
+                    Task task = event.getTask();
+                    Date dueDate = task != null ? task.getDueDate() : taskRepository.findDueDateById(id).orElse(null);
+                    track(id, dueDate);
+                }
+                break;
+            case DELETED:
+                untrack(id);
+                break;
+        }
+    }
+
+    // Reads from the primary, as the other startup loads do, so tasks created just before are not missed
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void initialize() {
+        initialize(System.currentTimeMillis());
+    }
+
+    void initialize(long now) {
+        load(null, now);
+    }
+
+    @Scheduled(fixedDelayString = "${todoapp.overdue.load-interval:PT1M}",
+            initialDelayString = "${todoapp.overdue.load-interval:PT1M}")
+    @Transactional
+    public void loadAhead() {
+        loadAhead(System.currentTimeMillis());
+    }
+
+    void loadAhead(long now) {
+        lock.lock();
+        long from;
+        try {
+            from = loadedUntil;
+        } finally {
+            lock.unlock();
+        }
+        // Not initialized yet; the startup load covers everything up to the horizon
+        if (from != Long.MIN_VALUE) {
+            load(new Date(from), now);
+        }
+    }
+
+    @Scheduled(fixedRateString = "${todoapp.overdue.tick:PT1S}")
+    public void advance() {
+        advance(System.currentTimeMillis());
+    }
+
+    void advance(long now) {
+        List<TaskOverdueEvent> fired = new ArrayList<>();
+        lock.lock();
+        try {
+            wheel.advanceTo(now, (id, dueMillis) -> fired.add(markOverdue(id, dueMillis)));
+        } finally {
+            lock.unlock();
+        }
+        publish(fired);
+    }
+
+    // Loads tasks due in [from, now + horizon), or everything due before now + horizon when from is null.
+    // loadedUntil moves first, so events for tasks in the range arriving during the load are applied directly.
+    private void load(Date from, long now) {
+        loadLock.lock();
+        try {
+            Date until = new Date(now + horizonMillis);
+            lock.lock();
+            try {
+                if (until.getTime() <= loadedUntil) {
+                    return;
+                }
+                loadedUntil = until.getTime();
+                loadConflicts = new HashSet<>();
+            } finally {
+                lock.unlock();
+            }
+            int loaded = 0;
+            try {
+                PageRequest chunk = PageRequest.of(0, loadChunk);
+                List<TaskDueDate> tasks = from == null
+                        ? taskRepository.findDueDatesBefore(until, chunk)
+                        : taskRepository.findDueDatesAfter(from, Long.MIN_VALUE, until, chunk);
+                while (true) {
+                    addLoaded(tasks);
+                    loaded += tasks.size();
+                    if (tasks.size() < loadChunk) {
+                        break;
+                    }
+                    TaskDueDate last = tasks.get(tasks.size() - 1);
+                    tasks = taskRepository.findDueDatesAfter(last.getDueDate(), last.getId(), until, chunk);
+                }
+            } finally {
+                lock.lock();
+                try {
+                    loadConflicts = null;
+                } finally {
+                    lock.unlock();
+                }
+            }
+            log.debug("Loaded {} task due dates up to {}", loaded, until);
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    // Tasks that were overdue before the wheel started raise no event; they may have fired before a restart
+    private void addLoaded(List<TaskDueDate> tasks) {
+        lock.lock();
+        try {
+            for (TaskDueDate task : tasks) {
+                if (!loadConflicts.contains(task.getId())
+                        && !wheel.schedule(task.getId(), task.getDueDate().getTime())) {
+                    putOverdue(task.getId(), task.getDueDate().getTime());
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void track(Long id, Date dueDate) {
+        TaskOverdueEvent fired = null;
+        lock.lock();
+        try {
+            removeTracked(id);
+            if (dueDate != null && dueDate.getTime() < loadedUntil) {
+                if (!wheel.schedule(id, dueDate.getTime())) {
+                    fired = markOverdue(id, dueDate.getTime());
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (fired != null) {
+            publish(List.of(fired));
+        }
+    }
+
+    private void untrack(Long id) {
+        lock.lock();
+        try {
+            removeTracked(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void removeTracked(Long id) {
+        wheel.cancel(id);
+        TaskDueDate removed = overdueById.remove(id);
+        if (removed != null) {
+            overdue.remove(removed);
+        }
+        if (loadConflicts != null) {
+            loadConflicts.add(id);
+        }
+    }
+
+    private TaskOverdueEvent markOverdue(long id, long dueMillis) {
+        return new TaskOverdueEvent(id, putOverdue(id, dueMillis).getDueDate());
+    }
+
+    private TaskDueDate putOverdue(long id, long dueMillis) {
+        TaskDueDate task = new TaskDueDate(id, new Date(dueMillis));
+        TaskDueDate previous = overdueById.put(id, task);
+        if (previous != null) {
+            overdue.remove(previous);
+        }
+        overdue.add(task);
+        return task;
+    }
+
+    // Outside the lock: listeners may take their time or call back into this service
+    private void publish(List<TaskOverdueEvent> events) {
+        for (TaskOverdueEvent event : events) {
+            log.debug("Task {} is overdue (due {})", event.getTaskId(), event.getDueDate());
+            eventPublisher.publishEvent(event);
+        }
+    }
+}
@@ -0,0 +1,380 @@
+package com.simplecrud.todoapp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.simplecrud.todoapp.dto.TaskChange;
+import com.simplecrud.todoapp.event.TaskChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fans committed task changes out to the server-sent event subscribers of GET /tasks/stream.
+ * <p>
+ * Every {@link TaskChangedEvent} is serialized to JSON once and appended to a shared {@link ChangeRing} of
+ * the last {@code capacity} changes. Subscribers only keep their position in the ring; when a change arrives,
+ * each idle subscriber is queued once on a small pool of {@code dispatch-threads}, which writes it every event
+ * it has not seen yet. Event ids carry the ring sequence and the startup time, so a client
+ * reconnecting with {@code Last-Event-ID} is replayed what it missed while that is still in the ring.
+ * <p>
+ * A client whose id is no longer in the ring, or from before a restart, first gets a {@value #RESYNC_EVENT}
+ * event: it must reload its lists, and the stream continues from there. A subscriber that falls a whole ring
+ * behind (a slow reader, or a writer blocked on its socket) gets the same event and is disconnected; the id of
+ * that event lets it resume from the current position once it has reloaded. Every {@code heartbeat} idle
+ * streams get a comment line, which keeps proxies from closing them and detects clients that went away.
+ * <p>
+ * Writes block while a client's TCP window is full. A write still blocked after {@code write-timeout} is
+ * abandoned: its subscriber is dropped and the pool gets a thread in place of the one it holds, so a few stalled
+ * clients cannot stop delivery to everyone else. The stream is closed once the write returns, and the client
+ * resumes with {@code Last-Event-ID} like after any other disconnect.
+ */
+@Service
+public class TaskChangeFeed {
+
+    public static final String RESYNC_EVENT = "resync";
+    public static final String SUBSCRIBERS_METRIC_NAME = "todoapp.stream.subscribers";
+    public static final String RESYNCS_METRIC_NAME = "todoapp.stream.resyncs";
+    public static final String STALLED_METRIC_NAME = "todoapp.stream.stalled";
+
+    private static final Logger log = LoggerFactory.getLogger(TaskChangeFeed.class);
+
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final int maxSubscribers;
+    private final Executor dispatcher;
+    private final long writeTimeoutNanos;
+    // Event ids are "<startup millis>-<sequence>", so ids from an earlier run are not mistaken for current ones
+    private final String idPrefix = System.currentTimeMillis() + "-";
+
+    // Serializes appends; readers go straight to the ring
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ChangeRing<FeedEvent> ring;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public TaskChangeFeed(ObjectMapper objectMapper, ObjectProvider<MeterRegistry> meterRegistry,
+                          @Value("${todoapp.stream.capacity:4096}") int capacity,
+                          @Value("${todoapp.stream.dispatch-threads:8}") int dispatchThreads,
+                          @Value("${todoapp.stream.max-subscribers:10000}") int maxSubscribers,
+                          @Value("${todoapp.stream.write-timeout:PT5S}") Duration writeTimeout) {
+        this(objectMapper, meterRegistry, capacity, maxSubscribers, dispatchPool(dispatchThreads), writeTimeout);
+    }
+
+    TaskChangeFeed(ObjectMapper objectMapper, ObjectProvider<MeterRegistry> meterRegistry, int capacity,
+                   int maxSubscribers, Executor dispatcher, Duration writeTimeout) {
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.maxSubscribers = maxSubscribers;
+        this.dispatcher = dispatcher;
+        this.writeTimeoutNanos = writeTimeout.toNanos();
+        this.ring = new ChangeRing<>(capacity);
+        meterRegistry.ifAvailable(registry -> Gauge.builder(SUBSCRIBERS_METRIC_NAME, subscribers, Set::size)
+                .description("Open GET /tasks/stream connections")
+                .register(registry));
+    }
+
+    // Each subscriber is queued at most once at a time, so the queue never holds more than the subscribers
+    static ThreadPoolExecutor dispatchPool(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("dispatch-threads must be positive: " + threads);
+        }
+        AtomicInteger count = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "task-stream-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    // Null when max-subscribers streams are already open. With a Last-Event-ID the stream resumes after that
+    // event; completed, when given, keeps only changes to tasks in that state or leaving it.
+    public SseEmitter subscribe(Boolean completed, String lastEventId) {
+        return subscribe(completed, lastEventId, new SseEmitter());
+    }
+
+    SseEmitter subscribe(Boolean completed, String lastEventId, SseEmitter emitter) {
+        if (subscribers.size() >= maxSubscribers) {
+            return null;
+        }
+        Subscriber subscriber = new Subscriber(emitter, completed);
+        long last = ring.lastSequence();
+        subscriber.next = last + 1;
+        if (lastEventId != null) {
+            long resumeAfter = parseSequence(lastEventId);
+            if (resumeAfter >= ring.oldestSequence() - 1 && resumeAfter <= last) {
+                subscriber.next = resumeAfter + 1;
+            } else {
+                subscriber.resyncPending = true;
+            }
+        }
+        emitter.onCompletion(subscriber::remove);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.remove());
+        subscribers.add(subscriber);
+        subscriber.schedule();
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        TaskChange change = TaskChange.of(event);
+        String data;
+        try {
+            data = objectMapper.writeValueAsString(change);
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize {} for the change stream", event, e);
+            return;
+        }
+        appendLock.lock();
+        try {
+            long sequence = ring.lastSequence() + 1;
+            ring.append(new FeedEvent(sequence, change.getType(), data, event.getCompleted(),
+                    event.isCompletionChanged()));
+        } finally {
+            appendLock.unlock();
+        }
+        for (Subscriber subscriber : subscribers) {
+            subscriber.schedule();
+        }
+    }
+
+    @Scheduled(fixedRateString = "${todoapp.stream.heartbeat:PT15S}",
+            initialDelayString = "${todoapp.stream.heartbeat:PT15S}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.heartbeatDue = true;
+            subscriber.schedule();
+        }
+    }
+
+    @Scheduled(fixedRateString = "${todoapp.stream.write-timeout:PT5S}",
+            initialDelayString = "${todoapp.stream.write-timeout:PT5S}")
+    public void dropStalledSubscribers() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.abandonIfStalled(now);
+        }
+    }
+
+    // An abandoned write keeps its thread until it returns; the pool gets one more thread until then
+    private void resizeDispatchPool(int delta) {
+        if (!(dispatcher instanceof ThreadPoolExecutor)) {
+            return;
+        }
+        ThreadPoolExecutor pool = (ThreadPoolExecutor) dispatcher;
+        synchronized (pool) {
+            // The core size may never exceed the maximum, so the maximum grows first and shrinks last
+            if (delta > 0) {
+                pool.setMaximumPoolSize(pool.getMaximumPoolSize() + delta);
+                pool.setCorePoolSize(pool.getCorePoolSize() + delta);
+            } else {
+                pool.setCorePoolSize(pool.getCorePoolSize() + delta);
+                pool.setMaximumPoolSize(pool.getMaximumPoolSize() + delta);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.close();
+        }
+        if (dispatcher instanceof ExecutorService) {
+            ((ExecutorService) dispatcher).shutdownNow();
+        }
+    }
+
+    // -1 for ids this run did not issue
+    private long parseSequence(String eventId) {
+        if (!eventId.startsWith(idPrefix)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(idPrefix.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void countResync(String reason) {
+        meterRegistry.ifAvailable(registry -> registry.counter(RESYNCS_METRIC_NAME, "reason", reason).increment());
+    }
+
+    private static final class FeedEvent {
+        final long sequence;
+        final String type;
+        // The change already serialized; only the SSE framing is built per subscriber
+        final String data;
+        final Boolean completed;
+        final boolean completionChanged;
+
+        FeedEvent(long sequence, String type, String data, Boolean completed, boolean completionChanged) {
+            this.sequence = sequence;
+            this.type = type;
+            this.data = data;
+            this.completed = completed;
+            this.completionChanged = completionChanged;
+        }
+
+        // Changes of unknown state and moves between the two lists concern both filters
+        boolean matches(Boolean filter) {
+            return filter == null || completed == null || completionChanged || completed.equals(filter);
+        }
+    }
+
+    private final class Subscriber implements Runnable {
+
+        private static final int IDLE = 0;
+        private static final int WRITING = 1;
+        private static final int ABANDONED = 2;
+
+        private final SseEmitter emitter;
+        private final Boolean completed;
+        // Set while the subscriber is queued or draining, so it is never drained by two threads at once
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean closed;
+        private volatile boolean heartbeatDue;
+        // IDLE -> WRITING -> IDLE around every send; WRITING -> ABANDONED, for good, when a send stalls
+        private final AtomicInteger writeState = new AtomicInteger(IDLE);
+        private volatile long writeStarted;
+        // Only touched before the first schedule and by the draining thread
+        private long next;
+        private boolean resyncPending;
+
+        Subscriber(SseEmitter emitter, Boolean completed) {
+            this.emitter = emitter;
+            this.completed = completed;
+        }
+
+        void schedule() {
+            if (!closed && scheduled.compareAndSet(false, true)) {
+                try {
+                    dispatcher.execute(this);
+                } catch (RejectedExecutionException e) {
+                    // Shutting down
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                drain();
+            } catch (IOException | IllegalStateException e) {
+                // The client went away, or the emitter already completed or timed out
+                remove();
+            } finally {
+                scheduled.set(false);
+            }
+            if (writeState.get() == ABANDONED) {
+                // The stalled write returned (or failed); have the client reconnect
+                emitter.complete();
+                return;
+            }
+            // A change appended after the last check found this subscriber still scheduled and moved on
+            if (!closed && (ring.lastSequence() >= next || heartbeatDue)) {
+                schedule();
+            }
+        }
+
+        private void drain() throws IOException {
+            boolean sent = false;
+            if (resyncPending) {
+                resyncPending = false;
+                countResync("stale");
+                send(resync(next - 1));
+                sent = true;
+            }
+            while (!closed && next <= ring.lastSequence()) {
+                FeedEvent event = ring.get(next);
+                if (event == null) {
+                    // Overwritten before this subscriber got to it
+                    countResync("lagging");
+                    send(resync(ring.lastSequence()));
+                    close();
+                    return;
+                }
+                next++;
+                if (event.matches(completed)) {
+                    send(SseEmitter.event().id(idPrefix + event.sequence).name(event.type).data(event.data));
+                    sent = true;
+                }
+            }
+            if (heartbeatDue) {
+                heartbeatDue = false;
+                if (!sent) {
+                    send(SseEmitter.event().comment(""));
+                }
+            }
+        }
+
+        private void send(SseEmitter.SseEventBuilder event) throws IOException {
+            writeStarted = System.nanoTime();
+            if (!writeState.compareAndSet(IDLE, WRITING)) {
+                // Abandoned; run() closes the stream
+                return;
+            }
+            try {
+                emitter.send(event);
+            } finally {
+                if (!writeState.compareAndSet(WRITING, IDLE)) {
+                    resizeDispatchPool(-1);
+                }
+            }
+        }
+
+        // Runs on the scheduler while the write may still be blocked. The emitter is left alone: send() holds
+        // its lock until the write returns, and run() completes it then.
+        void abandonIfStalled(long now) {
+            if (writeState.get() == WRITING && now - writeStarted > writeTimeoutNanos
+                    && writeState.compareAndSet(WRITING, ABANDONED)) {
+                remove();
+                resizeDispatchPool(1);
+                meterRegistry.ifAvailable(registry -> registry.counter(STALLED_METRIC_NAME).increment());
+            }
+        }
+
+        private SseEmitter.SseEventBuilder resync(long sequence) {
+            return SseEmitter.event().id(idPrefix + sequence).name(RESYNC_EVENT).data("{}");
+        }
+
+        void close() {
+            remove();
+            emitter.complete();
+        }
+
+        void remove() {
+            closed = true;
+            subscribers.remove(this);
+        }
+    }
+}
@@ -0,0 +1,433 @@
+package com.simplecrud.todoapp.service;
+
+import com.simplecrud.todoapp.event.TaskChangedEvent;
+import com.simplecrud.todoapp.model.Task;
+import com.simplecrud.todoapp.repository.TaskRepository;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory inverted index over task descriptions, for GET /tasks/search.
+ * <p>
+ * Descriptions are lower-cased and split into runs of letters and digits; each ideographic character (Chinese,
+ * Japanese) is a token of its own. Every token maps to a compressed bitmap of the ids containing it, and the
+ * tokens are kept sorted so a {@code prefix*} term is the union of a contiguous token range. A query matches
+ * the tasks containing all its terms, ranked by BM25 (every token counts once per task); a prefix term scores
+ * half for tasks that only match it by prefix.
+ * <p>
+ * The index is built at startup by streaming the table and then follows {@link TaskChangedEvent}s. Like
+ * {@link TaskStatsService}, it does not see writes made outside the service. {@link #memoryUsage()} estimates
+ * its footprint, reported per million tasks by {@code /actuator/searchindex}.
+ */
+@Service
+public class TaskSearchIndex {
+
+    public static final int MAX_QUERY_TERMS = 10;
+    public static final int MIN_PREFIX_LENGTH = 2;
+
+    private static final Logger log = LoggerFactory.getLogger(TaskSearchIndex.class);
+
+    // BM25 parameters
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double PREFIX_ONLY_WEIGHT = 0.5;
+
+    // Rough per-object sizes for memoryUsage(), assuming compressed oops: a term's map entry, String and
+    // bitmap headers besides the bitmap data, and a task's HashMap node, boxed id and array header
+    private static final long TERM_OVERHEAD_BYTES = 160;
+    private static final long TASK_OVERHEAD_BYTES = 64;
+
+    private static final class Term {
+        final String token;
+        // No cached cardinalities: the cache is filled lazily by reads, which run concurrently under the read lock
+        final Roaring64NavigableMap ids = new Roaring64NavigableMap(false, false);
+
+        Term(String token) {
+            this.token = token;
+        }
+    }
+
+    private final TaskRepository taskRepository;
+    private final EntityManager entityManager;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Term> terms = new TreeMap<>();
+    // The distinct terms of each task, so an update or delete can remove the id from exactly those bitmaps
+    private final Map<Long, Term[]> taskTerms = new HashMap<>();
+    private long totalLength;
+    // Ids changed by events while the startup build runs; the build may have read them before the change
+    private Set<Long> buildConflicts;
+
+    public TaskSearchIndex(TaskRepository taskRepository, EntityManager entityManager) {
+        this.taskRepository = taskRepository;
+        this.entityManager = entityManager;
+    }
+
+    // Ids of the best matching tasks, best first. Throws IllegalArgumentException for an empty or oversized
+    // query or a prefix shorter than MIN_PREFIX_LENGTH.
+    public List<Long> search(String query, int limit) {
+        List<QueryTerm> queryTerms = parse(query);
+        lock.readLock().lock();
+        try {
+            Roaring64NavigableMap candidates = null;
+            List<Roaring64NavigableMap> matches = new ArrayList<>(queryTerms.size());
+            for (QueryTerm queryTerm : queryTerms) {
+                Roaring64NavigableMap match = lookup(queryTerm);
+                matches.add(match);
+                if (candidates == null) {
+                    candidates = new Roaring64NavigableMap();
+                    candidates.or(match);
+                } else {
+                    candidates.and(match);
+                }
+                if (candidates.isEmpty()) {
+                    return List.of();
+                }
+            }
+            return rank(queryTerms, matches, candidates, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static final class QueryTerm {
+        final String token;
+        final boolean prefix;
+
+        QueryTerm(String token, boolean prefix) {
+            this.token = token;
+            this.prefix = prefix;
+        }
+    }
+
+    private static List<QueryTerm> parse(String query) {
+        List<QueryTerm> queryTerms = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (String word : query.trim().split("\\s+")) {
+            boolean prefix = word.endsWith("*");
+            List<String> tokens = tokenize(word);
+            for (int i = 0; i < tokens.size(); i++) {
+                // Only the last token of a word ending in * is a prefix: "e-mai*" is "e" and "mai*"
+                boolean isPrefix = prefix && i == tokens.size() - 1;
+                if (isPrefix && tokens.get(i).length() < MIN_PREFIX_LENGTH) {
+                    throw new IllegalArgumentException("Prefix shorter than " + MIN_PREFIX_LENGTH + ": " + word);
+                }
+                if (seen.add(tokens.get(i) + (isPrefix ? "*" : ""))) {
+                    queryTerms.add(new QueryTerm(tokens.get(i), isPrefix));
+                }
+            }
+        }
+        if (queryTerms.isEmpty() || queryTerms.size() > MAX_QUERY_TERMS) {
+            throw new IllegalArgumentException("Query must have 1 to " + MAX_QUERY_TERMS + " terms");
+        }
+        return queryTerms;
+    }
+
+    // The ids matching one query term; a prefix term unions every token in its range
+    private Roaring64NavigableMap lookup(QueryTerm queryTerm) {
+        if (!queryTerm.prefix) {
+            Term term = terms.get(queryTerm.token);
+            return term == null ? new Roaring64NavigableMap() : term.ids;
+        }
+        Roaring64NavigableMap union = new Roaring64NavigableMap();
+        for (Term term : prefixRange(queryTerm.token).values()) {
+            union.or(term.ids);
+        }
+        return union;
+    }
+
+    private NavigableMap<String, Term> prefixRange(String prefix) {
+        return terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    // Scores every candidate and keeps the best limit in a min-heap; ties go to the lower id
+    private List<Long> rank(List<QueryTerm> queryTerms, List<Roaring64NavigableMap> matches,
+                            Roaring64NavigableMap candidates, int limit) {
+        long taskCount = taskTerms.size();
+        double averageLength = taskCount == 0 ? 1.0 : (double) totalLength / taskCount;
+        double[] idf = new double[queryTerms.size()];
+        Roaring64NavigableMap[] exact = new Roaring64NavigableMap[queryTerms.size()];
+        for (int i = 0; i < idf.length; i++) {
+            long documentFrequency = matches.get(i).getLongCardinality();
+            idf[i] = Math.log(1 + (taskCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+            if (queryTerms.get(i).prefix) {
+                Term term = terms.get(queryTerms.get(i).token);
+                exact[i] = term == null ? new Roaring64NavigableMap() : term.ids;
+            }
+        }
+        Comparator<ScoredId> worstFirst = Comparator.comparingDouble((ScoredId hit) -> hit.score)
+                .thenComparing(hit -> -hit.id);
+        PriorityQueue<ScoredId> best = new PriorityQueue<>(limit + 1, worstFirst);
+        candidates.forEach(id -> {
+            Term[] idTerms = taskTerms.get(id);
+            int length = idTerms == null ? 1 : idTerms.length;
+            double lengthWeight = (K1 + 1) / (1 + K1 * (1 - B + B * length / averageLength));
+            double score = 0;
+            for (int i = 0; i < idf.length; i++) {
+                double weight = exact[i] == null || exact[i].contains(id) ? 1.0 : PREFIX_ONLY_WEIGHT;
+                score += idf[i] * weight * lengthWeight;
+            }
+            best.offer(new ScoredId(id, score));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        });
+        List<Long> ids = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            ids.add(best.poll().id);
+        }
+        Collections.reverse(ids);
+        return ids;
+    }
+
+    private static final class ScoredId {
+        final long id;
+        final double score;
+
+        ScoredId(long id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        Long id = event.getTaskId();
+        switch (event.getType()) {
+            case CREATED:
+                index(id, event.getTask().getDescription());
+                break;
+            case UPDATED:
+                if (event.isCompletionChanged()) {
+                    break;
+                }
+                // The minimal update path does not load the task; the lookup is usually a second-level cache hit
+                Task task = event.getTask() != null ? event.getTask() : taskRepository.findById(id).orElse(null);
+                if (task == null) {
+                    remove(id);
+                } else {
+                    index(id, task.getDescription());
+                }
+                break;
+            case DELETED:
+                remove(id);
+                break;
+        }
+    }
+
+    // Streams the table from the primary once; detaching each task keeps the persistence context empty
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void initialize() {
+        lock.writeLock().lock();
+        try {
+            buildConflicts = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try (Stream<Task> tasks = taskRepository.streamAllByOrderByIdAsc()) {
+            tasks.forEach(task -> {
+                addLoaded(task.getId(), task.getDescription());
+                entityManager.detach(task);
+            });
+        } finally {
+            lock.writeLock().lock();
+            try {
+                buildConflicts = null;
+                // Ids are allocated in blocks, so common terms compress well as runs
+                terms.values().forEach(term -> term.ids.runOptimize());
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        MemoryUsage usage = memoryUsage();
+        log.info("Indexed {} task descriptions: {} terms, about {} bytes", usage.getTasks(), usage.getTerms(),
+                usage.getTotalBytes());
+    }
+
+    private void addLoaded(Long id, String description) {
+        lock.writeLock().lock();
+        try {
+            if (!buildConflicts.contains(id)) {
+                indexLocked(id, description);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void index(Long id, String description) {
+        lock.writeLock().lock();
+        try {
+            if (buildConflicts != null) {
+                buildConflicts.add(id);
+            }
+            indexLocked(id, description);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            if (buildConflicts != null) {
+                buildConflicts.add(id);
+            }
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void indexLocked(Long id, String description) {
+        removeLocked(id);
+        if (description == null) {
+            return;
+        }
+        List<String> tokens = new ArrayList<>(new LinkedHashSet<>(tokenize(description)));
+        if (tokens.isEmpty()) {
+            return;
+        }
+        Term[] idTerms = new Term[tokens.size()];
+        for (int i = 0; i < idTerms.length; i++) {
+            idTerms[i] = terms.computeIfAbsent(tokens.get(i), Term::new);
+            idTerms[i].ids.addLong(id);
+        }
+        taskTerms.put(id, idTerms);
+        totalLength += idTerms.length;
+    }
+
+    private void removeLocked(Long id) {
+        Term[] idTerms = taskTerms.remove(id);
+        if (idTerms == null) {
+            return;
+        }
+        totalLength -= idTerms.length;
+        for (Term term : idTerms) {
+            term.ids.removeLong(id);
+            if (term.ids.isEmpty()) {
+                terms.remove(term.token);
+            }
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i < lower.length(); ) {
+            int codePoint = lower.codePointAt(i);
+            int next = i + Character.charCount(codePoint);
+            if (Character.isIdeographic(codePoint)) {
+                if (start >= 0) {
+                    tokens.add(lower.substring(start, i));
+                    start = -1;
+                }
+                tokens.add(lower.substring(i, next));
+            } else if (Character.isLetterOrDigit(codePoint)) {
+                if (start < 0) {
+                    start = i;
+                }
+            } else if (start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+            i = next;
+        }
+        if (start >= 0) {
+            tokens.add(lower.substring(start));
+        }
+        return tokens;
+    }
+
+    public MemoryUsage memoryUsage() {
+        lock.readLock().lock();
+        try {
+            long postingBytes = 0;
+            long termBytes = 0;
+            for (Term term : terms.values()) {
+                postingBytes += term.ids.getLongSizeInBytes();
+                termBytes += TERM_OVERHEAD_BYTES + term.token.length();
+            }
+            // One 4-byte (compressed) reference per term of each task
+            long taskBytes = taskTerms.size() * TASK_OVERHEAD_BYTES + totalLength * 4;
+            return new MemoryUsage(taskTerms.size(), terms.size(), postingBytes, termBytes, taskBytes);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Estimated heap use; the bitmap sizes are exact, the object overheads are typical 64-bit JVM figures
+    public static final class MemoryUsage {
+
+        private final long tasks;
+        private final long terms;
+        private final long postingBytes;
+        private final long termBytes;
+        private final long taskBytes;
+
+        MemoryUsage(long tasks, long terms, long postingBytes, long termBytes, long taskBytes) {
+            this.tasks = tasks;
+            this.terms = terms;
+            this.postingBytes = postingBytes;
+            this.termBytes = termBytes;
+            this.taskBytes = taskBytes;
+        }
+
+        public long getTasks() {
+            return tasks;
+        }
+
+        public long getTerms() {
+            return terms;
+        }
+
+        // Compressed id bitmaps
+        public long getPostingBytes() {
+            return postingBytes;
+        }
+
+        // Token strings and their map entries
+        public long getTermBytes() {
+            return termBytes;
+        }
+
+        // Per-task term lists, needed to apply updates and deletes
+        public long getTaskBytes() {
+            return taskBytes;
+        }
+
+        public long getTotalBytes() {
+            return postingBytes + termBytes + taskBytes;
+        }
+
+        // 0 while the index is empty
+        public long getBytesPerMillionTasks() {
+            return tasks == 0 ? 0 : getTotalBytes() * 1_000_000 / tasks;
+        }
+    }
+}
@@ -1,62 +1,411 @@
 package com.simplecrud.todoapp.service;
 
+import com.simplecrud.todoapp.config.ReplicaRoutingDataSource;
+import com.simplecrud.todoapp.dto.BatchCreateResult;
+import com.simplecrud.todoapp.dto.BatchItemError;
+import com.simplecrud.todoapp.dto.TaskCursor;
+import com.simplecrud.todoapp.dto.TaskPage;
+import com.simplecrud.todoapp.dto.TaskSetVersion;
+import com.simplecrud.todoapp.dto.TaskVersion;
+import com.simplecrud.todoapp.dto.TaskView;
+import com.simplecrud.todoapp.event.TaskChangedEvent;
+import com.simplecrud.todoapp.exceptions.TaskNotFoundException;
 import com.simplecrud.todoapp.model.Task;
 import com.simplecrud.todoapp.repository.TaskRepository;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.CacheStoreMode;
+import javax.persistence.EntityManager;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class TaskService {
 
+    public static final String TASKS_CACHE = "tasks";
+
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    public static final int MAX_BATCH_SIZE = 1000;
+    // Matches spring.jpa.properties.hibernate.jdbc.batch_size so every flush sends full JDBC batches
+    static final int INSERT_BATCH_SIZE = 50;
+
+    // Whether this thread's last cache-filling read was served by a replica; see readThroughCaches
+    private static final ThreadLocal<Boolean> READ_FROM_REPLICA = new ThreadLocal<>();
+
     private final TaskRepository taskRepository;
+    private final EntityManager entityManager;
+    private final Validator validator;
+    private final CacheManager cacheManager;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Only present with todoapp.write-behind.enabled; completion changes then go through it
+    private CompletionWriteBehindBuffer writeBehindBuffer;
+    // Only present with todoapp.replicas.enabled
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
 
-    public TaskService(TaskRepository taskRepository) {
+    public TaskService(TaskRepository taskRepository, EntityManager entityManager, Validator validator,
+                       CacheManager cacheManager, ApplicationEventPublisher eventPublisher) {
         this.taskRepository = taskRepository;
+        this.entityManager = entityManager;
+        this.validator = validator;
+        this.cacheManager = cacheManager;
+        this.eventPublisher = eventPublisher;
     }
 
+    @Autowired(required = false)
+    void setWriteBehindBuffer(CompletionWriteBehindBuffer writeBehindBuffer) {
+        this.writeBehindBuffer = writeBehindBuffer;
+    }
+
+    @Autowired(required = false)
+    void setReplicaRoutingDataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        this.replicaRoutingDataSource = replicaRoutingDataSource;
+    }
+
+    // Read-through: both hits and misses (as "not found") are cached until a mutation replaces them, except
+    // when a replica served the read (see readThroughCaches)
+    @Cacheable(cacheNames = TASKS_CACHE, key = "#id", unless = "#root.target.lastReadFromReplica()")
+    @Transactional(readOnly = true)
     public Optional<Task> findTaskById(Long id) {
-        return taskRepository.findById(id);
+        return readThroughCaches(() -> taskRepository.findById(id).map(this::withPendingCompletionStatus));
+    }
+
+    // Runs a read in a read-only transaction, which may be routed to a replica. A replica can lag the primary,
+    // so what it serves is looked up in the caches but never put in them: the task region and query cache are
+    // only read during the call, and the unless condition of @Cacheable, evaluated after the method returns,
+    // learns from lastReadFromReplica() to leave the tasks cache alone.
+    private <T> T readThroughCaches(Supplier<T> read) {
+        boolean fromReplica = replicaRoutingDataSource != null && replicaRoutingDataSource.isReplicaTransaction();
+        READ_FROM_REPLICA.set(fromReplica);
+        if (!fromReplica) {
+            return read.get();
+        }
+        // The session can outlive the transaction (open-in-view), so the store mode is restored afterwards
+        Object storeMode = entityManager.getProperties()
+                .getOrDefault(AvailableSettings.JPA_SHARED_CACHE_STORE_MODE, CacheStoreMode.USE);
+        entityManager.setProperty(AvailableSettings.JPA_SHARED_CACHE_STORE_MODE, CacheStoreMode.BYPASS);
+        try {
+            return read.get();
+        } finally {
+            entityManager.setProperty(AvailableSettings.JPA_SHARED_CACHE_STORE_MODE, storeMode);
+        }
+    }
+
+    public boolean lastReadFromReplica() {
+        return Boolean.TRUE.equals(READ_FROM_REPLICA.get());
+    }
+
+    // Shows a completion change still waiting in the write-behind buffer instead of the stored value
+    private Task withPendingCompletionStatus(Task task) {
+        Boolean pending = writeBehindBuffer == null ? null : writeBehindBuffer.pendingCompletionStatus(task.getId());
+        if (pending == null || pending.equals(task.getIsCompleted())) {
+            return task;
+        }
+        Task copy = new Task(task);
+        copy.setIsCompleted(pending);
+        return copy;
+    }
+
+    // Revalidation without loading the task: the cached task when there is one, else a two-column lookup
+    public Optional<TaskVersion> findTaskVersion(Long id) {
+        Cache.ValueWrapper cached = cachedTask(id);
+        Optional<TaskVersion> version = cached != null
+                ? Optional.ofNullable((Task) cached.get()).map(TaskVersion::of)
+                : taskRepository.findVersionById(id);
+        Boolean pending = writeBehindBuffer == null ? null : writeBehindBuffer.pendingCompletionStatus(id);
+        return pending == null ? version : version.map(found -> found.withCompleted(pending));
     }
 
-    public List<Task> findAllCompletedTasks() {
-        return taskRepository.findByIsCompleted(true);
+    @Transactional(readOnly = true)
+    public TaskSetVersion findTaskSetVersion(boolean isCompleted) {
+        return readThroughCaches(() -> taskRepository.findSetVersionByIsCompleted(isCompleted));
     }
 
-    public List<Task> findAllUncompletedTasks() {
-        return taskRepository.findByIsCompleted(false);
+    // Lists are read as TaskView projections; the read-only transaction also switches flushing off
+    @Transactional(readOnly = true)
+    public List<TaskView> findAllCompletedTasks() {
+        return readThroughCaches(() -> taskRepository.findViewsByIsCompleted(true));
     }
 
+    @Transactional(readOnly = true)
+    public List<TaskView> findAllUncompletedTasks() {
+        return readThroughCaches(() -> taskRepository.findViewsByIsCompleted(false));
+    }
+
+    // Views of the given tasks in the given order; ids of tasks that no longer exist are skipped
+    @Transactional(readOnly = true)
+    public List<TaskView> findTaskViews(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, TaskView> views = new HashMap<>();
+        for (TaskView view : taskRepository.findViewsByIdIn(ids)) {
+            views.put(view.getId(), view);
+        }
+        return ids.stream().map(views::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public TaskPage findCompletedTasksPage(String cursor, int limit) {
+        return findTasksPage(true, cursor, limit);
+    }
+
+    @Transactional(readOnly = true)
+    public TaskPage findUncompletedTasksPage(String cursor, int limit) {
+        return findTasksPage(false, cursor, limit);
+    }
+
+    private TaskPage findTasksPage(boolean isCompleted, String cursor, int limit) {
+        long afterId = cursor == null ? 0L : TaskCursor.decode(cursor);
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+
+        // Fetch one extra row to learn whether another page exists without a COUNT query
+        List<TaskView> tasks = taskRepository.findViewsByIsCompletedAndIdGreaterThanOrderByIdAsc(
+                isCompleted, afterId, PageRequest.of(0, pageSize + 1));
+        if (tasks.size() <= pageSize) {
+            return new TaskPage(tasks, null);
+        }
+        List<TaskView> page = new ArrayList<>(tasks.subList(0, pageSize));
+        return new TaskPage(page, TaskCursor.encode(page.get(pageSize - 1).getId()));
+    }
+
+    // Hands every task (optionally filtered) to the consumer one by one, detaching each so the
+    // persistence context stays empty no matter how many rows are exported. The rows may come from a replica,
+    // so they are not stored in the task region (which also keeps an export from evicting the hot entries).
+    @Transactional(readOnly = true)
+    public void exportTasks(Boolean isCompleted, Consumer<Task> consumer) {
+        entityManager.setProperty(AvailableSettings.JPA_SHARED_CACHE_STORE_MODE, CacheStoreMode.BYPASS);
+        try (Stream<Task> tasks = isCompleted == null
+                ? taskRepository.streamAllByOrderByIdAsc()
+                : taskRepository.streamByIsCompletedOrderByIdAsc(isCompleted)) {
+            tasks.forEach(task -> {
+                consumer.accept(task);
+                entityManager.detach(task);
+            });
+        }
+    }
+
+    @CachePut(cacheNames = TASKS_CACHE, key = "#result.id")
     public Task createTask(Task newTask) {
         newTask.setId(null);
         newTask.setIsCompleted(false);
-        return taskRepository.save(newTask);
+        Task createdTask = taskRepository.save(newTask);
+        eventPublisher.publishEvent(TaskChangedEvent.created(createdTask));
+        return createdTask;
+    }
+
+    // Creates all valid tasks in one transaction; invalid items are reported and skipped
+    @Transactional
+    public BatchCreateResult createTasks(List<Task> newTasks) {
+        List<Long> ids = new ArrayList<>(newTasks.size());
+        List<BatchItemError> errors = new ArrayList<>();
+        List<Task> pending = new ArrayList<>(INSERT_BATCH_SIZE);
+        List<Integer> pendingIndexes = new ArrayList<>(INSERT_BATCH_SIZE);
+
+        for (int i = 0; i < newTasks.size(); i++) {
+            ids.add(null);
+            Task newTask = newTasks.get(i);
+            String error = validate(newTask);
+            if (error != null) {
+                errors.add(new BatchItemError(i, error));
+                continue;
+            }
+            newTask.setId(null);
+            newTask.setIsCompleted(false);
+            pending.add(newTask);
+            pendingIndexes.add(i);
+            if (pending.size() == INSERT_BATCH_SIZE) {
+                insertBatch(pending, pendingIndexes, ids);
+            }
+        }
+        if (!pending.isEmpty()) {
+            insertBatch(pending, pendingIndexes, ids);
+        }
+        return new BatchCreateResult(ids, errors);
+    }
+
+    private String validate(Task task) {
+        if (task == null) {
+            return "task must not be null";
+        }
+        Set<ConstraintViolation<Task>> violations = validator.validate(task);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    // Flushes one JDBC batch and clears the persistence context so large imports stay flat in memory
+    private void insertBatch(List<Task> pending, List<Integer> pendingIndexes, List<Long> ids) {
+        taskRepository.saveAll(pending);
+        entityManager.flush();
+        Cache tasksCache = cacheManager.getCache(TASKS_CACHE);
+        for (int i = 0; i < pending.size(); i++) {
+            Task createdTask = pending.get(i);
+            ids.set(pendingIndexes.get(i), createdTask.getId());
+            if (tasksCache != null) {
+                // Drops any cached "not found" for the new id once the transaction commits
+                tasksCache.evict(createdTask.getId());
+            }
+            eventPublisher.publishEvent(TaskChangedEvent.created(createdTask));
+        }
+        entityManager.clear();
+        pending.clear();
+        pendingIndexes.clear();
     }
 
+    // Applies the change with one conditional UPDATE. The response is the cached task with the change applied,
+    // so a cached task needs no read; otherwise, or when nothing changed, the task is read back, which also
+    // tells a missing task from one that already had the value.
+    @CachePut(cacheNames = TASKS_CACHE, key = "#id")
+    @Transactional
     public Task updateTaskCompletionStatus(Long id, Boolean isCompleted) {
-        Optional<Task> optionalTask = taskRepository.findById(id);
-        if (optionalTask.isPresent()) {
-            Task task = optionalTask.get();
-            task.setIsCompleted(isCompleted);
-            return taskRepository.save(task);
-        } else {
-            throw new RuntimeException("Task not found with id: " + id);
+        Date now = new Date();
+        if (taskRepository.updateCompletionStatus(id, isCompleted, now) == 0) {
+            return findExistingTask(id);
         }
+        Task task = updatedTask(id, now, updated -> updated.setIsCompleted(isCompleted));
+        eventPublisher.publishEvent(TaskChangedEvent.completionChanged(id, isCompleted, task));
+        return task;
     }
 
+    // Same change without building a response; a single UPDATE unless the task is missing or unchanged
+    @CacheEvict(cacheNames = TASKS_CACHE, key = "#id")
+    @Transactional
+    public void setTaskCompletionStatus(Long id, boolean isCompleted) {
+        if (applyCompletionStatus(id, isCompleted)) {
+            eventPublisher.publishEvent(TaskChangedEvent.completionChanged(id, isCompleted, null));
+        }
+    }
+
+    @CachePut(cacheNames = TASKS_CACHE, key = "#id")
+    @Transactional
     public Task updateTaskDescription(Long id, String description) {
-        Optional<Task> optionalTask = taskRepository.findById(id);
-        if (optionalTask.isPresent()) {
-            Task task = optionalTask.get();
-            task.setDescription(description);
-            return taskRepository.save(task);
-        } else {
-            throw new RuntimeException("Task not found with id: " + id);
+        Date now = new Date();
+        if (taskRepository.updateDescription(id, description, now) == 0) {
+            return findExistingTask(id);
+        }
+        Task task = updatedTask(id, now, updated -> updated.setDescription(description));
+        eventPublisher.publishEvent(TaskChangedEvent.updated(id, task));
+        return task;
+    }
+
+    private Task findExistingTask(Long id) {
+        return taskRepository.findById(id).orElseThrow(() -> new TaskNotFoundException(id));
+    }
+
+    // The task as the UPDATE just left it
+    private Task updatedTask(Long id, Date updatedAt, Consumer<Task> change) {
+        Cache.ValueWrapper cached = cachedTask(id);
+        if (cached == null || cached.get() == null) {
+            return findExistingTask(id);
         }
+        Task task = ((Task) cached.get()).updatedCopy(updatedAt);
+        change.accept(task);
+        return task;
     }
 
+    @CacheEvict(cacheNames = TASKS_CACHE, key = "#id")
+    @Transactional
+    public void setTaskDescription(Long id, String description) {
+        if (applyDescription(id, description)) {
+            eventPublisher.publishEvent(TaskChangedEvent.updated(id, null));
+        }
+    }
+
+    public boolean isWriteBehindEnabled() {
+        return writeBehindBuffer != null;
+    }
+
+    // Write-behind variant of updateTaskCompletionStatus: no transaction and, when the task is cached, no
+    // database access at all; the buffer writes the change later. The returned (and cached) task shows the
+    // new state with the previous updatedAt.
+    @CachePut(cacheNames = TASKS_CACHE, key = "#id")
+    public Task bufferTaskCompletionStatus(Long id, boolean isCompleted) {
+        if (writeBehindBuffer == null) {
+            throw new IllegalStateException("Write-behind is not enabled");
+        }
+        Cache.ValueWrapper cached = cachedTask(id);
+        Task current = cached != null ? (Task) cached.get() : taskRepository.findById(id).orElse(null);
+        if (current == null) {
+            throw new TaskNotFoundException(id);
+        }
+        writeBehindBuffer.accept(id, isCompleted);
+        Task task = new Task(current);
+        task.setIsCompleted(isCompleted);
+        return task;
+    }
+
+    // A cached null means the task is known not to exist; a null wrapper means it is not cached
+    private Cache.ValueWrapper cachedTask(Long id) {
+        Cache tasksCache = cacheManager.getCache(TASKS_CACHE);
+        return tasksCache == null ? null : tasksCache.get(id);
+    }
+
+    // Returns true when the row changed, false when it already had the value
+    private boolean applyCompletionStatus(Long id, boolean isCompleted) {
+        int updated = taskRepository.updateCompletionStatus(id, isCompleted, new Date());
+        return checkUpdated(id, updated);
+    }
+
+    private boolean applyDescription(Long id, String description) {
+        int updated = taskRepository.updateDescription(id, description, new Date());
+        return checkUpdated(id, updated);
+    }
+
+    // The UPDATEs skip rows that already hold the value, so only a zero count needs an existence check
+    private boolean checkUpdated(Long id, int updated) {
+        if (updated > 0) {
+            return true;
+        }
+        if (!taskRepository.existsById(id)) {
+            throw new TaskNotFoundException(id);
+        }
+        return false;
+    }
+
+    // Soft delete with one UPDATE. The live row is locked first and only its completion state read, which the
+    // stats event needs. A missing or already deleted task is a no-op, and the task is cached as "not found"
+    // so repeated deletes never reach the database.
+    @CachePut(cacheNames = TASKS_CACHE, key = "#id")
+    @Transactional
     public void deleteTask(Long id) {
-        taskRepository.deleteById(id);
+        Cache.ValueWrapper cached = cachedTask(id);
+        if (cached != null && cached.get() == null) {
+            return;
+        }
+        Optional<Boolean> completed = taskRepository.lockCompletionStatusById(id);
+        if (completed.isEmpty()) {
+            return;
+        }
+        taskRepository.softDeleteById(id, new Date());
+        eventPublisher.publishEvent(TaskChangedEvent.deleted(id, completed.get()));
     }
 }
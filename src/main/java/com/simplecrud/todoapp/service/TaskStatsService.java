@@ -0,0 +1,95 @@
+package com.simplecrud.todoapp.service;
+
+import com.simplecrud.todoapp.dto.TaskStats;
+import com.simplecrud.todoapp.event.TaskChangedEvent;
+import com.simplecrud.todoapp.repository.TaskRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Task counts kept in memory so /tasks/stats never touches the database.
+ * <p>
+ * Totals are adjusted from {@link TaskChangedEvent}s after each commit and periodically reconciled
+ * against the database, which also corrects drift from writes made outside the service. The overdue
+ * count comes from {@link OverdueTaskScheduler}, which follows the clock as well as mutations.
+ */
+@Service
+public class TaskStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskStatsService.class);
+
+    private final TaskRepository taskRepository;
+    private final OverdueTaskScheduler overdueTaskScheduler;
+
+    private final LongAdder total = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+
+    public TaskStatsService(TaskRepository taskRepository, OverdueTaskScheduler overdueTaskScheduler) {
+        this.taskRepository = taskRepository;
+        this.overdueTaskScheduler = overdueTaskScheduler;
+    }
+
+    public TaskStats getStats() {
+        long totalCount = total.sum();
+        long completedCount = completed.sum();
+        return new TaskStats(totalCount, completedCount, totalCount - completedCount,
+                overdueTaskScheduler.overdueCount());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        switch (event.getType()) {
+            case CREATED:
+                total.increment();
+                if (Boolean.TRUE.equals(event.getCompleted())) {
+                    completed.increment();
+                }
+                break;
+            case UPDATED:
+                if (event.isCompletionChanged()) {
+                    completed.add(Boolean.TRUE.equals(event.getCompleted()) ? 1 : -1);
+                }
+                break;
+            case DELETED:
+                total.decrement();
+                if (Boolean.TRUE.equals(event.getCompleted())) {
+                    completed.decrement();
+                }
+                break;
+        }
+    }
+
+    // Reconciliation runs in a read-write transaction so it counts on the primary, never on a lagging replica
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void initialize() {
+        reconcile();
+    }
+
+    // Corrects each counter by its difference from the database instead of overwriting it. A change whose event
+    // arrives between the snapshot and the COUNT is counted twice (or one that commits during the COUNT is
+    // missed), so the counts can be briefly off; the next run corrects them.
+    @Scheduled(fixedDelayString = "${todoapp.stats.reconcile-interval:PT5M}",
+            initialDelayString = "${todoapp.stats.reconcile-interval:PT5M}")
+    @Transactional
+    public void reconcile() {
+        long totalBefore = total.sum();
+        long completedBefore = completed.sum();
+        long totalCount = taskRepository.count();
+        long completedCount = taskRepository.countByIsCompleted(true);
+        total.add(totalCount - totalBefore);
+        completed.add(completedCount - completedBefore);
+        if (totalCount != totalBefore || completedCount != completedBefore) {
+            log.debug("Reconciled task counters: total {} -> {}, completed {} -> {}",
+                    totalBefore, totalCount, completedBefore, completedCount);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.simplecrud.todoapp.service;
+
+import com.simplecrud.todoapp.dto.SyncToken;
+import com.simplecrud.todoapp.dto.TaskChangeRow;
+import com.simplecrud.todoapp.dto.TaskChanges;
+import com.simplecrud.todoapp.dto.TaskView;
+import com.simplecrud.todoapp.exceptions.SyncTokenExpiredException;
+import com.simplecrud.todoapp.repository.TaskRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Delta sync for {@code GET /tasks/changes}: returns the tasks created, changed or deleted since the client's
+ * last call, read through idx_task_updated_id from the client's (updatedAt, id) position, so a call costs one
+ * index range over the changes and never scans unchanged rows.
+ * <p>
+ * Every write sets updated_at and bumps version, and a delete leaves a tombstone with updated_at set to the
+ * deletion time, so a changed row always moves behind every position handed out before. Rows changed within
+ * the last {@code todoapp.changes.settle} are left for the next call: their transaction may not have committed
+ * yet, and a later commit with an earlier timestamp would otherwise land behind a position already returned.
+ * <p>
+ * Tombstones are purged after {@code todoapp.purge.retention}. The token remembers since when the client may
+ * still be missing changes; once that is older than the retention a deletion may be gone and the token is
+ * rejected, and the client has to sync from scratch.
+ */
+@Service
+public class TaskSyncService {
+
+    private final TaskRepository taskRepository;
+    private final long settleMillis;
+    private final long retentionMillis;
+
+    public TaskSyncService(TaskRepository taskRepository,
+                           @Value("${todoapp.changes.settle:PT5S}") Duration settle,
+                           @Value("${todoapp.purge.retention:PT1H}") Duration retention) {
+        this.taskRepository = taskRepository;
+        this.settleMillis = settle.toMillis();
+        this.retentionMillis = retention.toMillis();
+    }
+
+    // Reads from the primary: a lagging replica could hide committed changes the returned position then skips
+    @Transactional
+    public TaskChanges findChanges(String since, int limit) {
+        return findChanges(since, limit, System.currentTimeMillis());
+    }
+
+    TaskChanges findChanges(String since, int limit, long now) {
+        long until = now - settleMillis;
+        // Without a token the client has nothing yet, so deletions before this call do not concern it
+        SyncToken token = since == null ? new SyncToken(0L, 0L, until) : SyncToken.decode(since);
+        if (token.getSafeSince() < now - retentionMillis) {
+            throw new SyncTokenExpiredException("Sync token older than the tombstone retention");
+        }
+        int pageSize = Math.min(Math.max(limit, 1), TaskService.MAX_PAGE_SIZE);
+
+        // Fetch one extra row to learn whether more changes are waiting
+        List<TaskChangeRow> rows = taskRepository.findChangesAfter(new Date(token.getAfterUpdatedAt()),
+                token.getAfterId(), new Date(until), pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+
+        List<TaskView> tasks = new ArrayList<>(rows.size());
+        List<Long> deletedIds = new ArrayList<>();
+        for (TaskChangeRow row : rows) {
+            if (row.getDeletedAt() == null) {
+                tasks.add(row.toView());
+            } else {
+                deletedIds.add(row.getId());
+            }
+        }
+
+        long afterUpdatedAt = token.getAfterUpdatedAt();
+        long afterId = token.getAfterId();
+        if (!rows.isEmpty()) {
+            TaskChangeRow last = rows.get(rows.size() - 1);
+            afterUpdatedAt = last.getUpdatedAt().getTime();
+            afterId = last.getId();
+        }
+        // Caught up: every change up to until has been returned. Otherwise the client is as far behind as before.
+        long safeSince = hasMore ? token.getSafeSince() : until;
+        return new TaskChanges(tasks, deletedIds, new SyncToken(afterUpdatedAt, afterId, safeSince).encode(), hasMore);
+    }
+}
@@ -0,0 +1,163 @@
+package com.simplecrud.todoapp.service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hierarchical timing wheel keyed by task id. Not thread-safe; {@link OverdueTaskScheduler} guards it.
+ * <p>
+ * Level 0 has one slot per tick; each slot of level {@code n} covers {@code slots^n} ticks. An entry goes to the
+ * lowest level whose range covers its distance from the current tick, at the slot given by its due tick. When
+ * the level-0 index wraps, the current slot of level 1 is moved down one level, and so on upwards, so every
+ * entry is moved at most {@code levels - 1} times before it expires. Scheduling and cancelling are O(1), and
+ * each tick costs O(1) plus the entries it expires or moves.
+ */
+final class TimingWheel {
+
+    // Receives each expired entry; called in due-tick order
+    interface ExpiryHandler {
+        void expired(long id, long dueMillis);
+    }
+
+    private static final class Entry {
+        final long id;
+        final long dueMillis;
+        final long dueTick;
+        Entry prev;
+        Entry next;
+
+        Entry(long id, long dueMillis, long dueTick) {
+            this.id = id;
+            this.dueMillis = dueMillis;
+            this.dueTick = dueTick;
+        }
+
+        void unlink() {
+            prev.next = next;
+            next.prev = prev;
+            prev = null;
+            next = null;
+        }
+    }
+
+    private final long tickMillis;
+    private final int slotBits;
+    private final int levels;
+    private final long mask;
+    // slots[level][index] is the sentinel of a circular doubly linked list
+    private final Entry[][] slots;
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private long currentTick;
+
+    TimingWheel(long tickMillis, int slotBits, int levels, long startMillis) {
+        if (tickMillis < 1 || slotBits < 1 || levels < 1 || (long) slotBits * levels >= 63) {
+            throw new IllegalArgumentException("Invalid timing wheel dimensions");
+        }
+        this.tickMillis = tickMillis;
+        this.slotBits = slotBits;
+        this.levels = levels;
+        this.mask = (1L << slotBits) - 1;
+        this.slots = new Entry[levels][1 << slotBits];
+        for (Entry[] level : slots) {
+            for (int i = 0; i < level.length; i++) {
+                Entry sentinel = new Entry(-1, 0, 0);
+                sentinel.prev = sentinel;
+                sentinel.next = sentinel;
+                level[i] = sentinel;
+            }
+        }
+        this.currentTick = Math.floorDiv(startMillis, tickMillis);
+    }
+
+    // How far ahead of the current time an entry can be scheduled
+    long spanMillis() {
+        return ((1L << (slotBits * levels)) - 1) * tickMillis;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    boolean contains(long id) {
+        return entries.containsKey(id);
+    }
+
+    // Replaces any entry for the id. Returns false, scheduling nothing, when the due time is not after the
+    // current tick; the entry never fires before dueMillis.
+    boolean schedule(long id, long dueMillis) {
+        cancel(id);
+        long dueTick = Math.floorDiv(dueMillis, tickMillis) + (Math.floorMod(dueMillis, tickMillis) == 0 ? 0 : 1);
+        if (dueTick <= currentTick) {
+            return false;
+        }
+        if (dueTick - currentTick >= 1L << (slotBits * levels)) {
+            throw new IllegalArgumentException("Due time beyond the wheel span: " + dueMillis);
+        }
+        Entry entry = new Entry(id, dueMillis, dueTick);
+        entries.put(id, entry);
+        place(entry);
+        return true;
+    }
+
+    boolean cancel(long id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return false;
+        }
+        entry.unlink();
+        return true;
+    }
+
+    // Moves the wheel to the tick of nowMillis, expiring every entry due up to then
+    void advanceTo(long nowMillis, ExpiryHandler handler) {
+        long targetTick = Math.floorDiv(nowMillis, tickMillis);
+        while (currentTick < targetTick) {
+            currentTick++;
+            // Cascade top-down so entries moved from level n can be moved on from level n - 1 in the same tick
+            int wrapped = 0;
+            while (wrapped + 1 < levels && (currentTick & ((1L << (slotBits * (wrapped + 1))) - 1)) == 0) {
+                wrapped++;
+            }
+            for (int level = wrapped; level >= 1; level--) {
+                cascade(level, handler);
+            }
+            Entry sentinel = slots[0][(int) (currentTick & mask)];
+            while (sentinel.next != sentinel) {
+                expire(sentinel.next, handler);
+            }
+        }
+    }
+
+    private void cascade(int level, ExpiryHandler handler) {
+        Entry sentinel = slots[level][(int) ((currentTick >>> (slotBits * level)) & mask)];
+        while (sentinel.next != sentinel) {
+            Entry entry = sentinel.next;
+            entry.unlink();
+            if (entry.dueTick <= currentTick) {
+                entries.remove(entry.id);
+                handler.expired(entry.id, entry.dueMillis);
+            } else {
+                place(entry);
+            }
+        }
+    }
+
+    private void expire(Entry entry, ExpiryHandler handler) {
+        entry.unlink();
+        entries.remove(entry.id);
+        handler.expired(entry.id, entry.dueMillis);
+    }
+
+    private void place(Entry entry) {
+        long distance = entry.dueTick - currentTick;
+        int level = 0;
+        while (level + 1 < levels && distance >= 1L << (slotBits * (level + 1))) {
+            level++;
+        }
+        Entry sentinel = slots[level][(int) ((entry.dueTick >>> (slotBits * level)) & mask)];
+        entry.prev = sentinel.prev;
+        entry.next = sentinel;
+        sentinel.prev.next = entry;
+        sentinel.prev = entry;
+    }
+}
@@ -0,0 +1,69 @@
+package com.simplecrud.todoapp.service;
+
+import com.simplecrud.todoapp.repository.TaskRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Hard-deletes soft-deleted tasks once their tombstone is older than {@code todoapp.purge.retention}.
+ * <p>
+ * Each run removes tombstones oldest first, at most {@code chunk-size} per transaction, and repeats until a
+ * chunk comes back short. Every DELETE therefore locks a bounded set of rows for a short time instead of
+ * holding locks on all tombstones at once. Tombstones are already invisible to reads, so a late or skipped
+ * run only costs disk space.
+ */
+@Component
+public class TombstonePurger {
+
+    private static final Logger log = LoggerFactory.getLogger(TombstonePurger.class);
+
+    private final TaskRepository taskRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration retention;
+    private final int chunkSize;
+
+    public TombstonePurger(TaskRepository taskRepository, PlatformTransactionManager transactionManager,
+                           @Value("${todoapp.purge.retention:PT1H}") Duration retention,
+                           @Value("${todoapp.purge.chunk-size:500}") int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunk-size must be positive: " + chunkSize);
+        }
+        this.taskRepository = taskRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retention = retention;
+        this.chunkSize = chunkSize;
+    }
+
+    @Scheduled(fixedDelayString = "${todoapp.purge.interval:PT1M}",
+            initialDelayString = "${todoapp.purge.interval:PT1M}")
+    public void purgeExpired() {
+        int purged = purgeDeletedBefore(new Date(System.currentTimeMillis() - retention.toMillis()));
+        if (purged > 0) {
+            log.debug("Purged {} task tombstones", purged);
+        }
+    }
+
+    // Returns the number of rows removed
+    public int purgeDeletedBefore(Date deletedBefore) {
+        int purged = 0;
+        while (true) {
+            Integer removed = transactionTemplate.execute(status -> {
+                List<Long> ids = taskRepository.findTombstoneIds(deletedBefore, chunkSize);
+                return ids.isEmpty() ? 0 : taskRepository.deleteTombstonesByIdIn(ids);
+            });
+            purged += removed;
+            if (removed < chunkSize) {
+                return purged;
+            }
+        }
+    }
+}
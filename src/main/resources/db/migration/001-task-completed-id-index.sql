@@ -0,0 +1,3 @@
+-- Composite index backing the keyset-paginated /tasks/completed and /tasks/uncompleted queries:
+-- WHERE is_completed = ? AND id > ? ORDER BY id LIMIT ? becomes a single index range seek.
+CREATE INDEX idx_task_completed_id ON task (is_completed, id);
@@ -0,0 +1,10 @@
+-- Sequence emulation table for Task ids (MySQL has no sequences). Hibernate reserves blocks of
+-- increment_size ids by advancing next_val, so it starts just past the highest existing id and
+-- existing rows keep their ids. The AUTO_INCREMENT attribute on task.id is left in place; explicit
+-- ids supplied by the application take precedence over it.
+CREATE TABLE task_seq (
+    next_val BIGINT NOT NULL
+) ENGINE = InnoDB;
+
+INSERT INTO task_seq (next_val)
+SELECT COALESCE(MAX(id), 0) + 1 FROM task;
@@ -0,0 +1,2 @@
+-- Lets the overdue count (is_completed = false AND due_date < now) and due-date range scans use an index.
+CREATE INDEX idx_task_completed_due ON task (is_completed, due_date);
@@ -0,0 +1,3 @@
+-- Optimistic-lock version of each task, bumped by every update; the task API derives ETags from it.
+-- Existing rows start at 0, and the default keeps INSERTs that do not name the column working.
+ALTER TABLE task ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,11 @@
+-- Soft delete: DELETE /tasks/{id} sets deleted_at and every read filters on deleted_at IS NULL; TombstonePurger
+-- removes the rows later in small chunks. The list/keyset and overdue indexes are rebuilt with deleted_at
+-- after is_completed so the filter stays part of the index seek, and idx_task_deleted_at lets the purger find
+-- old tombstones without scanning live rows. One ALTER so the table is rebuilt once.
+ALTER TABLE task
+    ADD COLUMN deleted_at DATETIME(6) NULL,
+    DROP INDEX idx_task_completed_id,
+    DROP INDEX idx_task_completed_due,
+    ADD INDEX idx_task_completed_deleted_id (is_completed, deleted_at, id),
+    ADD INDEX idx_task_completed_deleted_due (is_completed, deleted_at, due_date),
+    ADD INDEX idx_task_deleted_at (deleted_at);
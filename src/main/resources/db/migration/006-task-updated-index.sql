@@ -0,0 +1,8 @@
+-- Delta sync (GET /tasks/changes) reads every row, tombstones included, in (updated_at, id) order after the
+-- client's position, so its cost follows the number of changes rather than the table size. Rows written
+-- before updated_at was always set get their creation time, and the column becomes NOT NULL so no row falls
+-- outside the keyset.
+UPDATE task SET updated_at = created_at WHERE updated_at IS NULL;
+ALTER TABLE task
+    MODIFY COLUMN updated_at DATETIME(6) NOT NULL,
+    ADD INDEX idx_task_updated_id (updated_at, id);
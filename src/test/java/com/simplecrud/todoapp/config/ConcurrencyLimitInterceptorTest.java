@@ -0,0 +1,168 @@
+package com.simplecrud.todoapp.config;
+
+import com.netflix.concurrency.limits.limit.FixedLimit;
+import com.simplecrud.todoapp.exceptions.ConcurrencyLimitExceededException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import javax.servlet.DispatcherType;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitInterceptorTest {
+
+    private MeterRegistry meterRegistry;
+    private ConcurrencyLimitInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // Partition limits: point 6, list 3, diagnostic 1
+        interceptor = new ConcurrencyLimitInterceptor(FixedLimit.of(10), 0.6, 0.3, 0.1, meterRegistry);
+    }
+
+    @Test
+    void preHandle_ListOverLimit_IsShedWhilePointKeepsItsShare() throws Exception {
+        // Arrange
+        for (int i = 0; i < 10; i++) {
+            assertTrue(interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(),
+                    handler("list")));
+        }
+
+        // Act & Assert
+        assertThrows(ConcurrencyLimitExceededException.class, () -> interceptor.preHandle(
+                new MockHttpServletRequest(), new MockHttpServletResponse(), handler("list")));
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(),
+                handler("point")));
+        assertEquals(11, interceptor.getInflight());
+        assertEquals(1.0, meterRegistry.counter(ConcurrencyLimitInterceptor.METRIC_PREFIX + "call",
+                "id", "tasks", "status", "rejected").count());
+    }
+
+    @Test
+    void preHandle_DiagnosticOverItsShareAtLimit_IsShed() throws Exception {
+        // Arrange
+        for (int i = 0; i < 10; i++) {
+            interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), handler("point"));
+        }
+
+        // Act & Assert: the first diagnostic request is within its own share, the second is not
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(),
+                handler("diagnostic")));
+        assertThrows(ConcurrencyLimitExceededException.class, () -> interceptor.preHandle(
+                new MockHttpServletRequest(), new MockHttpServletResponse(), handler("diagnostic")));
+    }
+
+    @Test
+    void preHandle_Stream_IsNotLimited() throws Exception {
+        // Arrange
+        for (int i = 0; i < 10; i++) {
+            interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), handler("list"));
+        }
+
+        // Act & Assert
+        for (int i = 0; i < 20; i++) {
+            assertTrue(interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(),
+                    handler("stream")));
+        }
+        assertEquals(10, interceptor.getInflight());
+    }
+
+    @Test
+    void afterCompletion_ReleasesPermitOnce() throws Exception {
+        // Arrange
+        List<MockHttpServletRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest();
+            interceptor.preHandle(request, new MockHttpServletResponse(), handler("list"));
+            requests.add(request);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        interceptor.afterCompletion(requests.get(0), response, handler("list"), null);
+        interceptor.afterCompletion(requests.get(0), response, handler("list"), null);
+
+        // Assert
+        assertEquals(9, interceptor.getInflight());
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(),
+                handler("list")));
+        assertEquals(1.0, meterRegistry.counter(ConcurrencyLimitInterceptor.METRIC_PREFIX + "call",
+                "id", "tasks", "status", "success").count());
+    }
+
+    @Test
+    void asyncDispatch_KeepsPermitUntilCompletionAndIsNotSampled() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        interceptor.preHandle(request, new MockHttpServletResponse(), handler("list"));
+        request.setDispatcherType(DispatcherType.ASYNC);
+
+        // Act
+        interceptor.preHandle(request, new MockHttpServletResponse(), handler("list"));
+        int inflightDuringStream = interceptor.getInflight();
+        interceptor.afterCompletion(request, new MockHttpServletResponse(), handler("list"), null);
+
+        // Assert
+        assertEquals(1, inflightDuringStream);
+        assertEquals(0, interceptor.getInflight());
+        assertEquals(1.0, meterRegistry.counter(ConcurrencyLimitInterceptor.METRIC_PREFIX + "call",
+                "id", "tasks", "status", "ignored").count());
+    }
+
+    @Test
+    void afterCompletion_ServerError_IsNotSampled() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        interceptor.preHandle(request, new MockHttpServletResponse(), handler("point"));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setStatus(500);
+
+        // Act
+        interceptor.afterCompletion(request, response, handler("point"), null);
+
+        // Assert
+        assertEquals(0, interceptor.getInflight());
+        assertEquals(1.0, meterRegistry.counter(ConcurrencyLimitInterceptor.METRIC_PREFIX + "call",
+                "id", "tasks", "status", "ignored").count());
+    }
+
+    @Test
+    void metrics_PublishLimitAndPartitionLimits() {
+        // Assert
+        assertEquals(10.0, meterRegistry.get(ConcurrencyLimitInterceptor.METRIC_PREFIX + "limit").gauge().value());
+        assertEquals(6.0, meterRegistry.get(ConcurrencyLimitInterceptor.METRIC_PREFIX + "limit.partition")
+                .tag("partition", "point").gauge().value());
+        assertEquals(1.0, meterRegistry.get(ConcurrencyLimitInterceptor.METRIC_PREFIX + "limit.partition")
+                .tag("partition", "diagnostic").gauge().value());
+    }
+
+    private static HandlerMethod handler(String name) throws NoSuchMethodException {
+        return new HandlerMethod(new Endpoints(), Endpoints.class.getDeclaredMethod(name));
+    }
+
+    static class Endpoints {
+
+        void point() {
+        }
+
+        @RequestPriority(RequestPriority.Tier.LIST)
+        void list() {
+        }
+
+        @RequestPriority(RequestPriority.Tier.DIAGNOSTIC)
+        void diagnostic() {
+        }
+
+        @RequestPriority(RequestPriority.Tier.STREAM)
+        void stream() {
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.simplecrud.todoapp.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ConcurrencyLimitedDataSourceTest {
+
+    private DataSource target;
+    private Connection pooledConnection;
+    private ConcurrencyLimitedDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        target = mock(DataSource.class);
+        pooledConnection = mock(Connection.class);
+        when(target.getConnection()).thenReturn(pooledConnection);
+        dataSource = new ConcurrencyLimitedDataSource(target, 2, Duration.ofMillis(50));
+    }
+
+    @Test
+    void getConnection_BeyondPermits_FailsAfterTimeout() throws SQLException {
+        // Arrange
+        dataSource.getConnection();
+        dataSource.getConnection();
+
+        // Act & Assert
+        assertThrows(SQLTransientConnectionException.class, () -> dataSource.getConnection());
+        verify(target, times(2)).getConnection();
+    }
+
+    @Test
+    void close_ReleasesPermitOnlyOnce() throws SQLException {
+        // Arrange
+        Connection connection = dataSource.getConnection();
+
+        // Act
+        connection.close();
+        connection.close();
+
+        // Assert
+        assertEquals(2, dataSource.getAvailablePermits());
+        verify(pooledConnection, times(2)).close();
+    }
+
+    @Test
+    void getConnection_PoolFailure_ReleasesPermit() throws SQLException {
+        // Arrange
+        when(target.getConnection()).thenThrow(new SQLException("pool exhausted"));
+
+        // Act & Assert
+        assertThrows(SQLException.class, () -> dataSource.getConnection());
+        assertEquals(2, dataSource.getAvailablePermits());
+    }
+
+    @Test
+    void connection_DelegatesOtherCallsToPooledConnection() throws SQLException {
+        // Arrange
+        when(pooledConnection.getAutoCommit()).thenReturn(true);
+        Connection connection = dataSource.getConnection();
+
+        // Act & Assert
+        assertEquals(true, connection.getAutoCommit());
+        assertSame(connection, connection.unwrap(Connection.class));
+        assertEquals(1, dataSource.getAvailablePermits());
+    }
+}
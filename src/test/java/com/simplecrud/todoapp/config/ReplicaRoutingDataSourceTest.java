@@ -0,0 +1,169 @@
+package com.simplecrud.todoapp.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Three embedded H2 databases stand in for the primary and two replicas; each one knows its own name
+class ReplicaRoutingDataSourceTest {
+
+    private DataSource primary;
+    private DataSource replica0;
+    private DataSource replica1;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica0 = database("replica0");
+        replica1 = database("replica1");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadYourWrites.clear();
+        for (DataSource dataSource : Arrays.asList(primary, replica0, replica1)) {
+            new JdbcTemplate(dataSource).execute("drop all objects");
+        }
+    }
+
+    @Test
+    void readOnlyTransactions_AreBalancedAcrossReplicas() {
+        // Arrange
+        ReplicaRoutingDataSource routing = routing(replica0, replica1);
+
+        // Act
+        Set<String> nodes = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            nodes.add(readNode(routing, true));
+        }
+
+        // Assert
+        assertEquals(new HashSet<>(Arrays.asList("replica0", "replica1")), nodes);
+    }
+
+    @Test
+    void readWriteTransactionsAndNonTransactionalReads_UsePrimary() {
+        // Arrange
+        ReplicaRoutingDataSource routing = routing(replica0, replica1);
+
+        // Act & Assert
+        assertEquals("primary", readNode(routing, false));
+        assertEquals("primary", new JdbcTemplate(new LazyConnectionDataSourceProxy(routing))
+                .queryForObject("select name from node", String.class));
+    }
+
+    @Test
+    void laggingReplica_IsSkippedUntilItCatchesUp() {
+        // Arrange
+        ReplicaRoutingDataSource routing = routing(replica0, replica1);
+        new JdbcTemplate(replica1).update("update replica_lag set lag = 60");
+
+        // Act
+        routing.checkReplicas();
+
+        // Assert
+        assertEquals(1, routing.getHealthyReplicaCount());
+        for (int i = 0; i < 3; i++) {
+            assertEquals("replica0", readNode(routing, true));
+        }
+
+        // Act
+        new JdbcTemplate(replica1).update("update replica_lag set lag = 0");
+        routing.checkReplicas();
+
+        // Assert
+        assertEquals(2, routing.getHealthyReplicaCount());
+    }
+
+    @Test
+    void brokenReplication_FallsBackToPrimary() {
+        // Arrange
+        ReplicaRoutingDataSource routing = routing(replica0);
+        new JdbcTemplate(replica0).update("update replica_lag set lag = null");
+
+        // Act
+        routing.checkReplicas();
+
+        // Assert
+        assertEquals(0, routing.getHealthyReplicaCount());
+        assertEquals("primary", readNode(routing, true));
+    }
+
+    @Test
+    void failingReplicaConnection_FallsBackToPrimaryAndLeavesRotation() {
+        // Arrange
+        AtomicBoolean down = new AtomicBoolean();
+        DataSource flaky = new DelegatingDataSource(replica0) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                if (down.get()) {
+                    throw new SQLException("Connection refused");
+                }
+                return super.getConnection();
+            }
+        };
+        ReplicaRoutingDataSource routing = routing(flaky);
+        // Passed the health check, then went away
+        down.set(true);
+
+        // Act & Assert
+        assertEquals("primary", readNode(routing, true));
+        assertEquals(0, routing.getHealthyReplicaCount());
+    }
+
+    @Test
+    void readYourWrites_KeepsReadsOnPrimary() {
+        // Arrange
+        ReplicaRoutingDataSource routing = routing(replica0, replica1);
+        ReadYourWrites.requirePrimary();
+
+        // Act & Assert
+        assertEquals("primary", readNode(routing, true));
+    }
+
+    private ReplicaRoutingDataSource routing(DataSource... replicas) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, Arrays.asList(replicas),
+                Duration.ofSeconds(5), "select lag as seconds_behind from replica_lag", "SECONDS_BEHIND");
+        routing.checkReplicas();
+        return routing;
+    }
+
+    private String readNode(ReplicaRoutingDataSource routing, boolean readOnly) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routing);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status ->
+                new JdbcTemplate(dataSource).queryForObject("select name from node", String.class));
+    }
+
+    private static DataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table if not exists node (name varchar(20))");
+        jdbcTemplate.execute("create table if not exists replica_lag (lag int)");
+        jdbcTemplate.update("delete from node");
+        jdbcTemplate.update("delete from replica_lag");
+        jdbcTemplate.update("insert into node (name) values (?)", name);
+        jdbcTemplate.update("insert into replica_lag (lag) values (0)");
+        return dataSource;
+    }
+}
@@ -0,0 +1,100 @@
+package com.simplecrud.todoapp.config;
+
+import com.simplecrud.todoapp.controller.TaskController;
+import com.simplecrud.todoapp.model.Task;
+import com.simplecrud.todoapp.service.OverdueTaskScheduler;
+import com.simplecrud.todoapp.service.TaskChangeFeed;
+import com.simplecrud.todoapp.service.TaskSearchIndex;
+import com.simplecrud.todoapp.service.TaskService;
+import com.simplecrud.todoapp.service.TaskStatsService;
+import com.simplecrud.todoapp.service.TaskSyncService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Date;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(TaskController.class)
+class RequestMetricsFilterTest {
+
+    @TestConfiguration
+    static class MeterRegistryConfig {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private TaskService taskService;
+
+    @MockBean
+    private TaskStatsService taskStatsService;
+
+    @MockBean
+    private OverdueTaskScheduler overdueTaskScheduler;
+
+    @MockBean
+    private TaskSearchIndex taskSearchIndex;
+
+    @MockBean
+    private TaskChangeFeed taskChangeFeed;
+
+    @MockBean
+    private TaskSyncService taskSyncService;
+
+    @Test
+    void request_RecordsTimerTaggedWithMappingAndOutcome() throws Exception {
+        // Arrange
+        when(taskService.findTaskById(1L)).thenReturn(Optional.of(new Task("Test task", false, new Date())));
+        when(taskService.findTaskById(2L)).thenReturn(Optional.empty());
+
+        // Act
+        mockMvc.perform(get("/tasks/1")).andExpect(status().isOk());
+        mockMvc.perform(get("/tasks/1")).andExpect(status().isOk());
+        mockMvc.perform(get("/tasks/2")).andExpect(status().isNotFound());
+
+        // Assert
+        assertEquals(2, timer("/tasks/{id}", "SUCCESS").count());
+        assertEquals(1, timer("/tasks/{id}", "CLIENT_ERROR").count());
+        assertNull(meterRegistry.find(RequestMetricsFilter.METRIC_NAME).tag("outcome", "SERVER_ERROR").timer());
+    }
+
+    @Test
+    void unmappedRequest_IsNotTimed() throws Exception {
+        // Act
+        mockMvc.perform(get("/no-such-path")).andExpect(status().isNotFound());
+
+        // Assert
+        assertNull(meterRegistry.find(RequestMetricsFilter.METRIC_NAME).tag("uri", "/no-such-path").timer());
+    }
+
+    private Timer timer(String uri, String outcome) {
+        return meterRegistry.get(RequestMetricsFilter.METRIC_NAME)
+                .tag("method", "GET")
+                .tag("uri", uri)
+                .tag("outcome", outcome)
+                .timer();
+    }
+}
@@ -0,0 +1,77 @@
+package com.simplecrud.todoapp.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.ModelAndView;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UnexpectedErrorResolverTest {
+
+    private MeterRegistry meterRegistry;
+    private UnexpectedErrorResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("meterRegistry", meterRegistry);
+        resolver = new UnexpectedErrorResolver(2, Duration.ofMinutes(1), beanFactory.getBeanProvider(MeterRegistry.class));
+    }
+
+    @Test
+    void resolveException_WritesFixedBodyAndCountsError() throws Exception {
+        // Arrange
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        ModelAndView result = resolver.resolveException(new MockHttpServletRequest("GET", "/tasks/1"), response,
+                null, new IllegalStateException("boom"));
+
+        // Assert
+        assertNotNull(result);
+        assertEquals(500, response.getStatus());
+        assertEquals("{\"status\":500,\"error\":\"Internal Server Error\"}", response.getContentAsString());
+        assertEquals(1.0, meterRegistry.counter(UnexpectedErrorResolver.METRIC_NAME,
+                "exception", "IllegalStateException").count());
+    }
+
+    @Test
+    void resolveException_CommittedResponse_LeavesBodyAlone() throws Exception {
+        // Arrange
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.getWriter().write("partial");
+        response.flushBuffer();
+
+        // Act
+        resolver.resolveException(new MockHttpServletRequest("GET", "/tasks/export"), response, null,
+                new IllegalStateException("boom"));
+
+        // Assert
+        assertEquals(200, response.getStatus());
+        assertEquals("partial", response.getContentAsString());
+    }
+
+    @Test
+    void acquireLogPermit_BeyondLimit_SuppressesUntilNextWindow() {
+        // Arrange
+        long start = System.nanoTime();
+
+        // Act & Assert
+        assertEquals(0, resolver.acquireLogPermit(start));
+        assertEquals(0, resolver.acquireLogPermit(start + 1));
+        assertEquals(-1, resolver.acquireLogPermit(start + 2));
+        assertEquals(-1, resolver.acquireLogPermit(start + 3));
+        // The first error of the next window reports how many were skipped
+        long nextWindow = start + Duration.ofMinutes(1).toNanos();
+        assertEquals(2, resolver.acquireLogPermit(nextWindow));
+        assertEquals(0, resolver.acquireLogPermit(nextWindow + 1));
+    }
+}
@@ -1,33 +1,64 @@
 package com.simplecrud.todoapp.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.simplecrud.todoapp.config.BinaryFormatConfig;
+import com.simplecrud.todoapp.config.UnexpectedErrorResolver;
+import com.simplecrud.todoapp.dto.BatchCreateResult;
+import com.simplecrud.todoapp.dto.BatchItemError;
+import com.simplecrud.todoapp.dto.TaskChanges;
+import com.simplecrud.todoapp.dto.TaskDueDate;
+import com.simplecrud.todoapp.dto.TaskPage;
+import com.simplecrud.todoapp.dto.TaskSetVersion;
+import com.simplecrud.todoapp.dto.TaskStats;
+import com.simplecrud.todoapp.dto.TaskVersion;
+import com.simplecrud.todoapp.dto.TaskView;
 import com.simplecrud.todoapp.exceptions.CustomChineseException;
+import com.simplecrud.todoapp.exceptions.TaskNotFoundException;
+import com.simplecrud.todoapp.exceptions.ConcurrencyLimitExceededException;
+import com.simplecrud.todoapp.exceptions.SyncTokenExpiredException;
+import com.simplecrud.todoapp.exceptions.WriteBehindBufferFullException;
 import com.simplecrud.todoapp.exceptions.自定义中文异常;
 import com.simplecrud.todoapp.model.Task;
+import com.simplecrud.todoapp.service.OverdueTaskScheduler;
+import com.simplecrud.todoapp.service.TaskChangeFeed;
+import com.simplecrud.todoapp.service.TaskSearchIndex;
 import com.simplecrud.todoapp.service.TaskService;
+import com.simplecrud.todoapp.service.TaskStatsService;
+import com.simplecrud.todoapp.service.TaskSyncService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(TaskController.class)
+@Import({BinaryFormatConfig.class, UnexpectedErrorResolver.class})
 class TaskControllerTest {
 
     @Autowired
@@ -36,6 +67,21 @@ class TaskControllerTest {
     @MockBean
     private TaskService taskService;
 
+    @MockBean
+    private TaskStatsService taskStatsService;
+
+    @MockBean
+    private OverdueTaskScheduler overdueTaskScheduler;
+
+    @MockBean
+    private TaskSearchIndex taskSearchIndex;
+
+    @MockBean
+    private TaskChangeFeed taskChangeFeed;
+
+    @MockBean
+    private TaskSyncService taskSyncService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -77,6 +123,70 @@ class TaskControllerTest {
         verify(taskService).findTaskById(999L);
     }
 
+    @Test
+    void getTask_ExistingTask_ReturnsETag() throws Exception {
+        // Arrange
+        when(taskService.findTaskById(1L)).thenReturn(Optional.of(sampleTask));
+
+        // Act & Assert
+        mockMvc.perform(get("/tasks/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"0-0\""));
+    }
+
+    @Test
+    void getTask_MatchingIfNoneMatch_ReturnsNotModifiedWithoutLoadingTask() throws Exception {
+        // Arrange
+        when(taskService.findTaskVersion(1L)).thenReturn(Optional.of(new TaskVersion(3L, false)));
+
+        // Act & Assert
+        mockMvc.perform(get("/tasks/1").header("If-None-Match", "\"3-0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(taskService, never()).findTaskById(anyLong());
+    }
+
+    @Test
+    void getTask_StaleIfNoneMatch_ReturnsTaskWithCurrentETag() throws Exception {
+        // Arrange
+        when(taskService.findTaskVersion(1L)).thenReturn(Optional.of(new TaskVersion(4L, true)));
+        when(taskService.findTaskById(1L)).thenReturn(Optional.of(sampleTask));
+
+        // Act & Assert
+        mockMvc.perform(get("/tasks/1").header("If-None-Match", "\"3-0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().stringValues("ETag", "\"4-1\""))
+                .andExpect(jsonPath("$.id", is(1)));
+    }
+
+    @Test
+    void getCompletedTasks_MatchingIfNoneMatch_ReturnsNotModifiedWithoutLoadingTasks() throws Exception {
+        // Arrange
+        TaskSetVersion version = new TaskSetVersion(2L, 3L, 5L, new Date(1_000L));
+        when(taskService.findTaskSetVersion(true)).thenReturn(version);
+
+        // Act & Assert
+        mockMvc.perform(get("/tasks/completed").header("If-None-Match", version.toETag()))
+                .andExpect(status().isNotModified());
+
+        verify(taskService, never()).findAllCompletedTasks();
+    }
+
+    @Test
+    void getUncompletedTasks_PageWithMatchingIfNoneMatch_ReturnsNotModified() throws Exception {
+        // Arrange
+        TaskPage page = new TaskPage(List.of(TaskView.of(sampleTask)), "next");
+        when(taskService.findUncompletedTasksPage(null, 1)).thenReturn(page);
+        String etag = mockMvc.perform(get("/tasks/uncompleted").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        // Act & Assert
+        mockMvc.perform(get("/tasks/uncompleted").param("limit", "1").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+    }
+
     @Test
     void getCompletedTasks_ReturnsCompletedTasksList() throws Exception {
         // Arrange
@@ -84,7 +194,7 @@ class TaskControllerTest {
         completedTask1.setId(1L);
         Task completedTask2 = new Task("Completed 2", true, new Date());
         completedTask2.setId(2L);
-        List<Task> completedTasks = Arrays.asList(completedTask1, completedTask2);
+        List<TaskView> completedTasks = Arrays.asList(TaskView.of(completedTask1), TaskView.of(completedTask2));
 
         when(taskService.findAllCompletedTasks()).thenReturn(completedTasks);
 
@@ -105,7 +215,7 @@ class TaskControllerTest {
         uncompletedTask1.setId(1L);
         Task uncompletedTask2 = new Task("Uncompleted 2", false, new Date());
         uncompletedTask2.setId(2L);
-        List<Task> uncompletedTasks = Arrays.asList(uncompletedTask1, uncompletedTask2);
+        List<TaskView> uncompletedTasks = Arrays.asList(TaskView.of(uncompletedTask1), TaskView.of(uncompletedTask2));
 
         when(taskService.findAllUncompletedTasks()).thenReturn(uncompletedTasks);
 
@@ -119,6 +229,304 @@ class TaskControllerTest {
         verify(taskService).findAllUncompletedTasks();
     }
 
+    @Test
+    void getCompletedTasks_WithLimit_ReturnsKeysetPage() throws Exception {
+        // Arrange
+        Task completedTask = new Task("Completed 1", true, new Date());
+        completedTask.setId(1L);
+        when(taskService.findCompletedTasksPage(null, 1))
+                .thenReturn(new TaskPage(Arrays.asList(TaskView.of(completedTask)), "next"));
+
+        // Act & Assert
+        mockMvc.perform(get("/tasks/completed").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].id", is(1)))
+                .andExpect(jsonPath("$.nextCursor", is("next")));
+
+        verify(taskService, never()).findAllCompletedTasks();
+    }
+
+    @Test
+    void getUncompletedTasks_WithInvalidCursor_ReturnsBadRequest() throws Exception {
+        // Arrange
+        when(taskService.findUncompletedTasksPage("bogus", TaskService.DEFAULT_PAGE_SIZE))
+                .thenThrow(new IllegalArgumentException("Invalid cursor: bogus"));
+
+        // Act & Assert
+        mockMvc.perform(get("/tasks/uncompleted").param("cursor", "bogus"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getStats_ReturnsCounters() throws Exception {
+        // Arrange
+        when(taskStatsService.getStats()).thenReturn(new TaskStats(10, 4, 6, 2));
+
+        // Act & Assert
+        mockMvc.perform(get("/tasks/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", is(10)))
+                .andExpect(jsonPath("$.completed", is(4)))
+                .andExpect(jsonPath("$.uncompleted", is(6)))
+                .andExpect(jsonPath("$.overdue", is(2)));
+
+        verifyNoInteractions(taskService);
+    }
+
+    @Test
+    void getOverdueTasks_ReturnsOverdueSetWithDefaultLimit() throws Exception {
+        // Arrange
+        when(overdueTaskScheduler.findOverdue(TaskService.DEFAULT_PAGE_SIZE))
+                .thenReturn(List.of(new TaskDueDate(7L, new Date(0))));
+
+        // Act & Assert
+        mockMvc.perform(get("/tasks/overdue"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(7)))
+                .andExpect(jsonPath("$[0].dueDate").exists());
+
+        verifyNoInteractions(taskService);
+    }
+
+    @Test
+    void getOverdueTasks_LimitOutOfRange_ReturnsBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/tasks/overdue").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(overdueTaskScheduler);
+    }
+
+    @Test
+    void searchTasks_ReturnsHitsInRankOrder() throws Exception {
+        // Arrange
+        TaskView first = new TaskView(5L, "Buy milk", false, null, new Date(), new Date(), 0L);
+        TaskView second = new TaskView(2L, "Buy milk and bread", false, null, new Date(), new Date(), 0L);
+        when(taskSearchIndex.search("buy mil*", TaskService.DEFAULT_PAGE_SIZE)).thenReturn(List.of(5L, 2L));
+        when(taskService.findTaskViews(List.of(5L, 2L))).thenReturn(List.of(first, second));
+
+        // Act & Assert
+        mockMvc.perform(get("/tasks/search").param("q", "buy mil*"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(5)))
+                .andExpect(jsonPath("$[1].id", is(2)));
+    }
+
+    @Test
+    void searchTasks_InvalidQuery_ReturnsBadRequest() throws Exception {
+        // Arrange
+        when(taskSearchIndex.search("a*", TaskService.DEFAULT_PAGE_SIZE))
+                .thenThrow(new IllegalArgumentException("Prefix too short"));
+
+        // Act & Assert
+        mockMvc.perform(get("/tasks/search").param("q", "a*"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(taskService);
+    }
+
+    @Test
+    void streamChanges_SubscribesWithFilterAndLastEventId() throws Exception {
+        // Arrange
+        SseEmitter emitter = new SseEmitter();
+        when(taskChangeFeed.subscribe(true, "1-5")).thenReturn(emitter);
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/tasks/stream")
+                        .param("isCompleted", "true")
+                        .header("Last-Event-ID", "1-5")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        emitter.send(SseEmitter.event().id("1-6").name("deleted").data("{}"));
+        emitter.complete();
+
+        // Assert
+        assertEquals(MediaType.TEXT_EVENT_STREAM_VALUE, result.getResponse().getContentType());
+        assertEquals("id:1-6\nevent:deleted\ndata:{}\n\n", result.getResponse().getContentAsString());
+    }
+
+    @Test
+    void streamChanges_TooManySubscribers_ReturnsServiceUnavailable() throws Exception {
+        // Arrange
+        when(taskChangeFeed.subscribe(null, null)).thenReturn(null);
+
+        // Act & Assert
+        mockMvc.perform(get("/tasks/stream"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "5"));
+    }
+
+    @Test
+    void getChanges_ReturnsChangedTasksDeletedIdsAndNextToken() throws Exception {
+        // Arrange
+        TaskView changed = new TaskView(3L, "Buy milk", true, null, new Date(), new Date(), 2L);
+        when(taskSyncService.findChanges("abc", 50))
+                .thenReturn(new TaskChanges(List.of(changed), List.of(7L), "def", true));
+
+        // Act & Assert
+        mockMvc.perform(get("/tasks/changes").param("since", "abc").param("limit", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tasks[0].id", is(3)))
+                .andExpect(jsonPath("$.tasks[0].version", is(2)))
+                .andExpect(jsonPath("$.deletedIds[0]", is(7)))
+                .andExpect(jsonPath("$.next", is("def")))
+                .andExpect(jsonPath("$.hasMore", is(true)));
+    }
+
+    @Test
+    void getChanges_InvalidToken_ReturnsBadRequest() throws Exception {
+        // Arrange
+        when(taskSyncService.findChanges("bogus", TaskService.DEFAULT_PAGE_SIZE))
+                .thenThrow(new IllegalArgumentException("Invalid sync token: bogus"));
+
+        // Act & Assert
+        mockMvc.perform(get("/tasks/changes").param("since", "bogus"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getChanges_ExpiredToken_ReturnsGone() throws Exception {
+        // Arrange
+        when(taskSyncService.findChanges("old", TaskService.DEFAULT_PAGE_SIZE))
+                .thenThrow(new SyncTokenExpiredException("Sync token older than the tombstone retention"));
+
+        // Act & Assert
+        mockMvc.perform(get("/tasks/changes").param("since", "old"))
+                .andExpect(status().isGone())
+                .andExpect(jsonPath("$.status", is(410)));
+    }
+
+    @Test
+    void exportTasks_StreamsTasksAsNdjson() throws Exception {
+        // Arrange
+        Task completedTask = new Task("Completed 1", true, null);
+        completedTask.setId(2L);
+        doAnswer(invocation -> {
+            Consumer<Task> consumer = invocation.getArgument(1);
+            consumer.accept(sampleTask);
+            consumer.accept(completedTask);
+            return null;
+        }).when(taskService).exportTasks(eq(null), any());
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/tasks/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(1L, objectMapper.readValue(lines[0], Task.class).getId());
+        assertEquals(2L, objectMapper.readValue(lines[1], Task.class).getId());
+        verify(taskService).exportTasks(eq(null), any());
+    }
+
+    @Test
+    void exportTasks_AcceptCbor_StreamsOneCborArray() throws Exception {
+        // Arrange
+        doAnswer(invocation -> {
+            Consumer<Task> consumer = invocation.getArgument(1);
+            consumer.accept(sampleTask);
+            return null;
+        }).when(taskService).exportTasks(eq(true), any());
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/tasks/export")
+                .param("isCompleted", "true")
+                .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        Task[] tasks = new ObjectMapper(new CBORFactory()).readValue(body, Task[].class);
+        assertEquals(1, tasks.length);
+        assertEquals("Test task", tasks[0].getDescription());
+    }
+
+    @Test
+    void getTask_AcceptCbor_ReturnsCborWithItsOwnETag() throws Exception {
+        // Arrange
+        when(taskService.findTaskById(1L)).thenReturn(Optional.of(sampleTask));
+
+        // Act
+        byte[] body = mockMvc.perform(get("/tasks/1").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string("ETag", "\"0-0+cbor\""))
+                .andExpect(header().string("Vary", "Accept"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Assert
+        Task task = new ObjectMapper(new CBORFactory()).readValue(body, Task.class);
+        assertEquals("Test task", task.getDescription());
+        assertEquals(sampleTask.getDueDate(), task.getDueDate());
+    }
+
+    @Test
+    void getTask_JsonPreferredOverSmile_ReturnsJson() throws Exception {
+        // Arrange
+        when(taskService.findTaskById(1L)).thenReturn(Optional.of(sampleTask));
+
+        // Act & Assert
+        mockMvc.perform(get("/tasks/1").header("Accept", "application/x-jackson-smile;q=0.5, application/json"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(header().string("ETag", "\"0-0\""));
+    }
+
+    @Test
+    void getCompletedTasks_AcceptSmile_StreamsTasksWithoutLoadingList() throws Exception {
+        // Arrange
+        Task completedTask = new Task("Completed 1", true, new Date());
+        completedTask.setId(2L);
+        when(taskService.findTaskSetVersion(true)).thenReturn(new TaskSetVersion(1L, 2L, 0L, null));
+        doAnswer(invocation -> {
+            Consumer<Task> consumer = invocation.getArgument(1);
+            consumer.accept(completedTask);
+            return null;
+        }).when(taskService).exportTasks(eq(true), any());
+
+        // Act
+        byte[] body = mockMvc.perform(get("/tasks/completed").accept(BinaryFormatConfig.APPLICATION_SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(BinaryFormatConfig.APPLICATION_SMILE))
+                .andExpect(header().string("ETag", "W/\"1-2-0-0+x-jackson-smile\""))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Assert
+        Task[] tasks = new ObjectMapper(new SmileFactory()).readValue(body, Task[].class);
+        assertEquals(1, tasks.length);
+        assertEquals(2L, tasks[0].getId());
+        verify(taskService, never()).findAllCompletedTasks();
+    }
+
+    @Test
+    void createTask_CborBody_ReturnsCreatedTask() throws Exception {
+        // Arrange
+        Task createdTask = new Task("New task", false, new Date());
+        createdTask.setId(1L);
+        when(taskService.createTask(any(Task.class))).thenReturn(createdTask);
+        byte[] body = new ObjectMapper(new CBORFactory()).writeValueAsBytes(new Task("New task", false, new Date()));
+
+        // Act & Assert
+        mockMvc.perform(post("/tasks")
+                .contentType(MediaType.APPLICATION_CBOR)
+                .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id", is(1)));
+    }
+
     @Test
     void getRandomBoolean_ReturnsRandomBooleanResponse() throws Exception {
         // Act & Assert
@@ -148,6 +556,38 @@ class TaskControllerTest {
         verify(taskService).createTask(any(Task.class));
     }
 
+    @Test
+    void createTasks_PartiallyValidBatch_ReturnsIdsAndErrors() throws Exception {
+        // Arrange
+        List<Task> newTasks = Arrays.asList(new Task("New task", false, null), new Task(null, false, null));
+        when(taskService.createTasks(anyList())).thenReturn(new BatchCreateResult(
+                Arrays.asList(7L, null),
+                Collections.singletonList(new BatchItemError(1, "description must not be null"))));
+
+        // Act & Assert
+        mockMvc.perform(post("/tasks/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(newTasks)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.ids", contains(7, null)))
+                .andExpect(jsonPath("$.errors[0].index", is(1)))
+                .andExpect(jsonPath("$.errors[0].message", is("description must not be null")));
+    }
+
+    @Test
+    void createTasks_AllItemsInvalid_ReturnsUnprocessableEntity() throws Exception {
+        // Arrange
+        when(taskService.createTasks(anyList())).thenReturn(new BatchCreateResult(
+                Collections.singletonList(null),
+                Collections.singletonList(new BatchItemError(0, "description must not be null"))));
+
+        // Act & Assert
+        mockMvc.perform(post("/tasks/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{}]"))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
     @Test
     void updateTaskCompletion_ExistingTask_ReturnsUpdatedTask() throws Exception {
         // Arrange
@@ -166,20 +606,79 @@ class TaskControllerTest {
         verify(taskService).updateTaskCompletionStatus(1L, true);
     }
 
+    @Test
+    void updateTaskCompletion_PreferReturnMinimal_ReturnsNoContent() throws Exception {
+        // Act & Assert
+        mockMvc.perform(put("/tasks/1/completion")
+                .param("isCompleted", "true")
+                .header("Prefer", "return=minimal"))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string("Preference-Applied", "return=minimal"))
+                .andExpect(content().string(""));
+
+        verify(taskService).setTaskCompletionStatus(1L, true);
+        verify(taskService, never()).updateTaskCompletionStatus(anyLong(), anyBoolean());
+    }
+
+    @Test
+    void updateTaskCompletion_PreferReturnMinimalOnMissingTask_ReturnsNotFound() throws Exception {
+        // Arrange
+        doThrow(new TaskNotFoundException(999L)).when(taskService).setTaskCompletionStatus(999L, true);
+
+        // Act & Assert
+        mockMvc.perform(put("/tasks/999/completion")
+                .param("isCompleted", "true")
+                .header("Prefer", "return=minimal"))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void updateTaskCompletion_NonExistingTask_ReturnsNotFound() throws Exception {
         // Arrange
         when(taskService.updateTaskCompletionStatus(anyLong(), anyBoolean()))
-                .thenThrow(new RuntimeException("Task not found"));
+                .thenThrow(new TaskNotFoundException(999L));
 
         // Act & Assert
         mockMvc.perform(put("/tasks/999/completion")
                 .param("isCompleted", "true"))
-                .andExpect(status().isNotFound());
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error", is("Task not found")));
 
         verify(taskService).updateTaskCompletionStatus(999L, true);
     }
 
+    @Test
+    void updateTaskCompletion_WriteBehind_BuffersChange() throws Exception {
+        // Arrange
+        Task bufferedTask = new Task("Test Task", true, new Date());
+        bufferedTask.setId(1L);
+        when(taskService.isWriteBehindEnabled()).thenReturn(true);
+        when(taskService.bufferTaskCompletionStatus(1L, true)).thenReturn(bufferedTask);
+
+        // Act & Assert
+        mockMvc.perform(put("/tasks/1/completion")
+                .param("isCompleted", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.isCompleted").value(true));
+
+        verify(taskService, never()).updateTaskCompletionStatus(anyLong(), anyBoolean());
+    }
+
+    @Test
+    void updateTaskCompletion_WriteBehindBufferFull_ReturnsServiceUnavailable() throws Exception {
+        // Arrange
+        when(taskService.isWriteBehindEnabled()).thenReturn(true);
+        when(taskService.bufferTaskCompletionStatus(1L, true))
+                .thenThrow(new WriteBehindBufferFullException("Write-behind buffer is full"));
+
+        // Act & Assert
+        mockMvc.perform(put("/tasks/1/completion")
+                .param("isCompleted", "true")
+                .header("Prefer", "return=minimal"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
     @Test
     void updateTaskDescription_ExistingTask_ReturnsUpdatedTask() throws Exception {
         // Arrange
@@ -203,7 +702,7 @@ class TaskControllerTest {
     void updateTaskDescription_NonExistingTask_ReturnsNotFound() throws Exception {
         // Arrange
         when(taskService.updateTaskDescription(anyLong(), anyString()))
-                .thenThrow(new RuntimeException("Task not found"));
+                .thenThrow(new TaskNotFoundException(999L));
 
         // Act & Assert
         mockMvc.perform(put("/tasks/999/description")
@@ -214,6 +713,18 @@ class TaskControllerTest {
         verify(taskService).updateTaskDescription(999L, "New description");
     }
 
+    @Test
+    void updateTaskDescription_PreferReturnMinimal_ReturnsNoContent() throws Exception {
+        // Act & Assert
+        mockMvc.perform(put("/tasks/1/description")
+                .contentType(MediaType.TEXT_PLAIN)
+                .header("Prefer", "return=minimal")
+                .content("Updated description"))
+                .andExpect(status().isNoContent());
+
+        verify(taskService).setTaskDescription(1L, "Updated description");
+    }
+
     @Test
     void deleteTask_CallsTaskService() throws Exception {
         // Act & Assert
@@ -233,4 +744,45 @@ class TaskControllerTest {
         // Verify no interaction with taskService for this error endpoint
         verifyNoInteractions(taskService);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getChinese_SimulatedError_ReturnsPreallocatedServerError() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/tasks/chinese"))
+                .andExpect(status().isInternalServerError())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.error", is("模拟异常")));
+    }
+
+    @Test
+    void getTask_ConcurrencyLimitExceeded_ReturnsServiceUnavailableWithRetryAfter() throws Exception {
+        // Arrange
+        when(taskService.findTaskById(1L)).thenThrow(new ConcurrencyLimitExceededException("Concurrency limit reached"));
+
+        // Act & Assert
+        mockMvc.perform(get("/tasks/1"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.error", is("Too many concurrent requests, retry later")));
+    }
+
+    @Test
+    void getTask_UnexpectedError_ReturnsInternalServerError() throws Exception {
+        // Arrange
+        when(taskService.findTaskById(1L)).thenThrow(new IllegalStateException("boom"));
+
+        // Act & Assert
+        mockMvc.perform(get("/tasks/1"))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.error", is("Internal Server Error")));
+    }
+
+    @Test
+    void updateTaskCompletion_MissingParameter_StillReturnsBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(put("/tasks/1/completion"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(taskService);
+    }
+}
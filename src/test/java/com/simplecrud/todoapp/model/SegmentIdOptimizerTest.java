@@ -0,0 +1,108 @@
+package com.simplecrud.todoapp.model;
+
+import org.hibernate.id.IdentifierGeneratorHelper;
+import org.hibernate.id.IntegralDataTypeHolder;
+import org.hibernate.id.enhanced.AccessCallback;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SegmentIdOptimizerTest {
+
+    @Test
+    void generate_HandsOutConsecutiveIdsFromOneReservedBlock() {
+        // Arrange
+        FakeSequence sequence = new FakeSequence(1, 10);
+        SegmentIdOptimizer optimizer = new SegmentIdOptimizer(Long.class, 10);
+
+        // Act & Assert
+        for (long expected = 1; expected <= 10; expected++) {
+            assertEquals(expected, optimizer.generate(sequence));
+        }
+        assertEquals(1, sequence.accesses.get());
+
+        assertEquals(11L, optimizer.generate(sequence));
+        assertEquals(2, sequence.accesses.get());
+        assertEquals(11L, optimizer.getLastSourceValue().makeValue().longValue());
+    }
+
+    @Test
+    void generate_ContinuesAfterExistingIdsWhenSequenceStartsHigh() {
+        // Arrange - sequence seeded past existing rows by the migration
+        FakeSequence sequence = new FakeSequence(21001, 100);
+        SegmentIdOptimizer optimizer = new SegmentIdOptimizer(Long.class, 100);
+
+        // Act & Assert
+        assertEquals(21001L, optimizer.generate(sequence));
+        assertEquals(21002L, optimizer.generate(sequence));
+    }
+
+    @Test
+    void generate_ConcurrentCallers_NeverReturnDuplicateIds() throws Exception {
+        // Arrange
+        int threads = 8;
+        int idsPerThread = 10_000;
+        FakeSequence sequence = new FakeSequence(1, 50);
+        SegmentIdOptimizer optimizer = new SegmentIdOptimizer(Long.class, 50);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        // Act
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < idsPerThread; i++) {
+                    ids.add((Long) optimizer.generate(sequence));
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        // Assert - every id is unique and no block was reserved without being used up
+        assertEquals(threads * idsPerThread, ids.size());
+        assertEquals(threads * idsPerThread / 50, sequence.accesses.get());
+    }
+
+    @Test
+    void constructor_NonPositiveIncrement_ThrowsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> new SegmentIdOptimizer(Long.class, 0));
+    }
+
+    // Stands in for the task_seq sequence/table: each access reserves the next block
+    private static class FakeSequence implements AccessCallback {
+
+        private final AtomicLong nextValue;
+        private final int incrementSize;
+        private final AtomicInteger accesses = new AtomicInteger();
+
+        FakeSequence(long initialValue, int incrementSize) {
+            this.nextValue = new AtomicLong(initialValue);
+            this.incrementSize = incrementSize;
+        }
+
+        @Override
+        public IntegralDataTypeHolder getNextValue() {
+            accesses.incrementAndGet();
+            return IdentifierGeneratorHelper.getIntegralDataTypeHolder(Long.class)
+                    .initialize(nextValue.getAndAdd(incrementSize));
+        }
+
+        @Override
+        public String getTenantIdentifier() {
+            return null;
+        }
+    }
+}
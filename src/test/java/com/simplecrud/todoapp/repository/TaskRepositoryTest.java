@@ -1,15 +1,23 @@
 package com.simplecrud.todoapp.repository;
 
+import com.simplecrud.todoapp.dto.TaskChangeRow;
+import com.simplecrud.todoapp.dto.TaskDueDate;
+import com.simplecrud.todoapp.dto.TaskSetVersion;
+import com.simplecrud.todoapp.dto.TaskVersion;
+import com.simplecrud.todoapp.dto.TaskView;
 import com.simplecrud.todoapp.model.Task;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -180,4 +188,311 @@ class TaskRepositoryTest {
         assertEquals(2, initialCount);
         assertEquals(3, newCount);
     }
-}
\ No newline at end of file
+
+    @Test
+    void findViewsByIsCompletedAndIdGreaterThan_ReturnsNextKeysetPageInIdOrder() {
+        // Arrange
+        Task second = entityManager.persistAndFlush(new Task("Second completed", true, new Date()));
+        Task third = entityManager.persistAndFlush(new Task("Third completed", true, new Date()));
+
+        // Act
+        List<TaskView> firstPage = taskRepository.findViewsByIsCompletedAndIdGreaterThanOrderByIdAsc(
+                true, 0L, PageRequest.of(0, 2));
+        List<TaskView> secondPage = taskRepository.findViewsByIsCompletedAndIdGreaterThanOrderByIdAsc(
+                true, firstPage.get(1).getId(), PageRequest.of(0, 2));
+
+        // Assert
+        assertEquals(2, firstPage.size());
+        assertEquals(completedTask.getId(), firstPage.get(0).getId());
+        assertEquals(second.getId(), firstPage.get(1).getId());
+        assertEquals(1, secondPage.size());
+        assertEquals(third.getId(), secondPage.get(0).getId());
+    }
+
+    @Test
+    void streamByIsCompletedOrderByIdAsc_ReturnsMatchingTasksInIdOrder() {
+        // Arrange
+        Task anotherCompletedTask = entityManager.persistAndFlush(new Task("Another completed task", true, new Date()));
+
+        // Act
+        List<Long> ids;
+        try (Stream<Task> tasks = taskRepository.streamByIsCompletedOrderByIdAsc(true)) {
+            ids = tasks.map(Task::getId).collect(Collectors.toList());
+        }
+
+        // Assert
+        assertEquals(List.of(completedTask.getId(), anotherCompletedTask.getId()), ids);
+    }
+
+    @Test
+    void streamAllByOrderByIdAsc_ReturnsEveryTask() {
+        // Act
+        long count;
+        try (Stream<Task> tasks = taskRepository.streamAllByOrderByIdAsc()) {
+            count = tasks.count();
+        }
+
+        // Assert
+        assertEquals(2, count);
+    }
+
+    @Test
+    void save_NewTask_AssignsIdBeforeFlush() {
+        // Arrange
+        Task newTask = new Task("Batched insert task", false, new Date());
+
+        // Act - persist without flushing; a pre-allocated id needs no INSERT round trip
+        entityManager.persist(newTask);
+
+        // Assert
+        assertNotNull(newTask.getId());
+        assertTrue(newTask.getId() > uncompletedTask.getId());
+    }
+
+    @Test
+    void updateCompletionStatus_ChangedValue_UpdatesOneRow() {
+        // Act
+        int updated = taskRepository.updateCompletionStatus(uncompletedTask.getId(), true, new Date());
+
+        // Assert
+        assertEquals(1, updated);
+        assertTrue(taskRepository.findById(uncompletedTask.getId()).get().getIsCompleted());
+    }
+
+    @Test
+    void updateCompletionStatus_SameValueOrMissingTask_UpdatesNothing() {
+        // Act & Assert
+        assertEquals(0, taskRepository.updateCompletionStatus(completedTask.getId(), true, new Date()));
+        assertEquals(0, taskRepository.updateCompletionStatus(999_999L, true, new Date()));
+    }
+
+    @Test
+    void updateDescription_ChangedValue_UpdatesDescriptionAndTimestamp() {
+        // Arrange
+        Date updatedAt = new Date(completedTask.getUpdatedAt().getTime() + 60_000);
+
+        // Act
+        int updated = taskRepository.updateDescription(completedTask.getId(), "Renamed", updatedAt);
+
+        // Assert
+        assertEquals(1, updated);
+        Task reloaded = taskRepository.findById(completedTask.getId()).get();
+        assertEquals("Renamed", reloaded.getDescription());
+        assertEquals(updatedAt.getTime(), reloaded.getUpdatedAt().getTime());
+        assertEquals(0, taskRepository.updateDescription(completedTask.getId(), "Renamed", new Date()));
+    }
+
+    @Test
+    void lockIdsWithCompletionStatusOtherThan_ReturnsOnlyIdsThatWouldChange() {
+        // Act
+        List<Long> ids = taskRepository.lockIdsWithCompletionStatusOtherThan(
+                List.of(completedTask.getId(), uncompletedTask.getId(), 999_999L), true);
+
+        // Assert
+        assertEquals(List.of(uncompletedTask.getId()), ids);
+    }
+
+    @Test
+    void updateCompletionStatusByIdIn_UpdatesEveryListedRow() {
+        // Act
+        int updated = taskRepository.updateCompletionStatusByIdIn(
+                List.of(completedTask.getId(), uncompletedTask.getId()), false, new Date());
+
+        // Assert
+        assertEquals(2, updated);
+        assertEquals(2, taskRepository.countByIsCompleted(false));
+    }
+
+    @Test
+    void updateCompletionStatus_ChangedValue_BumpsVersion() {
+        // Arrange
+        long version = uncompletedTask.getVersion();
+
+        // Act
+        taskRepository.updateCompletionStatus(uncompletedTask.getId(), true, new Date());
+
+        // Assert
+        TaskVersion found = taskRepository.findVersionById(uncompletedTask.getId()).orElseThrow();
+        assertEquals(version + 1, found.getVersion());
+        assertTrue(found.isCompleted());
+    }
+
+    @Test
+    void findSetVersionByIsCompleted_MatchesSummaryOfLoadedTasks() {
+        // Act
+        TaskSetVersion fromQuery = taskRepository.findSetVersionByIsCompleted(true);
+        TaskSetVersion fromRows = TaskSetVersion.of(taskRepository.findViewsByIsCompleted(true));
+
+        // Assert
+        assertEquals(1, fromQuery.getCount());
+        assertEquals(fromRows.toETag(), fromQuery.toETag());
+    }
+
+    @Test
+    void findSetVersionByIsCompleted_EmptySet_ReturnsZeroSummary() {
+        // Arrange
+        taskRepository.deleteAll();
+
+        // Act
+        TaskSetVersion version = taskRepository.findSetVersionByIsCompleted(true);
+
+        // Assert
+        assertEquals(0, version.getCount());
+        assertEquals(TaskSetVersion.of(List.of()).toETag(), version.toETag());
+    }
+
+    @Test
+    void findViewsByIsCompleted_ReturnsUnmanagedProjections() {
+        // Act
+        List<TaskView> views = taskRepository.findViewsByIsCompleted(true);
+
+        // Assert
+        assertEquals(1, views.size());
+        TaskView view = views.get(0);
+        assertEquals(completedTask.getId(), view.getId());
+        assertEquals("Completed task", view.getDescription());
+        assertTrue(view.getIsCompleted());
+        assertEquals(completedTask.getVersion(), view.getVersion());
+        assertNotNull(view.getCreatedAt());
+    }
+
+    @Test
+    void softDeleteById_HidesTaskFromEveryRead() {
+        // Arrange
+        Long taskId = completedTask.getId();
+
+        // Act
+        int deleted = taskRepository.softDeleteById(taskId, new Date());
+
+        // Assert
+        assertEquals(1, deleted);
+        assertFalse(taskRepository.findById(taskId).isPresent());
+        assertFalse(taskRepository.existsById(taskId));
+        assertFalse(taskRepository.findVersionById(taskId).isPresent());
+        assertTrue(taskRepository.findViewsByIsCompleted(true).isEmpty());
+        assertTrue(taskRepository.findByIsCompleted(true).isEmpty());
+        assertEquals(0, taskRepository.countByIsCompleted(true));
+        assertEquals(1, taskRepository.count());
+        assertEquals(0, taskRepository.softDeleteById(taskId, new Date()));
+    }
+
+    @Test
+    void lockCompletionStatusById_ReadsLiveTasksOnly() {
+        // Arrange
+        taskRepository.softDeleteById(uncompletedTask.getId(), new Date());
+
+        // Act & Assert
+        assertEquals(Optional.of(true), taskRepository.lockCompletionStatusById(completedTask.getId()));
+        assertTrue(taskRepository.lockCompletionStatusById(uncompletedTask.getId()).isEmpty());
+        assertTrue(taskRepository.lockCompletionStatusById(999L).isEmpty());
+    }
+
+    @Test
+    void updateCompletionStatus_SoftDeletedTask_MatchesNothing() {
+        // Arrange
+        taskRepository.softDeleteById(uncompletedTask.getId(), new Date());
+
+        // Act
+        int updated = taskRepository.updateCompletionStatus(uncompletedTask.getId(), true, new Date());
+
+        // Assert
+        assertEquals(0, updated);
+        assertEquals(1, taskRepository.countByIsCompleted(true));
+    }
+
+    @Test
+    void findTombstoneIds_ReturnsOnlyTombstonesOlderThanCutoff() {
+        // Arrange
+        Date deletedAt = new Date(System.currentTimeMillis() - 60_000);
+        taskRepository.softDeleteById(completedTask.getId(), deletedAt);
+
+        // Act
+        List<Long> expired = taskRepository.findTombstoneIds(new Date(), 10);
+        List<Long> notYetExpired = taskRepository.findTombstoneIds(new Date(deletedAt.getTime() - 1), 10);
+
+        // Assert
+        assertEquals(List.of(completedTask.getId()), expired);
+        assertTrue(notYetExpired.isEmpty());
+    }
+
+    @Test
+    void deleteTombstonesByIdIn_LeavesLiveTasksAlone() {
+        // Arrange
+        taskRepository.softDeleteById(completedTask.getId(), new Date());
+
+        // Act
+        int purged = taskRepository.deleteTombstonesByIdIn(List.of(completedTask.getId(), uncompletedTask.getId()));
+
+        // Assert
+        assertEquals(1, purged);
+        assertTrue(taskRepository.findTombstoneIds(new Date(System.currentTimeMillis() + 60_000), 10).isEmpty());
+        assertTrue(taskRepository.existsById(uncompletedTask.getId()));
+    }
+
+    @Test
+    void findChangesAfter_ReturnsLiveAndDeletedRowsInUpdatedOrder() {
+        // Arrange
+        long now = System.currentTimeMillis();
+        Date updatedAt = new Date(now + 1_000);
+        Date deletedAt = new Date(now + 2_000);
+        taskRepository.updateDescription(completedTask.getId(), "Changed", updatedAt);
+        taskRepository.softDeleteById(uncompletedTask.getId(), deletedAt);
+
+        // Act
+        List<TaskChangeRow> all = taskRepository.findChangesAfter(new Date(0), 0L, deletedAt, 10);
+        List<TaskChangeRow> afterFirst = taskRepository.findChangesAfter(updatedAt, completedTask.getId(),
+                deletedAt, 10);
+        List<TaskChangeRow> settled = taskRepository.findChangesAfter(new Date(0), 0L, updatedAt, 10);
+
+        // Assert
+        assertEquals(List.of(completedTask.getId(), uncompletedTask.getId()),
+                all.stream().map(TaskChangeRow::getId).collect(Collectors.toList()));
+        TaskChangeRow changed = all.get(0);
+        assertEquals("Changed", changed.getDescription());
+        assertTrue(changed.getIsCompleted());
+        assertEquals(updatedAt.getTime(), changed.getUpdatedAt().getTime());
+        assertEquals(completedTask.getVersion() + 1, changed.getVersion());
+        assertNull(changed.getDeletedAt());
+        assertEquals(deletedAt.getTime(), all.get(1).getDeletedAt().getTime());
+        assertEquals(List.of(uncompletedTask.getId()),
+                afterFirst.stream().map(TaskChangeRow::getId).collect(Collectors.toList()));
+        assertEquals(List.of(completedTask.getId()),
+                settled.stream().map(TaskChangeRow::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void findDueDates_ReadUncompletedLiveTasksInKeysetChunks() {
+        // Arrange - same due date for two tasks so the id breaks the tie
+        Date due = new Date(uncompletedTask.getDueDate().getTime() + 60_000);
+        Task second = entityManager.persistAndFlush(new Task("Second", false, due));
+        Task third = entityManager.persistAndFlush(new Task("Third", false, due));
+        Task deleted = entityManager.persistAndFlush(new Task("Deleted", false, due));
+        entityManager.persistAndFlush(new Task("No due date", false, null));
+        taskRepository.softDeleteById(deleted.getId(), new Date());
+        Date before = new Date(due.getTime() + 1);
+
+        // Act
+        List<TaskDueDate> first = taskRepository.findDueDatesBefore(before, PageRequest.of(0, 2));
+        TaskDueDate last = first.get(first.size() - 1);
+        List<TaskDueDate> next = taskRepository.findDueDatesAfter(last.getDueDate(), last.getId(), before,
+                PageRequest.of(0, 2));
+
+        // Assert
+        assertEquals(List.of(uncompletedTask.getId(), second.getId()),
+                first.stream().map(TaskDueDate::getId).collect(Collectors.toList()));
+        assertEquals(List.of(third.getId()), next.stream().map(TaskDueDate::getId).collect(Collectors.toList()));
+        assertEquals(due.getTime(), taskRepository.findDueDateById(third.getId()).orElseThrow().getTime());
+    }
+
+    @Test
+    void findViewsByIdIn_ReturnsOnlyLiveRequestedTasks() {
+        // Arrange
+        taskRepository.softDeleteById(completedTask.getId(), new Date());
+
+        // Act
+        List<TaskView> views = taskRepository.findViewsByIdIn(List.of(completedTask.getId(), uncompletedTask.getId()));
+
+        // Assert
+        assertEquals(List.of(uncompletedTask.getId()), views.stream().map(TaskView::getId).collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,171 @@
+package com.simplecrud.todoapp.repository;
+
+import com.simplecrud.todoapp.dto.TaskView;
+import com.simplecrud.todoapp.model.Task;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Every repository call commits on its own: the cache regions are only updated when a transaction completes
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TaskSecondLevelCacheTest {
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Cache cache;
+    private Statistics statistics;
+    private Task task;
+
+    @BeforeEach
+    void setUp() {
+        cache = entityManagerFactory.getCache();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        task = taskRepository.save(new Task("Cached task", false, new Date()));
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        taskRepository.deleteAll();
+        cache.evictAll();
+    }
+
+    @Test
+    void findById_AfterSave_IsServedFromEntityRegion() {
+        // Act
+        Task found = taskRepository.findById(task.getId()).orElseThrow();
+
+        // Assert
+        assertEquals("Cached task", found.getDescription());
+        assertTrue(cache.contains(Task.class, task.getId()));
+        assertEquals(1, regionStatistics(Task.CACHE_REGION).getHitCount());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void updateCompletionStatus_EvictsUpdatedTask() {
+        // Act
+        taskRepository.updateCompletionStatus(task.getId(), true, new Date());
+
+        // Assert
+        assertFalse(cache.contains(Task.class, task.getId()));
+        Task found = taskRepository.findById(task.getId()).orElseThrow();
+        assertTrue(found.getIsCompleted());
+        assertEquals(1L, found.getVersion());
+    }
+
+    @Test
+    void updates_LeaveOtherCachedTasksInPlace() {
+        // Arrange
+        Task other = taskRepository.save(new Task("Other task", false, null));
+        statistics.clear();
+
+        // Act
+        taskRepository.updateDescription(task.getId(), "Renamed", new Date());
+        taskRepository.updateCompletionStatus(task.getId(), true, new Date());
+
+        // Assert - only the two UPDATEs reached the database
+        assertTrue(cache.contains(Task.class, other.getId()));
+        assertEquals("Other task", taskRepository.findById(other.getId()).orElseThrow().getDescription());
+        assertEquals(1, regionStatistics(Task.CACHE_REGION).getHitCount());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void delete_TaskIsNoLongerServedFromEntityRegion() {
+        // Act
+        taskRepository.deleteById(task.getId());
+
+        // Assert: READ_WRITE leaves a lock entry behind for a while, but never serves it
+        statistics.clear();
+        assertFalse(taskRepository.findById(task.getId()).isPresent());
+        assertEquals(0, regionStatistics(Task.CACHE_REGION).getHitCount());
+    }
+
+    @Test
+    void findViewsByIsCompleted_RepeatedQuery_IsServedFromQueryCache() {
+        // Act
+        taskRepository.findViewsByIsCompleted(false);
+        List<TaskView> second = taskRepository.findViewsByIsCompleted(false);
+
+        // Assert
+        assertEquals(List.of(task.getId()), ids(second));
+        CacheRegionStatistics queries = regionStatistics(Task.QUERY_CACHE_REGION);
+        assertEquals(1, queries.getMissCount());
+        assertEquals(1, queries.getHitCount());
+    }
+
+    @Test
+    void findViewsByIsCompleted_AfterUpdate_IsReadAgain() {
+        // Arrange
+        taskRepository.findViewsByIsCompleted(false);
+
+        // Act
+        taskRepository.updateCompletionStatus(task.getId(), true, new Date());
+
+        // Assert
+        assertTrue(taskRepository.findViewsByIsCompleted(false).isEmpty());
+        assertEquals(List.of(task.getId()), ids(taskRepository.findViewsByIsCompleted(true)));
+    }
+
+    @Test
+    void findByIsCompleted_AfterEntityInsert_IsReadAgain() {
+        // Arrange
+        taskRepository.findByIsCompleted(false);
+
+        // Act
+        Task added = taskRepository.save(new Task("Added task", false, null));
+
+        // Assert
+        List<Task> found = taskRepository.findByIsCompleted(false);
+        assertEquals(List.of(task.getId(), added.getId()),
+                found.stream().map(Task::getId).sorted().collect(Collectors.toList()));
+    }
+
+    @Test
+    void deleteTombstonesByIdIn_LeavesCachedLiveTasksAndQueriesInPlace() {
+        // Arrange
+        Task deleted = taskRepository.save(new Task("Deleted task", false, null));
+        taskRepository.softDeleteById(deleted.getId(), new Date());
+        taskRepository.findById(task.getId());
+        taskRepository.findViewsByIsCompleted(false);
+        statistics.clear();
+
+        // Act
+        int purged = taskRepository.deleteTombstonesByIdIn(List.of(deleted.getId()));
+
+        // Assert
+        assertEquals(1, purged);
+        assertTrue(cache.contains(Task.class, task.getId()));
+        assertEquals(List.of(task.getId()), ids(taskRepository.findViewsByIsCompleted(false)));
+        assertEquals(1, regionStatistics(Task.QUERY_CACHE_REGION).getHitCount());
+    }
+
+    private CacheRegionStatistics regionStatistics(String region) {
+        return statistics.getCacheRegionStatistics(region);
+    }
+
+    private static List<Long> ids(List<TaskView> views) {
+        return views.stream().map(TaskView::getId).collect(Collectors.toList());
+    }
+}
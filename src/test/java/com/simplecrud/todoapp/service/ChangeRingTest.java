@@ -0,0 +1,60 @@
+package com.simplecrud.todoapp.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeRingTest {
+
+    @Test
+    void append_AssignsSequencesFromOne() {
+        // Arrange
+        ChangeRing<String> ring = new ChangeRing<>(4);
+
+        // Act
+        long first = ring.append("a");
+        long second = ring.append("b");
+
+        // Assert
+        assertEquals(1, first);
+        assertEquals(2, second);
+        assertEquals("a", ring.get(1));
+        assertEquals("b", ring.get(2));
+        assertNull(ring.get(3));
+        assertEquals(1, ring.oldestSequence());
+    }
+
+    @Test
+    void get_OverwrittenSequence_ReturnsNull() {
+        // Arrange
+        ChangeRing<String> ring = new ChangeRing<>(4);
+        for (int i = 1; i <= 6; i++) {
+            ring.append("v" + i);
+        }
+
+        // Act & Assert
+        assertNull(ring.get(2));
+        assertEquals("v3", ring.get(3));
+        assertEquals("v6", ring.get(6));
+        assertEquals(3, ring.oldestSequence());
+        assertEquals(6, ring.lastSequence());
+    }
+
+    @Test
+    void emptyRing_HasNothingToRead() {
+        // Arrange
+        ChangeRing<String> ring = new ChangeRing<>(2);
+
+        // Act & Assert
+        assertEquals(0, ring.lastSequence());
+        assertEquals(1, ring.oldestSequence());
+        assertNull(ring.get(1));
+    }
+
+    @Test
+    void constructor_CapacityNotPowerOfTwo_Throws() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new ChangeRing<>(6));
+        assertThrows(IllegalArgumentException.class, () -> new ChangeRing<>(1));
+    }
+}
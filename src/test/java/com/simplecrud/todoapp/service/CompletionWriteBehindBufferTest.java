@@ -0,0 +1,149 @@
+package com.simplecrud.todoapp.service;
+
+import com.simplecrud.todoapp.event.TaskChangedEvent;
+import com.simplecrud.todoapp.exceptions.WriteBehindBufferFullException;
+import com.simplecrud.todoapp.repository.TaskRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CompletionWriteBehindBufferTest {
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    private CompletionWriteBehindBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        // A long interval keeps the scheduled flush out of the way; tests flush explicitly
+        buffer = new CompletionWriteBehindBuffer(taskRepository, cacheManager, transactionManager, eventPublisher,
+                meterRegistry, Duration.ofHours(1), 100, 2, Duration.ZERO);
+        buffer.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (buffer.isRunning()) {
+            buffer.stop();
+        }
+    }
+
+    @Test
+    void accept_SameTaskTwice_KeepsOnlyTheLastValue() {
+        // Act
+        buffer.accept(1L, true);
+        buffer.accept(1L, false);
+
+        // Assert
+        assertEquals(1, buffer.getPendingCount());
+        assertEquals(false, buffer.pendingCompletionStatus(1L));
+        assertNull(buffer.pendingCompletionStatus(2L));
+    }
+
+    @Test
+    void accept_BufferFull_RejectsNewTasksButCoalescesPendingOnes() {
+        // Arrange
+        buffer.accept(1L, true);
+        buffer.accept(2L, true);
+
+        // Act & Assert
+        assertThrows(WriteBehindBufferFullException.class, () -> buffer.accept(3L, true));
+        buffer.accept(2L, false);
+        assertEquals(2, buffer.getPendingCount());
+    }
+
+    @Test
+    void flush_WritesOneUpdatePerValueAndPublishesOnlyChangedRows() {
+        // Arrange
+        Cache cache = new ConcurrentMapCache(TaskService.TASKS_CACHE);
+        cache.put(1L, "stale");
+        when(cacheManager.getCache(TaskService.TASKS_CACHE)).thenReturn(cache);
+        when(taskRepository.lockIdsWithCompletionStatusOtherThan(List.of(1L), true)).thenReturn(List.of(1L));
+        when(taskRepository.lockIdsWithCompletionStatusOtherThan(List.of(2L), false)).thenReturn(List.of());
+        buffer.accept(1L, true);
+        buffer.accept(2L, false);
+
+        // Act
+        buffer.flush();
+
+        // Assert
+        verify(taskRepository).updateCompletionStatusByIdIn(eq(List.of(1L)), eq(true), any(Date.class));
+        verify(taskRepository, never()).updateCompletionStatusByIdIn(anyCollection(), eq(false), any(Date.class));
+        ArgumentCaptor<TaskChangedEvent> event = ArgumentCaptor.forClass(TaskChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(1L, event.getValue().getTaskId());
+        assertTrue(event.getValue().isCompletionChanged());
+        assertEquals(0, buffer.getPendingCount());
+        assertNull(buffer.pendingCompletionStatus(1L));
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    void flush_DatabaseFailure_KeepsChangesForTheNextFlush() {
+        // Arrange
+        when(taskRepository.lockIdsWithCompletionStatusOtherThan(anyCollection(), anyBoolean()))
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(List.of(1L));
+        buffer.accept(1L, true);
+
+        // Act
+        buffer.flush();
+
+        // Assert
+        assertEquals(true, buffer.pendingCompletionStatus(1L));
+        buffer.flush();
+        verify(taskRepository).updateCompletionStatusByIdIn(eq(List.of(1L)), eq(true), any(Date.class));
+        assertNull(buffer.pendingCompletionStatus(1L));
+    }
+
+    @Test
+    void stop_FlushesPendingChangesAndRejectsNewOnes() {
+        // Arrange
+        when(taskRepository.lockIdsWithCompletionStatusOtherThan(anyCollection(), eq(true))).thenReturn(List.of(1L));
+        buffer.accept(1L, true);
+
+        // Act
+        buffer.stop();
+
+        // Assert
+        verify(taskRepository).updateCompletionStatusByIdIn(eq(List.of(1L)), eq(true), any(Date.class));
+        assertThrows(WriteBehindBufferFullException.class, () -> buffer.accept(2L, true));
+    }
+}
@@ -0,0 +1,152 @@
+package com.simplecrud.todoapp.service;
+
+import com.simplecrud.todoapp.dto.TaskDueDate;
+import com.simplecrud.todoapp.event.TaskChangedEvent;
+import com.simplecrud.todoapp.event.TaskOverdueEvent;
+import com.simplecrud.todoapp.model.Task;
+import com.simplecrud.todoapp.repository.TaskRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OverdueTaskSchedulerTest {
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private OverdueTaskScheduler scheduler;
+    private long now;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new OverdueTaskScheduler(taskRepository, eventPublisher, Duration.ofSeconds(1),
+                Duration.ofMinutes(10), Duration.ofMinutes(1), 2);
+        now = System.currentTimeMillis();
+    }
+
+    @Test
+    void initialize_LoadsOverdueWithoutEventsAndFiresUpcomingOnTheirTick() {
+        // Arrange: three rows in chunks of two
+        when(taskRepository.findDueDatesBefore(any(Date.class), any(Pageable.class)))
+                .thenReturn(List.of(due(1L, now - 60_000), due(2L, now + 5_000)));
+        when(taskRepository.findDueDatesAfter(eq(new Date(now + 5_000)), eq(2L), any(Date.class), any(Pageable.class)))
+                .thenReturn(List.of(due(3L, now + 30_000)));
+
+        // Act
+        scheduler.initialize(now);
+        scheduler.advance(now + 6_000);
+
+        // Assert
+        assertEquals(List.of(1L, 2L), overdueIds());
+        ArgumentCaptor<TaskOverdueEvent> event = ArgumentCaptor.forClass(TaskOverdueEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(2L, event.getValue().getTaskId());
+    }
+
+    @Test
+    void onTaskChanged_CreateCompleteAndDelete_KeepOverdueSetInSync() {
+        // Arrange
+        initializeEmpty();
+        Task soon = task(1L, now + 2_000);
+        Task later = task(2L, now + 3_000);
+        Task beyondHorizon = task(3L, now + Duration.ofHours(1).toMillis());
+
+        // Act
+        scheduler.onTaskChanged(TaskChangedEvent.created(soon));
+        scheduler.onTaskChanged(TaskChangedEvent.created(later));
+        scheduler.onTaskChanged(TaskChangedEvent.created(beyondHorizon));
+        scheduler.onTaskChanged(TaskChangedEvent.completionChanged(2L, true, null));
+        scheduler.advance(now + 5_000);
+
+        // Assert
+        assertEquals(List.of(1L), overdueIds());
+        scheduler.onTaskChanged(TaskChangedEvent.deleted(1L, false));
+        assertEquals(0, scheduler.overdueCount());
+    }
+
+    @Test
+    void onTaskChanged_ReopenedOverdueTask_FiresAtOnce() {
+        // Arrange
+        initializeEmpty();
+        when(taskRepository.findDueDateById(5L)).thenReturn(Optional.of(new Date(now - 1_000)));
+
+        // Act
+        scheduler.onTaskChanged(TaskChangedEvent.completionChanged(5L, false, null));
+
+        // Assert
+        assertEquals(List.of(5L), overdueIds());
+        verify(eventPublisher).publishEvent(any(TaskOverdueEvent.class));
+    }
+
+    @Test
+    void findOverdue_ReopenedTaskWithOlderDueDate_ComesFirst() {
+        // Arrange
+        initializeEmpty();
+        scheduler.onTaskChanged(TaskChangedEvent.created(task(1L, now + 2_000)));
+        scheduler.advance(now + 3_000);
+        when(taskRepository.findDueDateById(5L)).thenReturn(Optional.of(new Date(now - 60_000)));
+
+        // Act
+        scheduler.onTaskChanged(TaskChangedEvent.completionChanged(5L, false, null));
+
+        // Assert
+        assertEquals(List.of(5L, 1L), overdueIds());
+        assertEquals(List.of(5L), scheduler.findOverdue(1).stream().map(TaskDueDate::getId)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    void loadAhead_ReadsOnlyTheNextStretch() {
+        // Arrange
+        initializeEmpty();
+        Date previousEnd = new Date(now + Duration.ofMinutes(10).toMillis());
+        when(taskRepository.findDueDatesAfter(eq(previousEnd), eq(Long.MIN_VALUE), any(Date.class),
+                any(Pageable.class))).thenReturn(List.of(due(9L, previousEnd.getTime() + 1_000)));
+
+        // Act
+        scheduler.loadAhead(now + 60_000);
+        scheduler.advance(previousEnd.getTime() + 2_000);
+
+        // Assert
+        assertEquals(List.of(9L), overdueIds());
+    }
+
+    private void initializeEmpty() {
+        when(taskRepository.findDueDatesBefore(any(Date.class), any(Pageable.class))).thenReturn(List.of());
+        scheduler.initialize(now);
+    }
+
+    private List<Long> overdueIds() {
+        return scheduler.findOverdue(100).stream().map(TaskDueDate::getId).collect(Collectors.toList());
+    }
+
+    private static TaskDueDate due(Long id, long dueMillis) {
+        return new TaskDueDate(id, new Date(dueMillis));
+    }
+
+    private static Task task(Long id, long dueMillis) {
+        Task task = new Task("Task " + id, false, new Date(dueMillis));
+        task.setId(id);
+        return task;
+    }
+}
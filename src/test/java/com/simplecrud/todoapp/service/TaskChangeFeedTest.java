@@ -0,0 +1,282 @@
+package com.simplecrud.todoapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.simplecrud.todoapp.event.TaskChangedEvent;
+import com.simplecrud.todoapp.model.Task;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskChangeFeedTest {
+
+    private MeterRegistry meterRegistry;
+    private StaticListableBeanFactory beanFactory;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("meterRegistry", meterRegistry);
+    }
+
+    @Test
+    void onTaskChanged_WritesPreparedFrameToSubscribers() {
+        // Arrange
+        TaskChangeFeed feed = feed(16, 10, Runnable::run);
+        RecordingEmitter first = new RecordingEmitter();
+        RecordingEmitter second = new RecordingEmitter();
+        feed.subscribe(null, null, first);
+        feed.subscribe(null, null, second);
+
+        // Act
+        feed.onTaskChanged(TaskChangedEvent.created(task(1L, false)));
+        feed.onTaskChanged(TaskChangedEvent.deleted(1L, false));
+
+        // Assert
+        assertEquals(2, first.frames.size());
+        assertTrue(first.frames.get(0).matches("id:\\d+-1\nevent:created\ndata:\\{\"type\":\"created\",\"id\":1,"
+                + "\"isCompleted\":false,\"task\":\\{.*}}\n\n"), first.frames.get(0));
+        assertTrue(first.frames.get(1).endsWith("\nevent:deleted\ndata:{\"type\":\"deleted\",\"id\":1,"
+                + "\"isCompleted\":false}\n\n"), first.frames.get(1));
+        assertEquals(first.frames, second.frames);
+    }
+
+    @Test
+    void subscribe_CompletionFilter_KeepsChangesInOrLeavingThatState() {
+        // Arrange
+        TaskChangeFeed feed = feed(16, 10, Runnable::run);
+        RecordingEmitter completed = new RecordingEmitter();
+        feed.subscribe(true, null, completed);
+
+        // Act
+        feed.onTaskChanged(TaskChangedEvent.created(task(1L, false)));
+        feed.onTaskChanged(TaskChangedEvent.created(task(2L, true)));
+        feed.onTaskChanged(TaskChangedEvent.completionChanged(2L, false, null));
+        feed.onTaskChanged(TaskChangedEvent.updated(3L, null));
+        feed.onTaskChanged(TaskChangedEvent.deleted(1L, false));
+
+        // Assert: task 2 created, task 2 reopened, task 3 of unknown state
+        assertEquals(List.of("created", "updated", "updated"), eventNames(completed));
+    }
+
+    @Test
+    void subscribe_LastEventIdInRing_ReplaysMissedEvents() {
+        // Arrange
+        TaskChangeFeed feed = feed(16, 10, Runnable::run);
+        RecordingEmitter earlier = new RecordingEmitter();
+        feed.subscribe(null, null, earlier);
+        for (long id = 1; id <= 3; id++) {
+            feed.onTaskChanged(TaskChangedEvent.deleted(id, false));
+        }
+        RecordingEmitter resumed = new RecordingEmitter();
+
+        // Act
+        feed.subscribe(null, eventId(earlier.frames.get(0)), resumed);
+
+        // Assert
+        assertEquals(earlier.frames.subList(1, 3), resumed.frames);
+    }
+
+    @Test
+    void subscribe_UnknownLastEventId_SendsResyncThenContinuesLive() {
+        // Arrange
+        TaskChangeFeed feed = feed(16, 10, Runnable::run);
+        feed.onTaskChanged(TaskChangedEvent.deleted(1L, false));
+        RecordingEmitter emitter = new RecordingEmitter();
+
+        // Act
+        feed.subscribe(null, "12345-1", emitter);
+        feed.onTaskChanged(TaskChangedEvent.deleted(2L, false));
+
+        // Assert
+        assertEquals(List.of(TaskChangeFeed.RESYNC_EVENT, "deleted"), eventNames(emitter));
+        assertTrue(eventId(emitter.frames.get(0)).endsWith("-1"));
+        assertFalse(emitter.completed);
+        assertEquals(1.0, meterRegistry.counter(TaskChangeFeed.RESYNCS_METRIC_NAME, "reason", "stale").count());
+    }
+
+    @Test
+    void laggingSubscriber_GetsResyncAndIsDisconnected() {
+        // Arrange: dispatch only runs when the test says so
+        List<Runnable> queued = new ArrayList<>();
+        TaskChangeFeed feed = feed(4, 10, queued::add);
+        RecordingEmitter emitter = new RecordingEmitter();
+        feed.subscribe(null, null, emitter);
+        for (long id = 1; id <= 6; id++) {
+            feed.onTaskChanged(TaskChangedEvent.deleted(id, false));
+        }
+
+        // Act
+        new ArrayList<>(queued).forEach(Runnable::run);
+
+        // Assert
+        assertEquals(List.of(TaskChangeFeed.RESYNC_EVENT), eventNames(emitter));
+        assertTrue(eventId(emitter.frames.get(0)).endsWith("-6"));
+        assertTrue(emitter.completed);
+        assertEquals(0, feed.getSubscriberCount());
+        assertEquals(1.0, meterRegistry.counter(TaskChangeFeed.RESYNCS_METRIC_NAME, "reason", "lagging").count());
+    }
+
+    @Test
+    void failedSend_RemovesSubscriber() {
+        // Arrange
+        TaskChangeFeed feed = feed(16, 10, Runnable::run);
+        RecordingEmitter emitter = new RecordingEmitter();
+        feed.subscribe(null, null, emitter);
+        emitter.failing = true;
+
+        // Act
+        feed.onTaskChanged(TaskChangedEvent.deleted(1L, false));
+
+        // Assert
+        assertEquals(0, feed.getSubscriberCount());
+    }
+
+    @Test
+    void subscribe_MaxSubscribersReached_ReturnsNull() {
+        // Arrange
+        TaskChangeFeed feed = feed(16, 1, Runnable::run);
+        feed.subscribe(null, null, new RecordingEmitter());
+
+        // Act & Assert
+        assertNull(feed.subscribe(null, null, new RecordingEmitter()));
+    }
+
+    @Test
+    void heartbeat_SendsCommentToIdleSubscribers() {
+        // Arrange
+        TaskChangeFeed feed = feed(16, 10, Runnable::run);
+        RecordingEmitter emitter = new RecordingEmitter();
+        feed.subscribe(null, null, emitter);
+
+        // Act
+        feed.heartbeat();
+
+        // Assert
+        assertEquals(List.of(":\n\n"), emitter.frames);
+    }
+
+    @Test
+    void stalledWrite_IsAbandonedSoOtherSubscribersKeepReceiving() throws InterruptedException {
+        // Arrange: a single dispatch thread, held by a client that stopped reading
+        ThreadPoolExecutor pool = TaskChangeFeed.dispatchPool(1);
+        TaskChangeFeed feed = new TaskChangeFeed(new ObjectMapper(), beanFactory.getBeanProvider(MeterRegistry.class),
+                16, 10, pool, Duration.ofMillis(1));
+        StallingEmitter stalled = new StallingEmitter();
+        feed.subscribe(null, null, stalled);
+        feed.onTaskChanged(TaskChangedEvent.deleted(1L, false));
+        assertTrue(stalled.writing.await(5, TimeUnit.SECONDS));
+        RecordingEmitter emitter = new RecordingEmitter();
+        feed.subscribe(null, null, emitter);
+        feed.onTaskChanged(TaskChangedEvent.deleted(2L, false));
+        Thread.sleep(10);
+
+        // Act
+        feed.dropStalledSubscribers();
+
+        // Assert
+        awaitTrue(() -> emitter.frames.size() == 1);
+        assertEquals(List.of("deleted"), eventNames(emitter));
+        assertEquals(1, feed.getSubscriberCount());
+        assertEquals(1.0, meterRegistry.counter(TaskChangeFeed.STALLED_METRIC_NAME).count());
+
+        // Act - the blocked write finally returns
+        stalled.release.countDown();
+
+        // Assert
+        awaitTrue(() -> stalled.completed);
+        awaitTrue(() -> pool.getCorePoolSize() == 1 && pool.getMaximumPoolSize() == 1);
+        feed.shutdown();
+    }
+
+    private TaskChangeFeed feed(int capacity, int maxSubscribers, Executor dispatcher) {
+        return new TaskChangeFeed(new ObjectMapper(), beanFactory.getBeanProvider(MeterRegistry.class), capacity,
+                maxSubscribers, dispatcher, Duration.ofSeconds(5));
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timed out");
+            Thread.sleep(5);
+        }
+    }
+
+    private static Task task(Long id, boolean completed) {
+        Task task = new Task();
+        task.setId(id);
+        task.setDescription("Task " + id);
+        task.setIsCompleted(completed);
+        return task;
+    }
+
+    private static String eventId(String frame) {
+        return frame.substring("id:".length(), frame.indexOf('\n'));
+    }
+
+    private static List<String> eventNames(RecordingEmitter emitter) {
+        return emitter.frames.stream()
+                .map(frame -> frame.substring(frame.indexOf("event:") + "event:".length(), frame.indexOf('\n',
+                        frame.indexOf("event:"))))
+                .collect(Collectors.toList());
+    }
+
+    // Records each event as the text that would be written to the response
+    static class RecordingEmitter extends SseEmitter {
+
+        final List<String> frames = Collections.synchronizedList(new ArrayList<>());
+        boolean failing;
+        volatile boolean completed;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+            frames.add(builder.build().stream()
+                    .map(data -> data.getData().toString())
+                    .collect(Collectors.joining()));
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+            super.complete();
+        }
+    }
+
+    // Blocks in send() like a write to a client whose TCP window is full
+    static class StallingEmitter extends RecordingEmitter {
+
+        final CountDownLatch writing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            writing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            super.send(builder);
+        }
+    }
+}
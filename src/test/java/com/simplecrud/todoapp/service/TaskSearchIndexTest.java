@@ -0,0 +1,132 @@
+package com.simplecrud.todoapp.service;
+
+import com.simplecrud.todoapp.event.TaskChangedEvent;
+import com.simplecrud.todoapp.model.Task;
+import com.simplecrud.todoapp.repository.TaskRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TaskSearchIndexTest {
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private TaskSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TaskSearchIndex(taskRepository, entityManager);
+    }
+
+    @Test
+    void tokenize_SplitsOnNonLettersAndIdeographs() {
+        // Act & Assert
+        assertEquals(List.of("buy", "milk", "2", "liters"), TaskSearchIndex.tokenize("Buy MILK, 2 liters!"));
+        assertEquals(List.of("买", "牛", "奶", "today"), TaskSearchIndex.tokenize("买牛奶 today"));
+    }
+
+    @Test
+    void initialize_IndexesStreamedTasks() {
+        // Arrange
+        when(taskRepository.streamAllByOrderByIdAsc())
+                .thenReturn(Stream.of(task(1L, "Write report"), task(2L, "Read report")));
+
+        // Act
+        index.initialize();
+
+        // Assert
+        assertEquals(List.of(1L, 2L), index.search("report", 10));
+        assertEquals(2, index.memoryUsage().getTasks());
+        verify(entityManager, times(2)).detach(any(Task.class));
+    }
+
+    @Test
+    void search_RequiresAllTermsAndRanksShorterDescriptionsFirst() {
+        // Arrange
+        index.index(1L, "buy milk and bread and eggs");
+        index.index(2L, "buy milk");
+        index.index(3L, "buy bread");
+
+        // Act & Assert
+        assertEquals(List.of(2L, 1L), index.search("Milk buy", 10));
+        assertEquals(List.of(2L), index.search("milk buy", 1));
+        assertTrue(index.search("milk cheese", 10).isEmpty());
+    }
+
+    @Test
+    void search_PrefixTerm_PrefersExactTokenMatches() {
+        // Arrange
+        index.index(1L, "momentum");
+        index.index(2L, "mother");
+        index.index(3L, "mom");
+
+        // Act & Assert
+        assertEquals(List.of(3L, 1L), index.search("mom*", 10));
+        assertEquals(List.of(1L, 2L, 3L), index.search("mo*", 10));
+        assertEquals(List.of(3L), index.search("mom", 10));
+    }
+
+    @Test
+    void search_InvalidQuery_Throws() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> index.search("  ", 10));
+        assertThrows(IllegalArgumentException.class, () -> index.search("m*", 10));
+        assertThrows(IllegalArgumentException.class, () -> index.search("a b c d e f g h i j k", 10));
+    }
+
+    @Test
+    void onTaskChanged_UpdateAndDelete_ReplaceAndRemovePostings() {
+        // Arrange
+        index.onTaskChanged(TaskChangedEvent.created(task(1L, "old text")));
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(task(1L, "new text")));
+
+        // Act
+        index.onTaskChanged(TaskChangedEvent.updated(1L, null));
+
+        // Assert
+        assertTrue(index.search("old", 10).isEmpty());
+        assertEquals(List.of(1L), index.search("new", 10));
+        index.onTaskChanged(TaskChangedEvent.completionChanged(1L, true, null));
+        index.onTaskChanged(TaskChangedEvent.deleted(1L, true));
+        assertTrue(index.search("text", 10).isEmpty());
+        assertEquals(0, index.memoryUsage().getTerms());
+    }
+
+    @Test
+    void memoryUsage_ReportsBytesPerMillionTasks() {
+        // Arrange
+        for (long id = 1; id <= 1000; id++) {
+            index.index(id, "task number " + id);
+        }
+
+        // Act
+        TaskSearchIndex.MemoryUsage usage = index.memoryUsage();
+
+        // Assert
+        assertEquals(1000, usage.getTasks());
+        assertEquals(1002, usage.getTerms());
+        assertTrue(usage.getPostingBytes() > 0);
+        assertEquals(usage.getTotalBytes() * 1000, usage.getBytesPerMillionTasks());
+    }
+
+    private static Task task(Long id, String description) {
+        Task task = new Task(description, false, null);
+        task.setId(id);
+        return task;
+    }
+}
@@ -0,0 +1,167 @@
+package com.simplecrud.todoapp.service;
+
+import com.simplecrud.todoapp.config.CacheConfig;
+import com.simplecrud.todoapp.model.Task;
+import com.simplecrud.todoapp.repository.TaskRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.persistence.EntityManager;
+import javax.validation.Validator;
+import java.util.Date;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@SpringJUnitConfig({TaskService.class, CacheConfig.class})
+@TestPropertySource(properties = {
+        "spring.cache.cache-names=tasks",
+        "spring.cache.caffeine.spec=maximumSize=100,recordStats"
+})
+class TaskServiceCachingTest {
+
+    @MockBean
+    private TaskRepository taskRepository;
+
+    @MockBean
+    private EntityManager entityManager;
+
+    @MockBean
+    private Validator validator;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Task sampleTask;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(TaskService.TASKS_CACHE).clear();
+        sampleTask = new Task("Cached task", false, new Date());
+        sampleTask.setId(1L);
+        // As loaded from the database
+        ReflectionTestUtils.setField(sampleTask, "version", 0L);
+    }
+
+    @Test
+    void findTaskById_RepeatedLookup_HitsRepositoryOnce() {
+        // Arrange
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(sampleTask));
+
+        // Act
+        taskService.findTaskById(1L);
+        Optional<Task> second = taskService.findTaskById(1L);
+
+        // Assert
+        assertEquals(Optional.of(sampleTask), second);
+        verify(taskRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void findTaskById_MissingTask_CachesNotFound() {
+        // Arrange
+        when(taskRepository.findById(999L)).thenReturn(Optional.empty());
+
+        // Act
+        taskService.findTaskById(999L);
+        Optional<Task> second = taskService.findTaskById(999L);
+
+        // Assert
+        assertFalse(second.isPresent());
+        verify(taskRepository, times(1)).findById(999L);
+    }
+
+    @Test
+    void createTask_ReplacesCachedNotFound() {
+        // Arrange - id 1 was looked up before it existed
+        when(taskRepository.findById(1L)).thenReturn(Optional.empty());
+        taskService.findTaskById(1L);
+        when(taskRepository.save(any(Task.class))).thenReturn(sampleTask);
+
+        // Act
+        taskService.createTask(new Task("Cached task", false, new Date()));
+        Optional<Task> result = taskService.findTaskById(1L);
+
+        // Assert
+        assertEquals(Optional.of(sampleTask), result);
+        verify(taskRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void updateTaskCompletionStatus_RefreshesCachedTask() {
+        // Arrange
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(sampleTask));
+        taskService.findTaskById(1L);
+        when(taskRepository.updateCompletionStatus(eq(1L), eq(true), any(Date.class))).thenReturn(1);
+
+        // Act
+        taskService.updateTaskCompletionStatus(1L, true);
+        Optional<Task> result = taskService.findTaskById(1L);
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertTrue(result.get().getIsCompleted());
+    }
+
+    @Test
+    void updateTaskDescription_CachedTask_AppliesChangeWithoutReadingIt() {
+        // Arrange
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(sampleTask));
+        taskService.findTaskById(1L);
+        when(taskRepository.updateDescription(eq(1L), eq("Changed"), any(Date.class))).thenReturn(1);
+
+        // Act
+        Task result = taskService.updateTaskDescription(1L, "Changed");
+
+        // Assert
+        assertEquals("Changed", result.getDescription());
+        assertEquals(1L, result.getVersion());
+        assertEquals("Cached task", sampleTask.getDescription());
+        assertEquals(Optional.of(result), taskService.findTaskById(1L));
+        verify(taskRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void setTaskDescription_EvictsCachedTask() {
+        // Arrange
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(sampleTask));
+        taskService.findTaskById(1L);
+        when(taskRepository.updateDescription(eq(1L), eq("Changed"), any(Date.class))).thenReturn(1);
+
+        // Act
+        taskService.setTaskDescription(1L, "Changed");
+        taskService.findTaskById(1L);
+
+        // Assert
+        verify(taskRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void deleteTask_CachesNotFound() {
+        // Arrange
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(sampleTask));
+        when(taskRepository.lockCompletionStatusById(1L)).thenReturn(Optional.of(false));
+        when(taskRepository.softDeleteById(eq(1L), any(Date.class))).thenReturn(1);
+        taskService.findTaskById(1L);
+
+        // Act - the soft delete replaces the cached task with "not found"
+        taskService.deleteTask(1L);
+        Optional<Task> afterDelete = taskService.findTaskById(1L);
+
+        // Assert
+        assertFalse(afterDelete.isPresent());
+        verify(taskRepository, times(1)).findById(1L);
+    }
+}
@@ -0,0 +1,215 @@
+package com.simplecrud.todoapp.service;
+
+import com.simplecrud.todoapp.config.CacheConfig;
+import com.simplecrud.todoapp.config.ReplicaRoutingDataSource;
+import com.simplecrud.todoapp.dto.TaskView;
+import com.simplecrud.todoapp.model.Task;
+import com.simplecrud.todoapp.repository.TaskRepository;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import javax.validation.Validator;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Read-only transactions go to a "replica" that is the REPLICA schema of the same H2 database: a copy of the
+// task table that only receives the rows a test copies into it, so it lags behind the primary on demand. The
+// replica's reported lag is read from public.replica_lag.
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({TaskService.class, CacheConfig.class, TaskServiceReplicaCachingTest.RoutingConfig.class})
+@TestPropertySource(properties = "spring.cache.cache-names=tasks")
+class TaskServiceReplicaCachingTest {
+
+    private static final String URL = "jdbc:h2:mem:replica-caching;DB_CLOSE_DELAY=-1";
+
+    @MockBean
+    private Validator validator;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table if not exists replica.task as select * from public.task where 1 = 0");
+        jdbcTemplate.update("delete from replica.task");
+        jdbcTemplate.update("update replica_lag set lag = 0");
+        replicaRoutingDataSource.checkReplicas();
+    }
+
+    @AfterEach
+    void tearDown() {
+        taskRepository.deleteAll();
+        entityManagerFactory.getCache().evictAll();
+        cacheManager.getCache(TaskService.TASKS_CACHE).clear();
+    }
+
+    @Test
+    void findTaskById_TaskNotYetReplicated_NotFoundIsNotCached() {
+        // Arrange
+        Task task = taskRepository.save(new Task("Not replicated", false, null));
+        entityManagerFactory.getCache().evictAll();
+
+        // Act
+        Optional<Task> beforeReplication = taskService.findTaskById(task.getId());
+        replicate();
+        Optional<Task> afterReplication = taskService.findTaskById(task.getId());
+
+        // Assert - the first read was served by the replica, which did not have the task yet
+        assertTrue(beforeReplication.isEmpty());
+        assertEquals(Optional.of(task.getId()), afterReplication.map(Task::getId));
+    }
+
+    @Test
+    void findTaskById_StaleReplicaRow_IsNotCached() {
+        // Arrange - the replica still has the description from before the update
+        Task task = taskRepository.save(new Task("Old", false, null));
+        replicate();
+        taskRepository.updateDescription(task.getId(), "New", new Date());
+        entityManagerFactory.getCache().evictAll();
+
+        // Act
+        String stale = taskService.findTaskById(task.getId()).orElseThrow().getDescription();
+        boolean inTaskRegion = entityManagerFactory.getCache().contains(Task.class, task.getId());
+        replicate();
+        String current = taskService.findTaskById(task.getId()).orElseThrow().getDescription();
+
+        // Assert
+        assertEquals("Old", stale);
+        assertFalse(inTaskRegion);
+        assertEquals("New", current);
+    }
+
+    @Test
+    void findAllUncompletedTasks_TaskNotYetReplicated_ResultIsNotQueryCached() {
+        // Arrange
+        Task task = taskRepository.save(new Task("Not replicated", false, null));
+
+        // Act
+        List<Long> beforeReplication = uncompletedIds();
+        replicate();
+        List<Long> afterReplication = uncompletedIds();
+
+        // Assert
+        assertEquals(List.of(), beforeReplication);
+        assertEquals(List.of(task.getId()), afterReplication);
+    }
+
+    @Test
+    void findTaskById_NoHealthyReplica_IsReadFromPrimaryAndCached() {
+        // Arrange
+        Task task = taskRepository.save(new Task("Primary only", false, null));
+        jdbcTemplate.update("update replica_lag set lag = 60");
+        replicaRoutingDataSource.checkReplicas();
+
+        // Act
+        Optional<Task> found = taskService.findTaskById(task.getId());
+
+        // Assert
+        assertEquals(Optional.of(task.getId()), found.map(Task::getId));
+        assertNotNull(cacheManager.getCache(TaskService.TASKS_CACHE).get(task.getId()));
+        assertTrue(entityManagerFactory.getCache().contains(Task.class, task.getId()));
+    }
+
+    @Test
+    void exportTasks_StaleReplicaRow_IsNotCached() {
+        // Arrange - the replica still has the description from before the update
+        Task task = taskRepository.save(new Task("Old", false, null));
+        replicate();
+        taskRepository.updateDescription(task.getId(), "New", new Date());
+        entityManagerFactory.getCache().evictAll();
+        List<Task> exported = new ArrayList<>();
+
+        // Act
+        taskService.exportTasks(null, exported::add);
+
+        // Assert
+        assertEquals(List.of("Old"), exported.stream().map(Task::getDescription).collect(Collectors.toList()));
+        assertFalse(entityManagerFactory.getCache().contains(Task.class, task.getId()));
+    }
+
+    // Brings the replica up to date with the primary
+    private void replicate() {
+        jdbcTemplate.update("delete from replica.task");
+        jdbcTemplate.update("insert into replica.task select * from public.task");
+    }
+
+    private List<Long> uncompletedIds() {
+        return taskService.findAllUncompletedTasks().stream().map(TaskView::getId).collect(Collectors.toList());
+    }
+
+    @TestConfiguration
+    static class RoutingConfig {
+
+        @Bean(destroyMethod = "")
+        ReplicaRoutingDataSource replicaRoutingDataSource() {
+            JdbcDataSource primary = h2(URL);
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(primary);
+            jdbcTemplate.execute("create schema if not exists replica");
+            jdbcTemplate.execute("create table if not exists replica_lag (lag int)");
+            jdbcTemplate.update("delete from replica_lag");
+            jdbcTemplate.update("insert into replica_lag (lag) values (0)");
+            ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary,
+                    List.of(h2(URL + ";SCHEMA=REPLICA")), Duration.ofSeconds(5),
+                    "select lag as seconds_behind from public.replica_lag", "SECONDS_BEHIND");
+            routing.checkReplicas();
+            return routing;
+        }
+
+        @Bean
+        @Primary
+        DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+            return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+        }
+
+        private static JdbcDataSource h2(String url) {
+            JdbcDataSource dataSource = new JdbcDataSource();
+            dataSource.setURL(url);
+            dataSource.setUser("sa");
+            return dataSource;
+        }
+    }
+}
@@ -1,5 +1,12 @@
 package com.simplecrud.todoapp.service;
 
+import com.simplecrud.todoapp.dto.BatchCreateResult;
+import com.simplecrud.todoapp.dto.TaskCursor;
+import com.simplecrud.todoapp.dto.TaskPage;
+import com.simplecrud.todoapp.dto.TaskVersion;
+import com.simplecrud.todoapp.dto.TaskView;
+import com.simplecrud.todoapp.event.TaskChangedEvent;
+import com.simplecrud.todoapp.exceptions.TaskNotFoundException;
 import com.simplecrud.todoapp.model.Task;
 import com.simplecrud.todoapp.repository.TaskRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -8,15 +15,28 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+
+import javax.persistence.EntityManager;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -25,6 +45,18 @@ class TaskServiceTest {
     @Mock
     private TaskRepository taskRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private Validator validator;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private TaskService taskService;
 
@@ -72,17 +104,17 @@ class TaskServiceTest {
         // Arrange
         Task completedTask1 = new Task("Completed task 1", true, new Date());
         Task completedTask2 = new Task("Completed task 2", true, new Date());
-        List<Task> completedTasks = Arrays.asList(completedTask1, completedTask2);
+        List<TaskView> completedTasks = Arrays.asList(TaskView.of(completedTask1), TaskView.of(completedTask2));
         
-        when(taskRepository.findByIsCompleted(true)).thenReturn(completedTasks);
+        when(taskRepository.findViewsByIsCompleted(true)).thenReturn(completedTasks);
 
         // Act
-        List<Task> result = taskService.findAllCompletedTasks();
+        List<TaskView> result = taskService.findAllCompletedTasks();
 
         // Assert
         assertEquals(2, result.size());
-        assertTrue(result.stream().allMatch(Task::getIsCompleted));
-        verify(taskRepository).findByIsCompleted(true);
+        assertTrue(result.stream().allMatch(TaskView::getIsCompleted));
+        verify(taskRepository).findViewsByIsCompleted(true);
     }
 
     @Test
@@ -90,17 +122,102 @@ class TaskServiceTest {
         // Arrange
         Task uncompletedTask1 = new Task("Uncompleted task 1", false, new Date());
         Task uncompletedTask2 = new Task("Uncompleted task 2", false, new Date());
-        List<Task> uncompletedTasks = Arrays.asList(uncompletedTask1, uncompletedTask2);
+        List<TaskView> uncompletedTasks = Arrays.asList(TaskView.of(uncompletedTask1), TaskView.of(uncompletedTask2));
         
-        when(taskRepository.findByIsCompleted(false)).thenReturn(uncompletedTasks);
+        when(taskRepository.findViewsByIsCompleted(false)).thenReturn(uncompletedTasks);
 
         // Act
-        List<Task> result = taskService.findAllUncompletedTasks();
+        List<TaskView> result = taskService.findAllUncompletedTasks();
 
         // Assert
         assertEquals(2, result.size());
-        assertTrue(result.stream().noneMatch(Task::getIsCompleted));
-        verify(taskRepository).findByIsCompleted(false);
+        assertTrue(result.stream().noneMatch(TaskView::getIsCompleted));
+        verify(taskRepository).findViewsByIsCompleted(false);
+    }
+
+    @Test
+    void findTaskViews_KeepsRequestedOrderAndSkipsMissingTasks() {
+        // Arrange
+        TaskView first = new TaskView(3L, "Third", false, null, new Date(), new Date(), 0L);
+        TaskView second = new TaskView(1L, "First", false, null, new Date(), new Date(), 0L);
+        when(taskRepository.findViewsByIdIn(List.of(3L, 9L, 1L))).thenReturn(List.of(second, first));
+
+        // Act
+        List<TaskView> result = taskService.findTaskViews(List.of(3L, 9L, 1L));
+
+        // Assert
+        assertEquals(List.of(first, second), result);
+    }
+
+    @Test
+    void findCompletedTasksPage_MoreRowsThanLimit_ReturnsPageWithNextCursor() {
+        // Arrange
+        Task task1 = new Task("Completed task 1", true, new Date());
+        task1.setId(11L);
+        Task task2 = new Task("Completed task 2", true, new Date());
+        task2.setId(12L);
+        Task task3 = new Task("Completed task 3", true, new Date());
+        task3.setId(13L);
+
+        when(taskRepository.findViewsByIsCompletedAndIdGreaterThanOrderByIdAsc(true, 10L, PageRequest.of(0, 3)))
+                .thenReturn(Arrays.asList(TaskView.of(task1), TaskView.of(task2), TaskView.of(task3)));
+
+        // Act
+        TaskPage page = taskService.findCompletedTasksPage(TaskCursor.encode(10L), 2);
+
+        // Assert
+        assertEquals(2, page.getItems().size());
+        assertEquals(12L, TaskCursor.decode(page.getNextCursor()));
+    }
+
+    @Test
+    void findUncompletedTasksPage_LastPage_ReturnsNullCursor() {
+        // Arrange
+        when(taskRepository.findViewsByIsCompletedAndIdGreaterThanOrderByIdAsc(false, 0L, PageRequest.of(0, 11)))
+                .thenReturn(Arrays.asList(TaskView.of(sampleTask)));
+
+        // Act
+        TaskPage page = taskService.findUncompletedTasksPage(null, 10);
+
+        // Assert
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void findCompletedTasksPage_InvalidCursor_ThrowsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> taskService.findCompletedTasksPage("not-a-cursor!", 10));
+        verifyNoInteractions(taskRepository);
+    }
+
+    @Test
+    void exportTasks_WithFilter_PassesEachTaskToConsumerAndDetachesIt() {
+        // Arrange
+        Task completedTask = new Task("Completed task", true, new Date());
+        when(taskRepository.streamByIsCompletedOrderByIdAsc(true)).thenReturn(Stream.of(completedTask));
+        List<Task> exported = new ArrayList<>();
+
+        // Act
+        taskService.exportTasks(true, exported::add);
+
+        // Assert
+        assertEquals(List.of(completedTask), exported);
+        verify(entityManager).detach(completedTask);
+        verify(taskRepository, never()).streamAllByOrderByIdAsc();
+    }
+
+    @Test
+    void exportTasks_WithoutFilter_StreamsAllTasks() {
+        // Arrange
+        when(taskRepository.streamAllByOrderByIdAsc()).thenReturn(Stream.of(sampleTask));
+        List<Task> exported = new ArrayList<>();
+
+        // Act
+        taskService.exportTasks(null, exported::add);
+
+        // Assert
+        assertEquals(List.of(sampleTask), exported);
+        verify(entityManager).detach(sampleTask);
     }
 
     @Test
@@ -131,17 +248,66 @@ class TaskServiceTest {
         ));
     }
 
+    @Test
+    void createTasks_MixedValidity_CreatesValidTasksAndReportsInvalidOnes() {
+        // Arrange - a real validator so the entity constraints are applied
+        TaskService service = new TaskService(taskRepository, entityManager,
+                Validation.buildDefaultValidatorFactory().getValidator(), cacheManager, eventPublisher);
+        Task first = new Task("First", null, new Date());
+        Task invalid = new Task(null, null, new Date());
+        Task third = new Task("Third", true, new Date());
+        long[] nextId = {100L};
+        when(taskRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Task> tasks = invocation.getArgument(0);
+            tasks.forEach(task -> task.setId(nextId[0]++));
+            return tasks;
+        });
+
+        // Act
+        BatchCreateResult result = service.createTasks(Arrays.asList(first, invalid, third, null));
+
+        // Assert
+        assertEquals(Arrays.asList(100L, null, 101L, null), result.getIds());
+        assertEquals(2, result.getErrors().size());
+        assertEquals(1, result.getErrors().get(0).getIndex());
+        assertEquals("description must not be null", result.getErrors().get(0).getMessage());
+        assertEquals(3, result.getErrors().get(1).getIndex());
+        assertEquals(2, result.getCreatedCount());
+        assertFalse(third.getIsCompleted());
+        verify(taskRepository).saveAll(anyList());
+        verify(entityManager).flush();
+        verify(entityManager).clear();
+    }
+
+    @Test
+    void createTasks_MoreThanOneJdbcBatch_FlushesPerBatch() {
+        // Arrange
+        List<Task> newTasks = new ArrayList<>();
+        for (int i = 0; i < TaskService.INSERT_BATCH_SIZE + 1; i++) {
+            newTasks.add(new Task("Task " + i, false, null));
+        }
+        when(taskRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        BatchCreateResult result = taskService.createTasks(newTasks);
+
+        // Assert
+        assertEquals(TaskService.INSERT_BATCH_SIZE + 1, result.getCreatedCount());
+        verify(taskRepository, times(2)).saveAll(anyList());
+        verify(entityManager, times(2)).flush();
+    }
+
     @Test
     void updateTaskCompletionStatus_ExistingTask_UpdatesAndReturnsTask() {
         // Arrange
-        when(taskRepository.findById(1L)).thenReturn(Optional.of(sampleTask));
-        
+        when(taskRepository.updateCompletionStatus(eq(1L), eq(true), any(Date.class))).thenReturn(1);
+
         Task updatedTask = new Task();
         updatedTask.setId(1L);
         updatedTask.setDescription("Test task");
         updatedTask.setIsCompleted(true);
-        
-        when(taskRepository.save(any(Task.class))).thenReturn(updatedTask);
+
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(updatedTask));
 
         // Act
         Task result = taskService.updateTaskCompletionStatus(1L, true);
@@ -149,36 +315,80 @@ class TaskServiceTest {
         // Assert
         assertNotNull(result);
         assertTrue(result.getIsCompleted());
-        verify(taskRepository).findById(1L);
-        verify(taskRepository).save(sampleTask);
-        assertTrue(sampleTask.getIsCompleted()); // Verify the original object was modified
+        verify(taskRepository).updateCompletionStatus(eq(1L), eq(true), any(Date.class));
+        verify(taskRepository, never()).existsById(anyLong());
+        verify(taskRepository, never()).save(any());
     }
 
     @Test
-    void updateTaskCompletionStatus_NonExistingTask_ThrowsRuntimeException() {
+    void updateTaskCompletionStatus_NonExistingTask_ThrowsTaskNotFoundException() {
         // Arrange
+        when(taskRepository.updateCompletionStatus(eq(999L), eq(true), any(Date.class))).thenReturn(0);
         when(taskRepository.findById(999L)).thenReturn(Optional.empty());
 
         // Act & Assert
-        RuntimeException exception = assertThrows(RuntimeException.class, 
+        TaskNotFoundException exception = assertThrows(TaskNotFoundException.class, 
             () -> taskService.updateTaskCompletionStatus(999L, true));
         
         assertEquals("Task not found with id: 999", exception.getMessage());
-        verify(taskRepository).findById(999L);
+        assertEquals(0, exception.getStackTrace().length);
+        verify(taskRepository, never()).existsById(anyLong());
         verify(taskRepository, never()).save(any());
     }
 
+    @Test
+    void updateTaskCompletionStatus_ValueAlreadySet_ReturnsTaskWithOneRead() {
+        // Arrange - the conditional UPDATE matched nothing because the value is unchanged
+        when(taskRepository.updateCompletionStatus(eq(1L), eq(false), any(Date.class))).thenReturn(0);
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(sampleTask));
+
+        // Act
+        Task result = taskService.updateTaskCompletionStatus(1L, false);
+
+        // Assert
+        assertSame(sampleTask, result);
+        verify(taskRepository).findById(1L);
+        verify(taskRepository, never()).existsById(anyLong());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void setTaskCompletionStatus_ValueAlreadySet_DoesNotThrowOrReadTask() {
+        // Arrange - the conditional UPDATE matched nothing because the value is unchanged
+        when(taskRepository.updateCompletionStatus(eq(1L), eq(false), any(Date.class))).thenReturn(0);
+        when(taskRepository.existsById(1L)).thenReturn(true);
+
+        // Act
+        taskService.setTaskCompletionStatus(1L, false);
+
+        // Assert
+        verify(taskRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void setTaskCompletionStatus_ChangedRow_IssuesOnlyTheUpdate() {
+        // Arrange
+        when(taskRepository.updateCompletionStatus(eq(1L), eq(true), any(Date.class))).thenReturn(1);
+
+        // Act
+        taskService.setTaskCompletionStatus(1L, true);
+
+        // Assert
+        verify(taskRepository).updateCompletionStatus(eq(1L), eq(true), any(Date.class));
+        verifyNoMoreInteractions(taskRepository);
+    }
+
     @Test
     void updateTaskDescription_ExistingTask_UpdatesAndReturnsTask() {
         // Arrange
-        when(taskRepository.findById(1L)).thenReturn(Optional.of(sampleTask));
-        
+        when(taskRepository.updateDescription(eq(1L), eq("Updated description"), any(Date.class))).thenReturn(1);
+
         Task updatedTask = new Task();
         updatedTask.setId(1L);
         updatedTask.setDescription("Updated description");
         updatedTask.setIsCompleted(false);
-        
-        when(taskRepository.save(any(Task.class))).thenReturn(updatedTask);
+
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(updatedTask));
 
         // Act
         Task result = taskService.updateTaskDescription(1L, "Updated description");
@@ -186,34 +396,196 @@ class TaskServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals("Updated description", result.getDescription());
-        verify(taskRepository).findById(1L);
-        verify(taskRepository).save(sampleTask);
-        assertEquals("Updated description", sampleTask.getDescription()); // Verify the original object was modified
+        verify(taskRepository).updateDescription(eq(1L), eq("Updated description"), any(Date.class));
+        verify(taskRepository, never()).save(any());
     }
 
     @Test
-    void updateTaskDescription_NonExistingTask_ThrowsRuntimeException() {
+    void updateTaskDescription_NonExistingTask_ThrowsTaskNotFoundException() {
         // Arrange
+        when(taskRepository.updateDescription(eq(999L), eq("New description"), any(Date.class))).thenReturn(0);
         when(taskRepository.findById(999L)).thenReturn(Optional.empty());
 
         // Act & Assert
-        RuntimeException exception = assertThrows(RuntimeException.class, 
+        TaskNotFoundException exception = assertThrows(TaskNotFoundException.class, 
             () -> taskService.updateTaskDescription(999L, "New description"));
         
         assertEquals("Task not found with id: 999", exception.getMessage());
-        verify(taskRepository).findById(999L);
+        verify(taskRepository, never()).existsById(anyLong());
         verify(taskRepository, never()).save(any());
     }
 
     @Test
-    void deleteTask_CallsRepositoryDeleteById() {
+    void setTaskDescription_NonExistingTask_ThrowsTaskNotFoundException() {
+        // Arrange
+        when(taskRepository.updateDescription(eq(999L), eq("New description"), any(Date.class))).thenReturn(0);
+        when(taskRepository.existsById(999L)).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(TaskNotFoundException.class, () -> taskService.setTaskDescription(999L, "New description"));
+    }
+
+    @Test
+    void deleteTask_UncompletedTask_SoftDeletesWithOneUpdate() {
+        // Arrange
+        when(taskRepository.lockCompletionStatusById(1L)).thenReturn(Optional.of(false));
+        when(taskRepository.softDeleteById(eq(1L), any(Date.class))).thenReturn(1);
+
+        // Act
+        taskService.deleteTask(1L);
+
+        // Assert
+        verify(taskRepository, times(1)).softDeleteById(eq(1L), any(Date.class));
+        verify(taskRepository, never()).findById(anyLong());
+        verify(taskRepository, never()).delete(any());
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof TaskChangedEvent
+                && ((TaskChangedEvent) event).getType() == TaskChangedEvent.Type.DELETED
+                && Boolean.FALSE.equals(((TaskChangedEvent) event).getCompleted())));
+    }
+
+    @Test
+    void deleteTask_CompletedTask_ReportsLockedState() {
+        // Arrange
+        when(taskRepository.lockCompletionStatusById(1L)).thenReturn(Optional.of(true));
+        when(taskRepository.softDeleteById(eq(1L), any(Date.class))).thenReturn(1);
+
+        // Act
+        taskService.deleteTask(1L);
+
+        // Assert
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof TaskChangedEvent
+                && ((TaskChangedEvent) event).getType() == TaskChangedEvent.Type.DELETED
+                && Boolean.TRUE.equals(((TaskChangedEvent) event).getCompleted())));
+    }
+
+    @Test
+    void deleteTask_MissingTask_IsNoOp() {
+        // Arrange
+        when(taskRepository.lockCompletionStatusById(999L)).thenReturn(Optional.empty());
+
+        // Act
+        taskService.deleteTask(999L);
+
+        // Assert
+        verify(taskRepository, never()).softDeleteById(anyLong(), any(Date.class));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void deleteTask_CachedAsNotFound_SkipsDatabase() {
+        // Arrange
+        Cache cache = new ConcurrentMapCache(TaskService.TASKS_CACHE);
+        cache.put(999L, null);
+        when(cacheManager.getCache(TaskService.TASKS_CACHE)).thenReturn(cache);
+
+        // Act
+        taskService.deleteTask(999L);
+
+        // Assert
+        verifyNoInteractions(taskRepository, eventPublisher);
+    }
+
+    @Test
+    void setTaskCompletionStatus_ChangedRow_PublishesCompletionChangedEvent() {
+        // Arrange
+        when(taskRepository.updateCompletionStatus(eq(1L), eq(true), any(Date.class))).thenReturn(1);
+
+        // Act
+        taskService.setTaskCompletionStatus(1L, true);
+
+        // Assert
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof TaskChangedEvent
+                && ((TaskChangedEvent) event).isCompletionChanged()
+                && Boolean.TRUE.equals(((TaskChangedEvent) event).getCompleted())));
+    }
+
+    @Test
+    void setTaskCompletionStatus_ValueAlreadySet_PublishesNothing() {
+        // Arrange
+        when(taskRepository.updateCompletionStatus(eq(1L), eq(true), any(Date.class))).thenReturn(0);
+        when(taskRepository.existsById(1L)).thenReturn(true);
+
+        // Act
+        taskService.setTaskCompletionStatus(1L, true);
+
+        // Assert
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void findTaskById_PendingWriteBehindChange_ReturnsCopyWithPendingValue() {
+        // Arrange
+        CompletionWriteBehindBuffer buffer = mock(CompletionWriteBehindBuffer.class);
+        taskService.setWriteBehindBuffer(buffer);
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(sampleTask));
+        when(buffer.pendingCompletionStatus(1L)).thenReturn(true);
+
+        // Act
+        Task found = taskService.findTaskById(1L).orElseThrow();
+
+        // Assert
+        assertTrue(found.getIsCompleted());
+        assertFalse(sampleTask.getIsCompleted());
+    }
+
+    @Test
+    void bufferTaskCompletionStatus_CachedTask_AcceptsWithoutDatabaseAccess() {
+        // Arrange
+        CompletionWriteBehindBuffer buffer = mock(CompletionWriteBehindBuffer.class);
+        taskService.setWriteBehindBuffer(buffer);
+        Cache cache = new ConcurrentMapCache(TaskService.TASKS_CACHE);
+        cache.put(1L, sampleTask);
+        when(cacheManager.getCache(TaskService.TASKS_CACHE)).thenReturn(cache);
+
+        // Act
+        Task result = taskService.bufferTaskCompletionStatus(1L, true);
+
+        // Assert
+        assertTrue(result.getIsCompleted());
+        assertEquals(sampleTask.getDescription(), result.getDescription());
+        verify(buffer).accept(1L, true);
+        verifyNoInteractions(taskRepository);
+    }
+
+    @Test
+    void bufferTaskCompletionStatus_MissingTask_ThrowsWithoutAccepting() {
+        // Arrange
+        CompletionWriteBehindBuffer buffer = mock(CompletionWriteBehindBuffer.class);
+        taskService.setWriteBehindBuffer(buffer);
+        when(cacheManager.getCache(TaskService.TASKS_CACHE)).thenReturn(new ConcurrentMapCache(TaskService.TASKS_CACHE));
+        when(taskRepository.findById(999L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(TaskNotFoundException.class, () -> taskService.bufferTaskCompletionStatus(999L, true));
+        verify(buffer, never()).accept(anyLong(), anyBoolean());
+    }
+
+    @Test
+    void findTaskVersion_CachedTask_DoesNotQueryDatabase() {
+        // Arrange
+        Cache cache = new ConcurrentMapCache(TaskService.TASKS_CACHE);
+        cache.put(1L, sampleTask);
+        when(cacheManager.getCache(TaskService.TASKS_CACHE)).thenReturn(cache);
+
+        // Act
+        Optional<TaskVersion> version = taskService.findTaskVersion(1L);
+
+        // Assert
+        assertEquals("\"0-0\"", version.orElseThrow().toETag());
+        verifyNoInteractions(taskRepository);
+    }
+
+    @Test
+    void findTaskVersion_NotCached_LooksUpVersionOnly() {
         // Arrange
-        Long taskId = 1L;
+        when(cacheManager.getCache(TaskService.TASKS_CACHE)).thenReturn(new ConcurrentMapCache(TaskService.TASKS_CACHE));
+        when(taskRepository.findVersionById(1L)).thenReturn(Optional.of(new TaskVersion(7L, true)));
 
         // Act
-        taskService.deleteTask(taskId);
+        Optional<TaskVersion> version = taskService.findTaskVersion(1L);
 
         // Assert
-        verify(taskRepository).deleteById(taskId);
+        assertEquals(7L, version.orElseThrow().getVersion());
+        verify(taskRepository, never()).findById(anyLong());
     }
-}
\ No newline at end of file
+}
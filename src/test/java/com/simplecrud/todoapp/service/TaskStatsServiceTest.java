@@ -0,0 +1,93 @@
+package com.simplecrud.todoapp.service;
+
+import com.simplecrud.todoapp.dto.TaskStats;
+import com.simplecrud.todoapp.event.TaskChangedEvent;
+import com.simplecrud.todoapp.model.Task;
+import com.simplecrud.todoapp.repository.TaskRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TaskStatsServiceTest {
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private OverdueTaskScheduler overdueTaskScheduler;
+
+    @InjectMocks
+    private TaskStatsService taskStatsService;
+
+    @BeforeEach
+    void setUp() {
+        when(taskRepository.count()).thenReturn(10L);
+        when(taskRepository.countByIsCompleted(true)).thenReturn(4L);
+        taskStatsService.initialize();
+    }
+
+    @Test
+    void initialize_LoadsCountersFromDatabase() {
+        // Arrange
+        when(overdueTaskScheduler.overdueCount()).thenReturn(3L);
+
+        // Act
+        TaskStats stats = taskStatsService.getStats();
+
+        // Assert
+        assertEquals(10, stats.getTotal());
+        assertEquals(4, stats.getCompleted());
+        assertEquals(6, stats.getUncompleted());
+        assertEquals(3, stats.getOverdue());
+    }
+
+    @Test
+    void onTaskChanged_AppliesCreateCompleteAndDelete() {
+        // Arrange
+        Task task = new Task("New task", false, null);
+        task.setId(11L);
+
+        // Act
+        taskStatsService.onTaskChanged(TaskChangedEvent.created(task));
+        taskStatsService.onTaskChanged(TaskChangedEvent.completionChanged(11L, true, null));
+        taskStatsService.onTaskChanged(TaskChangedEvent.deleted(1L, false));
+
+        // Assert
+        TaskStats stats = taskStatsService.getStats();
+        assertEquals(10, stats.getTotal());
+        assertEquals(5, stats.getCompleted());
+        assertEquals(5, stats.getUncompleted());
+    }
+
+    @Test
+    void onTaskChanged_DescriptionUpdate_LeavesCountersUnchanged() {
+        // Act
+        taskStatsService.onTaskChanged(TaskChangedEvent.updated(1L, null));
+
+        // Assert
+        assertEquals(4, taskStatsService.getStats().getCompleted());
+    }
+
+    @Test
+    void reconcile_CorrectsDriftFromDatabase() {
+        // Arrange - a row was deleted outside the service
+        taskStatsService.onTaskChanged(TaskChangedEvent.completionChanged(1L, true, null));
+        when(taskRepository.count()).thenReturn(9L);
+        when(taskRepository.countByIsCompleted(true)).thenReturn(5L);
+
+        // Act
+        taskStatsService.reconcile();
+
+        // Assert
+        TaskStats stats = taskStatsService.getStats();
+        assertEquals(9, stats.getTotal());
+        assertEquals(5, stats.getCompleted());
+    }
+}
@@ -0,0 +1,161 @@
+package com.simplecrud.todoapp.service;
+
+import com.simplecrud.todoapp.dto.SyncToken;
+import com.simplecrud.todoapp.dto.TaskChangeRow;
+import com.simplecrud.todoapp.dto.TaskChanges;
+import com.simplecrud.todoapp.dto.TaskView;
+import com.simplecrud.todoapp.exceptions.SyncTokenExpiredException;
+import com.simplecrud.todoapp.repository.TaskRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TaskSyncServiceTest {
+
+    private static final long NOW = 10_000_000L;
+    // NOW minus the 5 second settle window
+    private static final long UNTIL = NOW - 5_000;
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    private TaskSyncService syncService;
+
+    @BeforeEach
+    void setUp() {
+        syncService = new TaskSyncService(taskRepository, Duration.ofSeconds(5), Duration.ofHours(1));
+    }
+
+    @Test
+    void findChanges_WithoutToken_StartsFromTheBeginningAndSplitsDeletes() {
+        // Arrange
+        when(taskRepository.findChangesAfter(new Date(0), 0L, new Date(UNTIL), 3)).thenReturn(List.of(
+                row(4L, 1_000L, null), row(2L, 2_000L, new Date(2_000L)), row(9L, 3_000L, null)));
+
+        // Act
+        TaskChanges changes = syncService.findChanges(null, 2, NOW);
+
+        // Assert
+        assertEquals(List.of(4L), changes.getTasks().stream().map(TaskView::getId).collect(Collectors.toList()));
+        assertEquals(List.of(2L), changes.getDeletedIds());
+        assertTrue(changes.isHasMore());
+        SyncToken next = SyncToken.decode(changes.getNext());
+        assertEquals(2_000L, next.getAfterUpdatedAt());
+        assertEquals(2L, next.getAfterId());
+        assertEquals(UNTIL, next.getSafeSince());
+    }
+
+    @Test
+    void findChanges_MorePending_KeepsSafeSinceUntilCaughtUp() {
+        // Arrange
+        String since = new SyncToken(2_000L, 2L, NOW - 60_000).encode();
+        when(taskRepository.findChangesAfter(new Date(2_000L), 2L, new Date(UNTIL), 2))
+                .thenReturn(List.of(row(9L, 3_000L, null), row(11L, 3_000L, null)));
+        when(taskRepository.findChangesAfter(new Date(3_000L), 9L, new Date(UNTIL), 2))
+                .thenReturn(List.of(row(11L, 3_000L, null)));
+
+        // Act
+        TaskChanges behind = syncService.findChanges(since, 1, NOW);
+        TaskChanges caughtUp = syncService.findChanges(behind.getNext(), 1, NOW);
+
+        // Assert
+        assertEquals(NOW - 60_000, SyncToken.decode(behind.getNext()).getSafeSince());
+        assertFalse(caughtUp.isHasMore());
+        assertEquals(UNTIL, SyncToken.decode(caughtUp.getNext()).getSafeSince());
+        assertEquals(11L, SyncToken.decode(caughtUp.getNext()).getAfterId());
+    }
+
+    @Test
+    void findChanges_NoChanges_KeepsPosition() {
+        // Arrange
+        String since = new SyncToken(2_000L, 2L, UNTIL - 1_000).encode();
+        when(taskRepository.findChangesAfter(new Date(2_000L), 2L, new Date(UNTIL), 101)).thenReturn(List.of());
+
+        // Act
+        TaskChanges changes = syncService.findChanges(since, 100, NOW);
+
+        // Assert
+        assertTrue(changes.getTasks().isEmpty());
+        assertTrue(changes.getDeletedIds().isEmpty());
+        SyncToken next = SyncToken.decode(changes.getNext());
+        assertEquals(2_000L, next.getAfterUpdatedAt());
+        assertEquals(2L, next.getAfterId());
+        assertEquals(UNTIL, next.getSafeSince());
+    }
+
+    @Test
+    void findChanges_TokenOlderThanRetention_Throws() {
+        // Arrange
+        String since = new SyncToken(2_000L, 2L, NOW - Duration.ofHours(1).toMillis() - 1).encode();
+
+        // Act & Assert
+        assertThrows(SyncTokenExpiredException.class, () -> syncService.findChanges(since, 100, NOW));
+        verify(taskRepository, never()).findChangesAfter(any(), anyLong(), any(), anyInt());
+    }
+
+    @Test
+    void findChanges_MalformedToken_Throws() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> syncService.findChanges("not a token", 100, NOW));
+        // "1.2", a position without the safe-since part
+        assertThrows(IllegalArgumentException.class, () -> syncService.findChanges("MS4y", 100, NOW));
+    }
+
+    private static TaskChangeRow row(Long id, long updatedAt, Date deletedAt) {
+        return new TaskChangeRow() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getDescription() {
+                return "Task " + id;
+            }
+
+            @Override
+            public Boolean getIsCompleted() {
+                return false;
+            }
+
+            @Override
+            public Date getDueDate() {
+                return null;
+            }
+
+            @Override
+            public Date getCreatedAt() {
+                return new Date(0);
+            }
+
+            @Override
+            public Date getUpdatedAt() {
+                return new Date(updatedAt);
+            }
+
+            @Override
+            public Long getVersion() {
+                return 0L;
+            }
+
+            @Override
+            public Date getDeletedAt() {
+                return deletedAt;
+            }
+        };
+    }
+}
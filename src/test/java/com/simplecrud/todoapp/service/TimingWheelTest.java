@@ -0,0 +1,74 @@
+package com.simplecrud.todoapp.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    // 4 slots per level, 3 levels: 63 ticks of 10ms ahead
+    private final TimingWheel wheel = new TimingWheel(10, 2, 3, 0);
+    private final List<Long> expired = new ArrayList<>();
+
+    @Test
+    void advanceTo_ExpiresEntriesOnTheirTickAcrossAllLevels() {
+        // Arrange
+        for (long due : new long[]{15, 30, 170, 600, 601, 630}) {
+            assertTrue(wheel.schedule(due, due));
+        }
+
+        // Act & Assert: never before the due time, at most one tick after
+        for (long now = 0; now <= 640; now += 10) {
+            wheel.advanceTo(now, (id, dueMillis) -> expired.add(id));
+            for (long id : expired) {
+                assertTrue(id <= now && now - id < 10, id + " expired at " + now);
+            }
+            expired.clear();
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void schedule_NotAfterCurrentTick_IsRejected() {
+        // Arrange
+        wheel.advanceTo(100, (id, dueMillis) -> expired.add(id));
+
+        // Act & Assert
+        assertFalse(wheel.schedule(1L, 100));
+        assertFalse(wheel.schedule(2L, 50));
+        assertTrue(wheel.schedule(3L, 101));
+        assertThrows(IllegalArgumentException.class, () -> wheel.schedule(4L, 100 + wheel.spanMillis() + 10));
+    }
+
+    @Test
+    void cancel_RemovesEntryBeforeItExpires() {
+        // Arrange
+        wheel.schedule(1L, 200);
+        wheel.schedule(2L, 200);
+
+        // Act
+        assertTrue(wheel.cancel(1L));
+        wheel.advanceTo(200, (id, dueMillis) -> expired.add(id));
+
+        // Assert
+        assertEquals(List.of(2L), expired);
+        assertFalse(wheel.cancel(1L));
+    }
+
+    @Test
+    void schedule_SameIdTwice_KeepsLatestDueTime() {
+        // Arrange
+        wheel.schedule(1L, 50);
+
+        // Act
+        wheel.schedule(1L, 300);
+        wheel.advanceTo(100, (id, dueMillis) -> expired.add(id));
+
+        // Assert
+        assertTrue(expired.isEmpty());
+        assertTrue(wheel.contains(1L));
+    }
+}
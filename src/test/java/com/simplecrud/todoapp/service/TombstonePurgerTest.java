@@ -0,0 +1,66 @@
+package com.simplecrud.todoapp.service;
+
+import com.simplecrud.todoapp.repository.TaskRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TombstonePurgerTest {
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private TombstonePurger purger;
+
+    @BeforeEach
+    void setUp() {
+        purger = new TombstonePurger(taskRepository, transactionManager, Duration.ofHours(1), 2);
+    }
+
+    @Test
+    void purgeDeletedBefore_RemovesChunksUntilOneComesBackShort() {
+        // Arrange
+        Date cutoff = new Date();
+        when(taskRepository.findTombstoneIds(cutoff, 2)).thenReturn(List.of(1L, 2L))
+                .thenReturn(List.of(3L));
+        when(taskRepository.deleteTombstonesByIdIn(List.of(1L, 2L))).thenReturn(2);
+        when(taskRepository.deleteTombstonesByIdIn(List.of(3L))).thenReturn(1);
+
+        // Act
+        int purged = purger.purgeDeletedBefore(cutoff);
+
+        // Assert
+        assertEquals(3, purged);
+        verify(taskRepository, times(2)).findTombstoneIds(cutoff, 2);
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void purgeDeletedBefore_NoTombstones_DeletesNothing() {
+        // Arrange
+        Date cutoff = new Date();
+        when(taskRepository.findTombstoneIds(cutoff, 2)).thenReturn(List.of());
+
+        // Act
+        int purged = purger.purgeDeletedBefore(cutoff);
+
+        // Assert
+        assertEquals(0, purged);
+        verify(taskRepository, never()).deleteTombstonesByIdIn(anyCollection());
+    }
+}